@@ -0,0 +1,27 @@
+package org.example.config;
+
+import org.example.backfill.RangeBackfill;
+import org.example.lock.DistributedLock;
+import org.example.mapper.BusinessMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 回填任务配置
+ * 商家的评分、销量、距离数值影子列启动后分批回填，之后定期校准；商家数据不经本服务写入，由定期校准同步
+ */
+@Configuration
+public class BackfillConfig {
+
+    @Bean
+    public RangeBackfill businessNumericColumnBackfill(
+            BusinessMapper businessMapper,
+            DistributedLock distributedLock,
+            @Value("${eleme.backfill.business.batch-size:1000}") int batchSize,
+            @Value("${eleme.backfill.business.pause-millis:50}") long pauseMillis,
+            @Value("${eleme.backfill.business.interval-minutes:10}") long intervalMinutes) {
+        return new RangeBackfill("business-numeric", businessMapper::findMaxId, businessMapper::syncNumericColumns,
+                distributedLock, batchSize, pauseMillis, intervalMinutes);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.config;
+
+import org.example.entity.Business;
+import org.example.geo.GeoIndex;
+import org.example.mapper.BusinessMapper;
+import org.example.search.SearchIndex;
+import org.example.search.SuggestIndex;
+import org.example.search.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 搜索索引配置
+ * 商家名称搜索走本地倒排索引，输入提示走本地前缀词典，附近商家走本地地理索引，只包含营业中的商家
+ */
+@Configuration
+public class SearchIndexConfig {
+
+    @Bean
+    public SearchIndex businessSearchIndex(
+            BusinessMapper businessMapper,
+            @Value("${eleme.search.business.rebuild-interval-minutes:30}") long rebuildIntervalMinutes) {
+        return new SearchIndex("business", businessMapper::findSearchEntries, rebuildIntervalMinutes);
+    }
+
+    @Bean
+    public SuggestIndex businessSuggestIndex(
+            BusinessMapper businessMapper,
+            @Value("${eleme.search.business.suggest-top-k:20}") int topK,
+            @Value("${eleme.search.business.suggest-rebuild-interval-minutes:10}") long rebuildIntervalMinutes) {
+        // 商家名和商家分类都作为提示，分类的权重为该分类下商家销量之和
+        return new SuggestIndex("business", () -> {
+            List<Business> businesses = businessMapper.findSuggestSources();
+            List<Suggestion> suggestions = new ArrayList<>(businesses.size() * 2);
+            for (Business business : businesses) {
+                long weight = SuggestIndex.parseWeight(business.getSales());
+                suggestions.add(new Suggestion(business.getBusinessName(), Suggestion.CATEGORY_BUSINESS, weight));
+                if (business.getType() != null) {
+                    suggestions.add(new Suggestion(business.getType(), Suggestion.CATEGORY_TYPE, weight));
+                }
+            }
+            return suggestions;
+        }, topK, rebuildIntervalMinutes);
+    }
+
+    @Bean
+    public GeoIndex businessGeoIndex(
+            BusinessMapper businessMapper,
+            @Value("${eleme.geo.business.rebuild-interval-minutes:30}") long rebuildIntervalMinutes) {
+        return new GeoIndex("business", businessMapper::findGeoEntries, rebuildIntervalMinutes);
+    }
+}
@@ -6,10 +6,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.R;
 import org.example.entity.Business;
+import org.example.search.Suggestion;
 import org.example.service.BusinessService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 
 import java.util.List;
 import java.util.Map;
@@ -50,6 +55,20 @@ public class BusinessController {
         return businessService.getBusinessById(id);
     }
 
+    /**
+     * 根据ID列表批量获取商家信息（供其他服务调用）
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "批量获取商家", description = "根据商家ID列表批量获取商家信息，默认不包含食物列表")
+    public R<List<Business>> getBusinessesByIds(
+            @Parameter(description = "商家ID列表", required = true)
+            @RequestBody List<Integer> ids,
+            @Parameter(description = "是否包含食物列表，默认不包含")
+            @RequestParam(defaultValue = "false") Boolean includeFoods) {
+        log.info("批量获取商家请求: {}, 包含食物列表: {}", ids, includeFoods);
+        return businessService.getBusinessesByIds(ids, includeFoods);
+    }
+
     /**
      * 获取所有商家
      */
@@ -82,6 +101,19 @@ public class BusinessController {
         return businessService.searchBusiness(keyword);
     }
 
+    /**
+     * 商家输入提示
+     */
+    @GetMapping("/suggest")
+    @Operation(summary = "商家输入提示", description = "根据已输入的前缀返回商家名称和分类提示，按销量排序，供搜索框逐字调用")
+    public R<List<Suggestion>> suggestBusiness(
+            @Parameter(description = "已输入的内容", required = true)
+            @RequestParam String prefix,
+            @Parameter(description = "最多返回条数，默认10个")
+            @RequestParam(defaultValue = "10") Integer limit) {
+        return businessService.suggestBusiness(prefix, limit);
+    }
+
     /**
      * 获取推荐商家
      */
@@ -140,6 +172,24 @@ public class BusinessController {
         return businessService.getBusinessByDistance();
     }
 
+    /**
+     * 获取附近商家
+     */
+    @GetMapping("/nearby")
+    @Operation(summary = "获取附近商家", description = "获取指定位置半径内的营业商家，按距离由近到远排序")
+    public R<List<Business>> getNearbyBusiness(
+            @Parameter(description = "纬度", required = true)
+            @RequestParam @DecimalMin("-90") @DecimalMax("90") Double lat,
+            @Parameter(description = "经度", required = true)
+            @RequestParam @DecimalMin("-180") @DecimalMax("180") Double lng,
+            @Parameter(description = "半径（米），默认3000")
+            @RequestParam(defaultValue = "3000") @Min(1) @Max(50000) Integer radius,
+            @Parameter(description = "限制数量，默认20个")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer limit) {
+        log.info("获取附近商家请求: {},{} 半径: {} 数量: {}", lat, lng, radius, limit);
+        return businessService.getNearbyBusiness(lat, lng, radius, limit);
+    }
+
     /**
      * 获取所有商家类型
      */
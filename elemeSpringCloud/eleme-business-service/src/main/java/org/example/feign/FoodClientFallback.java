@@ -5,7 +5,6 @@ import org.example.dto.R;
 import org.example.entity.Food;
 import org.springframework.stereotype.Component;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -18,6 +17,6 @@ public class FoodClientFallback implements FoodClient {
     @Override
     public R<List<Food>> getFoodsByBusinessId(Integer businessId) {
         log.warn("食物服务调用失败，执行降级逻辑，商家ID: {}", businessId);
-        return R.success("食物服务暂时不可用", new ArrayList<>());
+        return R.error("食物服务暂时不可用");
     }
 } 
\ No newline at end of file
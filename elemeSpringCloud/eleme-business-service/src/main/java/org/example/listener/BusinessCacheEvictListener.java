@@ -0,0 +1,64 @@
+package org.example.listener;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.cache.CacheService;
+import org.example.constants.CommonConstants;
+import org.example.dto.FoodChangeEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 商家缓存失效监听器
+ * 商家详情缓存中包含菜单，商家或其食物发生变更时需要清理对应商家的缓存
+ */
+@Slf4j
+@Component
+public class BusinessCacheEvictListener implements MessageListener {
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, List.of(
+                new ChannelTopic(CommonConstants.FOOD_CHANGE_CHANNEL),
+                new ChannelTopic(CommonConstants.BUSINESS_CHANGE_CHANNEL)));
+        log.info("已订阅商家缓存失效频道");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            Integer businessId = null;
+            if (payload instanceof FoodChangeEvent event) {
+                businessId = event.getBusinessId();
+            } else if (payload instanceof Integer id) {
+                businessId = id;
+            }
+
+            if (businessId == null) {
+                log.warn("无法识别的商家缓存失效消息: {}", payload);
+                return;
+            }
+            cacheService.delete(CommonConstants.BUSINESS_CACHE_PREFIX + businessId);
+            log.debug("商家缓存已失效: {}", businessId);
+        } catch (Exception e) {
+            log.error("处理商家缓存失效消息失败", e);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.listener;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.constants.CommonConstants;
+import org.example.entity.Business;
+import org.example.geo.GeoIndex;
+import org.example.mapper.BusinessMapper;
+import org.example.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商家搜索索引、地理索引增量更新
+ * 收到商家变更消息后以数据库为准更新对应商家，停业或删除的商家移出索引
+ */
+@Slf4j
+@Component
+public class BusinessSearchIndexListener implements MessageListener {
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private SearchIndex businessSearchIndex;
+
+    @Autowired
+    private GeoIndex businessGeoIndex;
+
+    @Autowired
+    private BusinessMapper businessMapper;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.BUSINESS_CHANGE_CHANNEL));
+        log.info("已订阅商家搜索索引更新频道");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(payload instanceof Integer businessId)) {
+                log.warn("无法识别的商家变更消息: {}", payload);
+                return;
+            }
+            Business business = businessMapper.findBusinessById(businessId);
+            if (business != null) {
+                businessSearchIndex.put(businessId, business.getBusinessName());
+                businessGeoIndex.put(businessId, business.getLatitude(), business.getLongitude());
+            } else {
+                businessSearchIndex.remove(businessId);
+                businessGeoIndex.remove(businessId);
+            }
+        } catch (Exception e) {
+            log.error("处理商家搜索索引更新失败", e);
+        }
+    }
+}
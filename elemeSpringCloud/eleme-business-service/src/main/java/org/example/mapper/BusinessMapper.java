@@ -4,7 +4,10 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.example.entity.Business;
+import org.example.geo.GeoEntry;
+import org.example.search.SearchEntry;
 
 import java.util.List;
 
@@ -14,6 +17,13 @@ import java.util.List;
 @Mapper
 public interface BusinessMapper extends BaseMapper<Business> {
 
+    /**
+     * 从文本字段解析数值影子列：取第一个数值，截断到列的精度，没有数值时为NULL
+     */
+    String RATING_NUM = "CAST(REGEXP_SUBSTR(rating, '[0-9]{1,2}([.][0-9])?') AS DECIMAL(3,1))";
+    String SALES_NUM = "CAST(REGEXP_SUBSTR(sales, '[0-9]{1,9}') AS UNSIGNED)";
+    String DISTANCE_NUM = "CAST(REGEXP_SUBSTR(distance, '[0-9]{1,6}([.][0-9]{1,2})?') AS DECIMAL(8,2))";
+
     /**
      * 根据ID查找商家
      *
@@ -23,6 +33,20 @@ public interface BusinessMapper extends BaseMapper<Business> {
     @Select("SELECT * FROM business WHERE id = #{id} AND status = 1")
     Business findBusinessById(@Param("id") Integer id);
 
+    /**
+     * 根据ID列表批量查找商家
+     *
+     * @param ids 商家ID列表
+     * @return 商家列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM business WHERE status = 1 AND id IN " +
+            "<foreach item='id' index='index' collection='ids' open='(' separator=',' close=')'>" +
+            "#{id}" +
+            "</foreach>" +
+            "</script>")
+    List<Business> findBusinessesByIds(@Param("ids") List<Integer> ids);
+
     /**
      * 查找所有正常营业的商家
      *
@@ -37,7 +61,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param type 商家类型
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE type = #{type} AND status = 1 ORDER BY rating DESC")
+    @Select("SELECT * FROM business WHERE type = #{type} AND status = 1 ORDER BY rating_num DESC")
     List<Business> findByType(@Param("type") String type);
 
     /**
@@ -46,7 +70,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param keyword 关键字
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE business_name LIKE CONCAT('%', #{keyword}, '%') AND status = 1 ORDER BY rating DESC")
+    @Select("SELECT * FROM business WHERE business_name LIKE CONCAT('%', #{keyword}, '%') AND status = 1 ORDER BY rating_num DESC")
     List<Business> findByBusinessNameContaining(@Param("keyword") String keyword);
 
     /**
@@ -55,7 +79,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param minRating 最低评分
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE CAST(rating AS DECIMAL(3,1)) >= #{minRating} AND status = 1 ORDER BY rating DESC")
+    @Select("SELECT * FROM business WHERE status = 1 AND rating_num >= #{minRating} ORDER BY rating_num DESC")
     List<Business> findByRatingGreaterThanEqual(@Param("minRating") Double minRating);
 
     /**
@@ -64,7 +88,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param limit 限制数量
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE status = 1 ORDER BY CAST(rating AS DECIMAL(3,1)) DESC, CAST(sales AS UNSIGNED) DESC LIMIT #{limit}")
+    @Select("SELECT * FROM business WHERE status = 1 ORDER BY rating_num DESC, sales_num DESC LIMIT #{limit}")
     List<Business> findRecommendBusiness(@Param("limit") Integer limit);
 
     /**
@@ -82,7 +106,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param limit 限制数量
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE status = 1 ORDER BY CAST(sales AS UNSIGNED) DESC LIMIT #{limit}")
+    @Select("SELECT * FROM business WHERE status = 1 ORDER BY sales_num DESC LIMIT #{limit}")
     List<Business> findPopularBusiness(@Param("limit") Integer limit);
 
     /**
@@ -91,7 +115,7 @@ public interface BusinessMapper extends BaseMapper<Business> {
      * @param maxDistance 最大距离（字符串形式，如"1.2km"）
      * @return 商家列表
      */
-    @Select("SELECT * FROM business WHERE status = 1 ORDER BY CAST(SUBSTRING(distance, 1, LENGTH(distance)-2) AS DECIMAL(3,1)) ASC")
+    @Select("SELECT * FROM business WHERE status = 1 ORDER BY distance_num ASC")
     List<Business> findByDistance();
 
     /**
@@ -101,4 +125,65 @@ public interface BusinessMapper extends BaseMapper<Business> {
      */
     @Select("SELECT DISTINCT type FROM business WHERE type IS NOT NULL AND type != '' AND status = 1")
     List<String> findAllTypes();
-} 
\ No newline at end of file
+
+    /**
+     * 查询全部营业商家的名称，用于构建搜索索引
+     *
+     * @return 搜索条目列表
+     */
+    @Select("SELECT id, business_name AS text FROM business WHERE status = 1")
+    List<SearchEntry> findSearchEntries();
+
+    /**
+     * 查询全部营业商家的名称、分类和销量，用于构建输入提示
+     *
+     * @return 只包含名称、分类和销量的商家列表
+     */
+    @Select("SELECT business_name, type, sales FROM business WHERE status = 1")
+    List<Business> findSuggestSources();
+
+    /**
+     * 查询全部有坐标的营业商家，用于构建地理索引
+     *
+     * @return 地理索引条目列表
+     */
+    @Select("SELECT id, latitude, longitude FROM business WHERE status = 1 AND latitude IS NOT NULL AND longitude IS NOT NULL")
+    List<GeoEntry> findGeoEntries();
+
+    /**
+     * 查询矩形范围内的营业商家，地理索引加载完成前使用
+     *
+     * @param minLatitude  最小纬度
+     * @param maxLatitude  最大纬度
+     * @param minLongitude 最小经度
+     * @param maxLongitude 最大经度
+     * @return 商家列表
+     */
+    @Select("SELECT * FROM business WHERE status = 1 " +
+            "AND latitude BETWEEN #{minLatitude} AND #{maxLatitude} " +
+            "AND longitude BETWEEN #{minLongitude} AND #{maxLongitude}")
+    List<Business> findInBoundingBox(@Param("minLatitude") Double minLatitude, @Param("maxLatitude") Double maxLatitude,
+                                     @Param("minLongitude") Double minLongitude, @Param("maxLongitude") Double maxLongitude);
+
+    /**
+     * 查询最大商家ID，用于分批回填
+     *
+     * @return 最大ID，表为空时为null
+     */
+    @Select("SELECT MAX(id) FROM business")
+    Long findMaxId();
+
+    /**
+     * 按文本字段重算ID区间内的数值影子列，只改写结果不一致的行
+     *
+     * @param fromId 起始ID（含）
+     * @param toId   结束ID（含）
+     * @return 改写行数
+     */
+    @Update("UPDATE business SET rating_num = " + RATING_NUM + ", sales_num = " + SALES_NUM +
+            ", distance_num = " + DISTANCE_NUM + " " +
+            "WHERE id BETWEEN #{fromId} AND #{toId} " +
+            "AND NOT (rating_num <=> " + RATING_NUM + " AND sales_num <=> " + SALES_NUM +
+            " AND distance_num <=> " + DISTANCE_NUM + ")")
+    int syncNumericColumns(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
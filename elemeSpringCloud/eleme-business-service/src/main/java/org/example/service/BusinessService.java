@@ -2,6 +2,7 @@ package org.example.service;
 
 import org.example.dto.R;
 import org.example.entity.Business;
+import org.example.search.Suggestion;
 
 import java.util.List;
 
@@ -18,6 +19,15 @@ public interface BusinessService {
      */
     R<Business> getBusinessById(Integer id);
 
+    /**
+     * 根据ID列表批量获取商家信息
+     *
+     * @param ids          商家ID列表
+     * @param includeFoods 是否填充食物列表
+     * @return 商家列表（不存在或已停业的商家不返回）
+     */
+    R<List<Business>> getBusinessesByIds(List<Integer> ids, Boolean includeFoods);
+
     /**
      * 获取所有正常营业的商家
      *
@@ -34,13 +44,22 @@ public interface BusinessService {
     R<List<Business>> getBusinessByType(String type);
 
     /**
-     * 搜索商家
+     * 按名称搜索营业中的商家，支持前缀、包含和模糊匹配
      *
      * @param keyword 搜索关键字
-     * @return 商家列表
+     * @return 按相关度排序的商家列表
      */
     R<List<Business>> searchBusiness(String keyword);
 
+    /**
+     * 商家名称和分类输入提示，按销量排序，只读本地词典
+     *
+     * @param prefix 已输入的内容
+     * @param limit  最多返回条数
+     * @return 提示列表
+     */
+    R<List<Suggestion>> suggestBusiness(String prefix, Integer limit);
+
     /**
      * 获取推荐商家
      *
@@ -80,6 +99,17 @@ public interface BusinessService {
      */
     R<List<Business>> getBusinessByDistance();
 
+    /**
+     * 获取附近商家
+     *
+     * @param latitude  纬度
+     * @param longitude 经度
+     * @param radius    半径（米）
+     * @param limit     限制数量
+     * @return 按距离由近到远排列的商家列表，每个商家带有distanceMeters
+     */
+    R<List<Business>> getNearbyBusiness(Double latitude, Double longitude, Integer radius, Integer limit);
+
     /**
      * 获取所有商家类型
      *
@@ -3,20 +3,32 @@ package org.example.service.impl;
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.cache.ReadThroughCache;
 import org.example.constants.CommonConstants;
 import org.example.dto.R;
 import org.example.entity.Business;
 import org.example.entity.Food;
 import org.example.feign.FoodClient;
+import org.example.geo.GeoHit;
+import org.example.geo.GeoIndex;
 import org.example.mapper.BusinessMapper;
+import org.example.search.SearchIndex;
+import org.example.search.SuggestIndex;
+import org.example.search.Suggestion;
 import org.example.service.BusinessService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * 商家服务实现类
@@ -32,7 +44,22 @@ public class BusinessServiceImpl implements BusinessService {
     private FoodClient foodClient;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private ReadThroughCache readThroughCache;
+
+    @Autowired
+    private SearchIndex businessSearchIndex;
+
+    @Autowired
+    private SuggestIndex businessSuggestIndex;
+
+    @Autowired
+    private GeoIndex businessGeoIndex;
+
+    /**
+     * 搜索商家最多返回条数
+     */
+    @Value("${eleme.search.business.limit:50}")
+    private int searchLimit;
 
     @Override
     @SentinelResource(value = "get-business-by-id", fallback = "getBusinessByIdFallback")
@@ -42,40 +69,28 @@ public class BusinessServiceImpl implements BusinessService {
                 return R.error(CommonConstants.ERROR_CODE, "商家ID不能为空");
             }
 
-            // 先从缓存获取
+            // 读穿透缓存，食物服务不可用时不缓存，避免空菜单被长期缓存
             String cacheKey = CommonConstants.BUSINESS_CACHE_PREFIX + id;
-            Business cachedBusiness = getCachedBusiness(cacheKey);
-            if (cachedBusiness != null) {
-                log.debug("从缓存获取商家信息: {}", id);
-                return R.success(cachedBusiness);
-            }
-
-            // 从数据库获取商家信息
-            Business business = businessMapper.findBusinessById(id);
+            AtomicBoolean foodListLoaded = new AtomicBoolean(true);
+            Business business = readThroughCache.get(cacheKey, CommonConstants.BUSINESS_CACHE_EXPIRE, TimeUnit.SECONDS,
+                    true, value -> foodListLoaded.get(), () -> {
+                        // 从数据库获取商家信息
+                        Business loaded = businessMapper.findBusinessById(id);
+                        if (loaded == null) {
+                            return null;
+                        }
+
+                        // 处理商家的折扣和侧边栏数据
+                        processBusinessData(loaded);
+
+                        // 获取商家的食物列表
+                        foodListLoaded.set(fillFoodList(loaded));
+                        return loaded;
+                    });
             if (business == null) {
                 return R.error(CommonConstants.NOT_FOUND_CODE, "商家不存在");
             }
 
-            // 处理商家的折扣和侧边栏数据
-            processBusinessData(business);
-
-            // 获取商家的食物列表
-            try {
-                R<List<Food>> foodResult = foodClient.getFoodsByBusinessId(id);
-                if (foodResult.isSuccess() && foodResult.getData() != null) {
-                    business.setFoodList(foodResult.getData());
-                } else {
-                    business.setFoodList(new ArrayList<>());
-                    log.warn("获取商家 {} 的食物列表失败", id);
-                }
-            } catch (Exception e) {
-                log.error("调用食物服务失败", e);
-                business.setFoodList(new ArrayList<>());
-            }
-
-            // 缓存商家信息
-            cacheBusiness(cacheKey, business);
-
             log.info("获取商家详情成功: {}", id);
             return R.success(business);
 
@@ -85,6 +100,41 @@ public class BusinessServiceImpl implements BusinessService {
         }
     }
 
+    @Override
+    @SentinelResource(value = "get-businesses-by-ids", fallback = "getBusinessesByIdsFallback")
+    public R<List<Business>> getBusinessesByIds(List<Integer> ids, Boolean includeFoods) {
+        try {
+            if (ids == null || ids.isEmpty()) {
+                return R.success(new ArrayList<>());
+            }
+
+            List<Integer> distinctIds = ids.stream()
+                    .filter(id -> id != null && id > 0)
+                    .distinct()
+                    .toList();
+            if (distinctIds.isEmpty()) {
+                return R.success(new ArrayList<>());
+            }
+
+            List<Business> businessList = businessMapper.findBusinessesByIds(distinctIds);
+
+            // 处理每个商家的数据
+            businessList.forEach(this::processBusinessData);
+
+            // 食物列表需要逐个商家调用食物服务，仅在明确需要时填充
+            if (Boolean.TRUE.equals(includeFoods)) {
+                businessList.forEach(this::fillFoodList);
+            }
+
+            log.info("批量获取商家成功，请求数量: {}, 返回数量: {}", distinctIds.size(), businessList.size());
+            return R.success(businessList);
+
+        } catch (Exception e) {
+            log.error("批量获取商家异常", e);
+            return R.error("批量获取商家信息失败");
+        }
+    }
+
     @Override
     @SentinelResource(value = "get-all-business", fallback = "getAllBusinessFallback")
     public R<List<Business>> getAllBusiness() {
@@ -133,7 +183,10 @@ public class BusinessServiceImpl implements BusinessService {
                 return R.error(CommonConstants.ERROR_CODE, "搜索关键字不能为空");
             }
 
-            List<Business> businessList = businessMapper.findByBusinessNameContaining(keyword);
+            // 索引首次加载完成前回退到数据库模糊查询
+            List<Business> businessList = businessSearchIndex.isReady()
+                    ? searchBusinessByIndex(keyword)
+                    : businessMapper.findByBusinessNameContaining(keyword.trim());
             
             // 处理每个商家的数据
             businessList.forEach(this::processBusinessData);
@@ -147,6 +200,16 @@ public class BusinessServiceImpl implements BusinessService {
         }
     }
 
+    @Override
+    @SentinelResource(value = "suggest-business", fallback = "suggestBusinessFallback")
+    public R<List<Suggestion>> suggestBusiness(String prefix, Integer limit) {
+        if (StrUtil.isBlank(prefix)) {
+            return R.success(new ArrayList<>());
+        }
+        int size = limit == null || limit <= 0 ? 10 : limit;
+        return R.success(businessSuggestIndex.suggest(prefix, size));
+    }
+
     @Override
     @SentinelResource(value = "get-recommend-business", fallback = "getRecommendBusinessFallback")
     public R<List<Business>> getRecommendBusiness(Integer limit) {
@@ -253,6 +316,99 @@ public class BusinessServiceImpl implements BusinessService {
         }
     }
 
+    @Override
+    @SentinelResource(value = "get-nearby-business", fallback = "getNearbyBusinessFallback")
+    public R<List<Business>> getNearbyBusiness(Double latitude, Double longitude, Integer radius, Integer limit) {
+        if (latitude == null || longitude == null) {
+            return R.error("经纬度不能为空");
+        }
+        try {
+            int size = limit == null || limit <= 0 ? 20 : limit;
+            double radiusMeters = radius == null || radius <= 0 ? 3000 : radius;
+
+            List<Business> businessList;
+            if (businessGeoIndex.isReady()) {
+                businessList = loadNearbyBusiness(businessGeoIndex.nearby(latitude, longitude, radiusMeters, size));
+            } else {
+                // 地理索引加载完成前按矩形范围查询数据库
+                businessList = findNearbyBusinessFromDatabase(latitude, longitude, radiusMeters, size);
+            }
+
+            // 处理每个商家的数据
+            businessList.forEach(this::processBusinessData);
+
+            log.info("获取附近商家成功，数量: {}", businessList.size());
+            return R.success(businessList);
+
+        } catch (Exception e) {
+            log.error("获取附近商家异常", e);
+            return R.error("获取附近商家失败");
+        }
+    }
+
+    /**
+     * 按地理索引的结果顺序加载商家，索引更新前已停业的商家不返回
+     */
+    private List<Business> loadNearbyBusiness(List<GeoHit> hits) {
+        if (hits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Integer> ids = hits.stream().map(GeoHit::getId).collect(Collectors.toList());
+        Map<Integer, Business> businessMap = businessMapper.findBusinessesByIds(ids).stream()
+                .collect(Collectors.toMap(Business::getId, Function.identity()));
+        List<Business> businessList = new ArrayList<>(hits.size());
+        for (GeoHit hit : hits) {
+            Business business = businessMap.get(hit.getId());
+            if (business != null) {
+                business.setDistanceMeters((int) Math.round(hit.getDistance()));
+                businessList.add(business);
+            }
+        }
+        return businessList;
+    }
+
+    /**
+     * 按包围矩形从数据库查询附近商家；矩形跨越±180°经线时拆成两段经度区间分别查询，
+     * 覆盖极点时查询全部经度
+     */
+    private List<Business> findNearbyBusinessFromDatabase(double latitude, double longitude, double radiusMeters, int size) {
+        double latitudeDelta = Math.toDegrees(radiusMeters / 6_371_008.8);
+        double minLatitude = latitude - latitudeDelta;
+        double maxLatitude = latitude + latitudeDelta;
+        double longitudeDelta = minLatitude <= -90 || maxLatitude >= 90 ? 180
+                : Math.min(180, latitudeDelta / Math.max(0.01, Math.cos(Math.toRadians(latitude))));
+        List<Business> candidates = new ArrayList<>();
+        for (double[] range : longitudeRanges(longitude, longitudeDelta)) {
+            candidates.addAll(businessMapper.findInBoundingBox(Math.max(-90, minLatitude), Math.min(90, maxLatitude),
+                    range[0], range[1]));
+        }
+        candidates.forEach(business -> business.setDistanceMeters((int) Math.round(
+                GeoIndex.distance(latitude, longitude, business.getLatitude(), business.getLongitude()))));
+        return candidates.stream()
+                .filter(business -> business.getDistanceMeters() <= radiusMeters)
+                .sorted(Comparator.comparing(Business::getDistanceMeters).thenComparing(Business::getId))
+                .limit(size)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 经度区间 [longitude - delta, longitude + delta]，超出±180°的部分回绕到另一侧，结果区间互不重叠
+     */
+    static List<double[]> longitudeRanges(double longitude, double delta) {
+        double min = longitude - delta;
+        double max = longitude + delta;
+        if (delta >= 180) {
+            return List.of(new double[]{-180, 180});
+        }
+        if (min < -180) {
+            return List.of(new double[]{-180, max}, new double[]{min + 360, 180});
+        }
+        if (max > 180) {
+            return List.of(new double[]{min, 180}, new double[]{-180, max - 360});
+        }
+        return List.of(new double[]{min, max});
+    }
+
     @Override
     @SentinelResource(value = "get-business-types", fallback = "getAllBusinessTypesFallback")
     public R<List<String>> getAllBusinessTypes() {
@@ -268,6 +424,22 @@ public class BusinessServiceImpl implements BusinessService {
         }
     }
 
+    /**
+     * 通过搜索索引查找商家，按索引的相关度顺序返回
+     */
+    private List<Business> searchBusinessByIndex(String keyword) {
+        List<Integer> ids = businessSearchIndex.search(keyword, searchLimit);
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Integer, Business> businesses = businessMapper.findBusinessesByIds(ids).stream()
+                .collect(Collectors.toMap(Business::getId, Function.identity()));
+        return ids.stream()
+                .map(businesses::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
     /**
      * 处理商家数据（折扣、侧边栏等）
      */
@@ -286,30 +458,23 @@ public class BusinessServiceImpl implements BusinessService {
     }
 
     /**
-     * 从缓存获取商家信息
-     */
-    private Business getCachedBusiness(String cacheKey) {
-        try {
-            // 这里可以实现Redis缓存逻辑
-            // 由于JSON序列化复杂，这里暂时返回null
-            return null;
-        } catch (Exception e) {
-            log.warn("从缓存获取商家信息失败", e);
-            return null;
-        }
-    }
-
-    /**
-     * 缓存商家信息
+     * 填充商家的食物列表
+     *
+     * @return 是否成功获取到食物列表
      */
-    private void cacheBusiness(String cacheKey, Business business) {
+    private boolean fillFoodList(Business business) {
         try {
-            // 这里可以实现Redis缓存逻辑
-            // 由于JSON序列化复杂，这里暂时不实现
-            log.debug("缓存商家信息: {}", business.getId());
+            R<List<Food>> foodResult = foodClient.getFoodsByBusinessId(business.getId());
+            if (foodResult.isSuccess() && foodResult.getData() != null) {
+                business.setFoodList(foodResult.getData());
+                return true;
+            }
+            log.warn("获取商家 {} 的食物列表失败", business.getId());
         } catch (Exception e) {
-            log.warn("缓存商家信息失败", e);
+            log.error("调用食物服务失败", e);
         }
+        business.setFoodList(new ArrayList<>());
+        return false;
     }
 
     // Sentinel 降级方法
@@ -318,6 +483,11 @@ public class BusinessServiceImpl implements BusinessService {
         return R.error("商家服务暂时不可用");
     }
 
+    public R<List<Business>> getBusinessesByIdsFallback(List<Integer> ids, Boolean includeFoods, Throwable ex) {
+        log.error("批量获取商家服务降级", ex);
+        return R.error("商家服务暂时不可用");
+    }
+
     public R<List<Business>> getAllBusinessFallback(Throwable ex) {
         log.error("获取所有商家服务降级", ex);
         return R.error("商家服务暂时不可用");
@@ -333,6 +503,11 @@ public class BusinessServiceImpl implements BusinessService {
         return R.error("搜索服务暂时不可用");
     }
 
+    public R<List<Suggestion>> suggestBusinessFallback(String prefix, Integer limit, Throwable ex) {
+        log.error("商家输入提示服务降级", ex);
+        return R.success(new ArrayList<>());
+    }
+
     public R<List<Business>> getRecommendBusinessFallback(Integer limit, Throwable ex) {
         log.error("获取推荐商家服务降级", ex);
         return R.error("推荐服务暂时不可用");
@@ -358,6 +533,12 @@ public class BusinessServiceImpl implements BusinessService {
         return R.error("商家服务暂时不可用");
     }
 
+    public R<List<Business>> getNearbyBusinessFallback(Double latitude, Double longitude, Integer radius, Integer limit,
+                                                       Throwable ex) {
+        log.error("获取附近商家服务降级", ex);
+        return R.error("商家服务暂时不可用");
+    }
+
     public R<List<String>> getAllBusinessTypesFallback(Throwable ex) {
         log.error("获取商家类型服务降级", ex);
         return R.error("商家服务暂时不可用");
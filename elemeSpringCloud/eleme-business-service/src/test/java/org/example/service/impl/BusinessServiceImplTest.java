@@ -0,0 +1,96 @@
+package org.example.service.impl;
+
+import org.example.entity.Business;
+import org.example.mapper.BusinessMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BusinessServiceImplTest {
+
+    private final BusinessMapper businessMapper = mock(BusinessMapper.class);
+
+    private final BusinessServiceImpl service = new BusinessServiceImpl();
+
+    private List<Business> stored;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "businessMapper", businessMapper);
+        stored = List.of(
+                business(1, -17.0, 179.99),
+                business(2, -17.0, -179.99),
+                business(3, -17.0, 178.0),
+                business(4, 89.99, -90.0));
+        // 模拟数据库的包围矩形查询
+        when(businessMapper.findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            double minLatitude = invocation.getArgument(0);
+            double maxLatitude = invocation.getArgument(1);
+            double minLongitude = invocation.getArgument(2);
+            double maxLongitude = invocation.getArgument(3);
+            return stored.stream()
+                    .filter(b -> b.getLatitude() >= minLatitude && b.getLatitude() <= maxLatitude
+                            && b.getLongitude() >= minLongitude && b.getLongitude() <= maxLongitude)
+                    .map(b -> business(b.getId(), b.getLatitude(), b.getLongitude()))
+                    .toList();
+        });
+    }
+
+    @Test
+    void splitsLongitudeRangeAtAntimeridian() {
+        assertRanges(new double[][]{{-180, -178.5}, {179.5, 180}}, BusinessServiceImpl.longitudeRanges(-179.5, 1.0));
+        assertRanges(new double[][]{{178.5, 180}, {-180, -179.5}}, BusinessServiceImpl.longitudeRanges(179.5, 1.0));
+        assertRanges(new double[][]{{-180, -179}}, BusinessServiceImpl.longitudeRanges(-179.5, 0.5));
+        assertRanges(new double[][]{{120, 122}}, BusinessServiceImpl.longitudeRanges(121, 1.0));
+        assertRanges(new double[][]{{-180, 180}}, BusinessServiceImpl.longitudeRanges(10, 180));
+    }
+
+    @Test
+    void databaseFallbackFindsBusinessesAcrossAntimeridian() {
+        List<Business> east = nearby(-17.0, 179.999, 5000);
+        List<Business> west = nearby(-17.0, -179.999, 5000);
+
+        assertEquals(List.of(1, 2), east.stream().map(Business::getId).toList());
+        assertEquals(List.of(2, 1), west.stream().map(Business::getId).toList());
+        verify(businessMapper, times(4)).findInBoundingBox(anyDouble(), anyDouble(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void databaseFallbackQueriesAllLongitudesNearPole() {
+        List<Business> result = nearby(89.995, 90.0, 5000);
+
+        assertEquals(List.of(4), result.stream().map(Business::getId).toList());
+        verify(businessMapper).findInBoundingBox(anyDouble(), eq(90.0), eq(-180.0), eq(180.0));
+    }
+
+    private List<Business> nearby(double latitude, double longitude, double radiusMeters) {
+        return ReflectionTestUtils.invokeMethod(service, "findNearbyBusinessFromDatabase",
+                latitude, longitude, radiusMeters, 10);
+    }
+
+    private static void assertRanges(double[][] expected, List<double[]> actual) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertArrayEquals(expected[i], actual.get(i), 1e-9);
+        }
+    }
+
+    private static Business business(int id, double latitude, double longitude) {
+        Business business = new Business();
+        business.setId(id);
+        business.setLatitude(latitude);
+        business.setLongitude(longitude);
+        return business;
+    }
+}
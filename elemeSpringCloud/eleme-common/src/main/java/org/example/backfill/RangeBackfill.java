@@ -0,0 +1,124 @@
+package org.example.backfill;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.lock.DistributedLock;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 按主键区间分批回填
+ * <p>
+ * 把表按自增ID切成固定大小的区间，逐个区间执行一条UPDATE，每批之间短暂停顿，
+ * 避免长事务和大范围锁，回填期间业务读写不受影响：
+ * <ul>
+ *     <li>启动后执行一次，之后定期执行，修正绕过应用直接写库造成的偏差</li>
+ *     <li>UPDATE只改写与计算结果不一致的行，已回填的表再次执行几乎不产生写入</li>
+ *     <li>通过DistributedLock保证同一时刻只有一个节点执行</li>
+ * </ul>
+ * 由各服务按表声明为Bean。
+ */
+@Slf4j
+public class RangeBackfill implements InitializingBean, DisposableBean {
+
+    private static final String LOCK_PREFIX = "backfill:";
+
+    /**
+     * 回填一个主键区间，返回改写的行数
+     */
+    @FunctionalInterface
+    public interface RangeUpdater {
+        int update(long fromId, long toId);
+    }
+
+    private final String name;
+
+    private final Supplier<Long> maxIdLoader;
+
+    private final RangeUpdater updater;
+
+    private final DistributedLock distributedLock;
+
+    private final int batchSize;
+
+    private final long pauseMillis;
+
+    private final long intervalMinutes;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name            表名，用于区分锁和日志
+     * @param maxIdLoader     查询当前最大ID，表为空时返回null
+     * @param updater         回填一个闭区间
+     * @param distributedLock 跨节点互斥
+     * @param batchSize       每批的ID区间大小
+     * @param pauseMillis     每批之间的停顿（毫秒）
+     * @param intervalMinutes 定期执行间隔（分钟）
+     */
+    public RangeBackfill(String name, Supplier<Long> maxIdLoader, RangeUpdater updater,
+                         DistributedLock distributedLock, int batchSize, long pauseMillis, long intervalMinutes) {
+        this.name = name;
+        this.maxIdLoader = maxIdLoader;
+        this.updater = updater;
+        this.distributedLock = distributedLock;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.intervalMinutes = intervalMinutes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "backfill-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::run, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 回填整张表，其他节点正在执行时直接返回
+     */
+    public void run() {
+        DistributedLock.LockInfo lock = distributedLock.tryLock(LOCK_PREFIX + name, 30, TimeUnit.MINUTES);
+        if (lock == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Long maxId = maxIdLoader.get();
+            if (maxId == null) {
+                return;
+            }
+            long updated = 0;
+            for (long fromId = 1; fromId <= maxId; fromId += batchSize) {
+                updated += updater.update(fromId, Math.min(fromId + batchSize - 1, maxId));
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            if (updated > 0) {
+                log.info("回填完成: {}, 最大ID: {}, 改写 {} 行, 耗时: {}ms",
+                        name, maxId, updated, System.currentTimeMillis() - start);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("回填失败: {}", name, e);
+        } finally {
+            distributedLock.unlock(lock);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 读穿透缓存的存储结构，在值之外记录回源耗时和逻辑过期时间，用于提前刷新判断
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheEnvelope implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 缓存的值
+     */
+    private Object value;
+
+    /**
+     * 上次回源耗时（毫秒）
+     */
+    private long deltaMillis;
+
+    /**
+     * 过期时间戳（毫秒）
+     */
+    private long expireAtMillis;
+}
@@ -1,32 +1,165 @@
 package org.example.cache;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.config.RedisConfig;
+import org.example.constants.CommonConstants;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.SerializationException;
 import org.springframework.stereotype.Service;
 
+import java.io.Serializable;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 缓存服务工具类
+ * <p>
+ * 字符串值的读写采用两级缓存：L1为进程内Caffeine缓存，L2为Redis。
+ * 只有属于已登记命名空间的键才进入L1，本地过期时间取固定的本地过期时间、命名空间过期时间
+ * （与RedisConfig.cacheManager一致）和写入时指定过期时间中的最小值；从L2读到的值不再额外查询剩余过期时间，
+ * 本地副本最多比Redis条目多存活一个本地过期时间。
+ * 写入或删除L1可缓存的键时通过Redis频道广播给同一服务的其他节点，使其本地副本失效，其余键的写入和删除不产生广播。
+ * 与删除并发的读取不会把读到的旧值写回L1。
+ * 计数器、Hash、List、Set等操作只走Redis。
+ * <p>
+ * 键前缀与命名空间的对应关系可按服务通过 eleme.cache.local.namespaces 配置，
+ * 格式为逗号分隔的 前缀=命名空间，例如 food:=food,hot:=hotdata，未配置时使用默认对应关系。
+ * <p>
+ * 注意：L1命中时返回的是同一个对象实例，同一节点上的所有调用方共享，调用方不得修改从缓存读到的对象，
+ * 需要修改时应先复制。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CacheService {
     
+    /**
+     * 未配置 eleme.cache.local.namespaces 时使用的键前缀与缓存命名空间的对应关系
+     */
+    private static final Map<String, String> DEFAULT_LOCAL_CACHE_NAMESPACES = new LinkedHashMap<>();
+    
+    static {
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put(CommonConstants.BUSINESS_CACHE_PREFIX, "business");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("business:foods:", "food");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("business:orders:", "order");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("user:orders:", "order");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("order:", "order");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("food:", "food");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("discount:", "food");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("hot:", "hotdata");
+        DEFAULT_LOCAL_CACHE_NAMESPACES.put("user:", "user");
+    }
+    
     private final RedisTemplate<String, Object> redisTemplate;
     
+    private final ObjectProvider<RedisMessageListenerContainer> listenerContainerProvider;
+    
+    @Value("${spring.application.name:eleme}")
+    private String applicationName;
+    
+    @Value("${eleme.cache.local.enabled:true}")
+    private boolean localCacheEnabled;
+    
+    @Value("${eleme.cache.local.maximum-size:10000}")
+    private long localCacheMaximumSize;
+    
+    @Value("${eleme.cache.local.ttl-seconds:60}")
+    private long localCacheTtlSeconds;
+    
+    @Value("${eleme.cache.local.namespaces:}")
+    private String localCacheNamespaces;
+    
+    /**
+     * 本服务的键前缀与本地过期时间，按前缀长度降序排列，保证较长的前缀优先匹配
+     */
+    private List<Map.Entry<String, Duration>> localTtls = List.of();
+    
+    /**
+     * 当前节点标识，用于忽略自己发出的失效消息
+     */
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    private Cache<String, LocalEntry> localCache;
+    
+    /**
+     * 本地失效代数，每次失效本地副本时递增；从Redis读到的值只有在读取期间没有发生失效时才写入本地缓存，
+     * 避免与删除并发的读取把旧值重新放回L1
+     */
+    private final AtomicLong localGeneration = new AtomicLong();
+    
+    /**
+     * 标签版本号的本地副本，版本变化时由失效消息清理，短期过期兜底消息丢失的情况
+     */
+    private final Cache<String, Long> tagVersions = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .build();
+    
+    private String invalidationChannel;
+    
+    @PostConstruct
+    public void init() {
+        localTtls = resolveLocalTtls(localCacheNamespaces);
+        localCache = Caffeine.newBuilder()
+                .maximumSize(localCacheMaximumSize)
+                .expireAfter(new Expiry<String, LocalEntry>() {
+                    @Override
+                    public long expireAfterCreate(String key, LocalEntry entry, long currentTime) {
+                        return entry.ttlNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String key, LocalEntry entry, long currentTime, long currentDuration) {
+                        return entry.ttlNanos();
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String key, LocalEntry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+        
+        // 每个服务使用独立的Redis库，失效频道也按服务划分
+        invalidationChannel = CommonConstants.CACHE_INVALIDATION_CHANNEL_PREFIX + applicationName;
+        RedisMessageListenerContainer container = listenerContainerProvider.getIfAvailable();
+        if (container != null) {
+            container.addMessageListener((message, pattern) -> onInvalidation(message), new ChannelTopic(invalidationChannel));
+            log.info("Local cache initialized: enabled={}, maximumSize={}, prefixes={}, channel={}",
+                    localCacheEnabled, localCacheMaximumSize, localTtls, invalidationChannel);
+        }
+    }
+    
     /**
      * 设置缓存
      */
     public void set(String key, Object value) {
         try {
             redisTemplate.opsForValue().set(key, value);
+            evictLocal(List.of(key));
+            putLocal(key, value, null);
             log.debug("Set cache: key={}", key);
         } catch (Exception e) {
             log.error("Failed to set cache: key={}", key, e);
@@ -39,6 +172,8 @@ public class CacheService {
     public void set(String key, Object value, long timeout, TimeUnit unit) {
         try {
             redisTemplate.opsForValue().set(key, value, timeout, unit);
+            evictLocal(List.of(key));
+            putLocal(key, value, Duration.ofNanos(unit.toNanos(timeout)));
             log.debug("Set cache with TTL: key={}, timeout={} {}", key, timeout, unit);
         } catch (Exception e) {
             log.error("Failed to set cache with TTL: key={}", key, e);
@@ -50,9 +185,22 @@ public class CacheService {
      */
     public Object get(String key) {
         try {
-            Object value = redisTemplate.opsForValue().get(key);
+            Object value = getLocal(key);
+            if (value != null) {
+                log.debug("Get local cache: key={}", key);
+                return value;
+            }
+            
+            long generation = localGeneration.get();
+            value = redisTemplate.opsForValue().get(key);
             log.debug("Get cache: key={}, exists={}", key, value != null);
+            putLocalIfUnchanged(key, value, generation);
             return value;
+        } catch (SerializationException e) {
+            // 旧序列化格式的值无法解析，按未命中处理并删除，由调用方回源重建
+            log.warn("Discard undecodable cache: key={}", key, e);
+            delete(key);
+            return null;
         } catch (Exception e) {
             log.error("Failed to get cache: key={}", key, e);
             return null;
@@ -82,6 +230,7 @@ public class CacheService {
     public void delete(String key) {
         try {
             redisTemplate.delete(key);
+            evictLocal(List.of(key));
             log.debug("Delete cache: key={}", key);
         } catch (Exception e) {
             log.error("Failed to delete cache: key={}", key, e);
@@ -93,13 +242,69 @@ public class CacheService {
      */
     public void delete(Collection<String> keys) {
         try {
-            redisTemplate.delete(keys);
-            log.debug("Delete cache batch: keys={}", keys);
+            deleteOrThrow(keys);
         } catch (Exception e) {
             log.error("Failed to delete cache batch: keys={}", keys, e);
         }
     }
     
+    /**
+     * 批量删除缓存，一条DEL命令删除全部键，失败时抛出异常，供需要失败重试的调用方使用
+     */
+    public void deleteOrThrow(Collection<String> keys) {
+        if (keys == null || keys.isEmpty()) {
+            return;
+        }
+        redisTemplate.delete(keys);
+        evictLocal(keys);
+        log.debug("Delete cache batch: keys={}", keys);
+    }
+    
+    /**
+     * 生成带标签版本号的缓存键，格式为 {tag}:v{version}:{suffix}
+     * 同一标签下的所有键共享版本号，调用invalidateTag后旧版本的键不再被读取，由TTL自然过期
+     */
+    public String taggedKey(String tag, String suffix) {
+        return tag + ":v" + getTagVersion(tag) + ":" + suffix;
+    }
+    
+    /**
+     * 失效标签下的全部缓存键，只需递增一次版本号，与键的数量无关
+     */
+    public void invalidateTag(String tag) {
+        String versionKey = CommonConstants.CACHE_TAG_PREFIX + tag;
+        try {
+            long version = redisTemplate.opsForValue().increment(versionKey);
+            tagVersions.put(versionKey, version);
+            evictLocal(List.of(versionKey));
+            log.debug("Invalidate cache tag: tag={}, version={}", tag, version);
+        } catch (Exception e) {
+            // 版本号无法递增时退回为本地失效，其他节点的旧条目由TTL兜底
+            tagVersions.invalidate(versionKey);
+            log.error("Failed to invalidate cache tag: tag={}", tag, e);
+        }
+    }
+    
+    /**
+     * 获取标签当前版本号
+     */
+    private long getTagVersion(String tag) {
+        String versionKey = CommonConstants.CACHE_TAG_PREFIX + tag;
+        Long version = tagVersions.getIfPresent(versionKey);
+        if (version != null) {
+            return version;
+        }
+        try {
+            Object value = redisTemplate.opsForValue().get(versionKey);
+            version = value instanceof Number number ? number.longValue() : 0L;
+            tagVersions.put(versionKey, version);
+            return version;
+        } catch (Exception e) {
+            log.error("Failed to get cache tag version: tag={}", tag, e);
+            return 0L;
+        }
+    }
+    
     /**
      * 检查缓存是否存在
      */
@@ -119,6 +324,7 @@ public class CacheService {
     public void expire(String key, long timeout, TimeUnit unit) {
         try {
             redisTemplate.expire(key, timeout, unit);
+            evictLocal(List.of(key));
             log.debug("Set expire: key={}, timeout={} {}", key, timeout, unit);
         } catch (Exception e) {
             log.error("Failed to set expire: key={}", key, e);
@@ -319,9 +525,175 @@ public class CacheService {
             if (keys != null && !keys.isEmpty()) {
                 redisTemplate.delete(keys);
             }
+            evictLocal(null);
             log.warn("Flush all cache");
         } catch (Exception e) {
             log.error("Failed to flush all cache", e);
         }
     }
-} 
\ No newline at end of file
+    
+    /**
+     * 从本地缓存读取
+     */
+    private Object getLocal(String key) {
+        if (!localCacheEnabled || localCache == null) {
+            return null;
+        }
+        LocalEntry entry = localCache.getIfPresent(key);
+        return entry != null ? entry.value() : null;
+    }
+    
+    /**
+     * 写入本地缓存，过期时间取本地过期时间与指定过期时间中的较小值
+     */
+    private void putLocal(String key, Object value, Duration ttl) {
+        if (!localCacheEnabled || localCache == null || value == null) {
+            return;
+        }
+        Duration localTtl = resolveLocalTtl(key);
+        if (localTtl == null) {
+            return;
+        }
+        if (ttl != null && ttl.compareTo(localTtl) < 0) {
+            localTtl = ttl;
+        }
+        localCache.put(key, new LocalEntry(value, localTtl.toNanos()));
+    }
+    
+    /**
+     * 读取期间没有发生本地失效时才写入本地缓存；写入后再次检查，覆盖检查与写入之间发生的失效
+     */
+    private void putLocalIfUnchanged(String key, Object value, long generation) {
+        if (localGeneration.get() != generation) {
+            return;
+        }
+        putLocal(key, value, null);
+        if (localGeneration.get() != generation && localCache != null) {
+            localCache.invalidate(key);
+        }
+    }
+    
+    /**
+     * 失效本地副本并通知其他节点，keys为null表示全部失效
+     * 只广播可能存在本地副本的键（L1命名空间内的键和标签版本号），其余键不产生消息
+     */
+    private void evictLocal(Collection<String> keys) {
+        if (localCache == null) {
+            return;
+        }
+        List<String> localKeys = null;
+        if (keys == null) {
+            localGeneration.incrementAndGet();
+            localCache.invalidateAll();
+            tagVersions.invalidateAll();
+        } else {
+            localKeys = new ArrayList<>();
+            for (String key : keys) {
+                if (key.startsWith(CommonConstants.CACHE_TAG_PREFIX) || resolveLocalTtl(key) != null) {
+                    localKeys.add(key);
+                }
+            }
+            if (localKeys.isEmpty()) {
+                return;
+            }
+            localGeneration.incrementAndGet();
+            localCache.invalidateAll(localKeys);
+            tagVersions.invalidateAll(localKeys);
+        }
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, new InvalidationMessage(nodeId, localKeys));
+        } catch (Exception e) {
+            log.error("Failed to publish cache invalidation: keys={}", keys, e);
+        }
+    }
+    
+    /**
+     * 处理其他节点发出的失效消息
+     */
+    private void onInvalidation(Message message) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (!(payload instanceof InvalidationMessage invalidation) || nodeId.equals(invalidation.getNodeId())) {
+                return;
+            }
+            localGeneration.incrementAndGet();
+            if (invalidation.getKeys() == null) {
+                localCache.invalidateAll();
+                tagVersions.invalidateAll();
+            } else {
+                localCache.invalidateAll(invalidation.getKeys());
+                tagVersions.invalidateAll(invalidation.getKeys());
+            }
+            log.debug("Local cache invalidated by node {}: keys={}", invalidation.getNodeId(), invalidation.getKeys());
+        } catch (Exception e) {
+            log.error("Failed to handle cache invalidation message", e);
+        }
+    }
+    
+    /**
+     * 根据键前缀解析本地缓存过期时间，未登记的键不进入本地缓存
+     */
+    private Duration resolveLocalTtl(String key) {
+        for (Map.Entry<String, Duration> prefix : localTtls) {
+            if (key.startsWith(prefix.getKey())) {
+                return prefix.getValue();
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * 解析键前缀配置，每个前缀的本地过期时间取固定本地过期时间与命名空间过期时间中的较小值
+     */
+    private List<Map.Entry<String, Duration>> resolveLocalTtls(String config) {
+        Map<String, String> namespaces = DEFAULT_LOCAL_CACHE_NAMESPACES;
+        if (config != null && !config.isBlank()) {
+            namespaces = new LinkedHashMap<>();
+            for (String item : config.split(",")) {
+                int separator = item.lastIndexOf('=');
+                if (separator <= 0 || separator == item.length() - 1) {
+                    throw new IllegalArgumentException("Invalid eleme.cache.local.namespaces entry: " + item);
+                }
+                namespaces.put(item.substring(0, separator).trim(), item.substring(separator + 1).trim());
+            }
+        }
+        Duration localTtl = Duration.ofSeconds(localCacheTtlSeconds);
+        List<Map.Entry<String, Duration>> ttls = new ArrayList<>();
+        namespaces.forEach((prefix, namespace) -> {
+            Duration namespaceTtl = RedisConfig.CACHE_TTLS.get(namespace);
+            if (namespaceTtl == null) {
+                throw new IllegalArgumentException("Unknown cache namespace: " + namespace);
+            }
+            ttls.add(Map.entry(prefix, namespaceTtl.compareTo(localTtl) < 0 ? namespaceTtl : localTtl));
+        });
+        ttls.sort(Comparator.comparingInt((Map.Entry<String, Duration> entry) -> entry.getKey().length()).reversed());
+        return List.copyOf(ttls);
+    }
+    
+    /**
+     * 本地缓存条目
+     */
+    private record LocalEntry(Object value, long ttlNanos) {
+    }
+    
+    /**
+     * 本地缓存失效消息
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class InvalidationMessage implements Serializable {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * 发出消息的节点标识
+         */
+        private String nodeId;
+        
+        /**
+         * 失效的键，为null表示全部失效
+         */
+        private List<String> keys;
+    }
+}
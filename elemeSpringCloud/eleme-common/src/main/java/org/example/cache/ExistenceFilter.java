@@ -0,0 +1,239 @@
+package org.example.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.constants.CommonConstants;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 实体存在性过滤器
+ * <p>
+ * 在本地内存中维护某类实体全部ID的布隆过滤器，查询前先判断ID是否可能存在，
+ * 一定不存在的ID直接拒绝，不访问Redis和数据库。
+ * <ul>
+ *     <li>启动后异步从数据库全量加载，加载完成前所有ID都视为可能存在</li>
+ *     <li>新增实体时调用add，本地立即生效，并通过Redis频道广播给其他节点</li>
+ *     <li>布隆过滤器不支持删除，已删除的ID在下次定期重建前仍判定为可能存在，由空结果缓存拦截</li>
+ *     <li>自增ID大于已加载的最大ID、且不超过表中当前最大ID时视为可能存在，避免其他节点新增的数据在广播到达前被误拒；
+ *     超过当前最大ID的请求按需刷新一次（每秒至多一次）后仍超过则判定为不存在</li>
+ * </ul>
+ * 由各服务按实体声明为Bean。
+ */
+@Slf4j
+public class ExistenceFilter implements InitializingBean, DisposableBean {
+
+    private final String name;
+
+    private final long expectedInsertions;
+
+    private final double falsePositiveRate;
+
+    private final boolean autoIncrementId;
+
+    private final Supplier<Collection<?>> keyLoader;
+
+    private final Supplier<Long> maxIdLoader;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final long rebuildIntervalMinutes;
+
+    private final String channel;
+
+    private final Object rebuildLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    private volatile BloomFilter filter;
+
+    private volatile long maxLoadedId = Long.MAX_VALUE;
+
+    /**
+     * 表中当前最大ID，大于已加载最大ID且不超过该值的ID放行
+     */
+    private volatile long maxKnownId = Long.MAX_VALUE;
+
+    private volatile long lastMaxIdRefreshMillis;
+
+    private long lastRebuildMillis;
+
+    /**
+     * 重建期间新增的键，重建完成后补入新过滤器，受rebuildLock保护
+     */
+    private List<String> pendingKeys;
+
+    /**
+     * @param name                   实体名，用于区分广播频道
+     * @param expectedInsertions     预期实体数量
+     * @param falsePositiveRate      期望误判率
+     * @param autoIncrementId        ID是否为自增数值
+     * @param keyLoader              全量加载实体ID
+     * @param maxIdLoader            查询表中当前最大ID，表为空时返回null，ID非自增时传null
+     * @param redisTemplate          用于广播新增
+     * @param listenerContainer      用于接收其他节点的新增
+     * @param rebuildIntervalMinutes 定期全量重建间隔（分钟）
+     */
+    public ExistenceFilter(String name, long expectedInsertions, double falsePositiveRate, boolean autoIncrementId,
+                           Supplier<Collection<?>> keyLoader, Supplier<Long> maxIdLoader,
+                           RedisTemplate<String, Object> redisTemplate, RedisMessageListenerContainer listenerContainer,
+                           long rebuildIntervalMinutes) {
+        this.name = name;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.autoIncrementId = autoIncrementId;
+        this.keyLoader = keyLoader;
+        this.maxIdLoader = maxIdLoader;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+        this.channel = CommonConstants.EXISTENCE_FILTER_CHANNEL_PREFIX + name;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            Object key = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (key != null) {
+                addLocal(key.toString());
+            }
+        }, new ChannelTopic(channel));
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "existence-filter-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 每分钟检查一次：尚未加载成功或到达重建间隔时全量重建
+        scheduler.scheduleWithFixedDelay(this::rebuildIfNecessary, 0, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 判断实体是否可能存在，返回false时一定不存在
+     */
+    public boolean mightExist(Object key) {
+        if (key == null) {
+            return false;
+        }
+        BloomFilter current = filter;
+        if (current == null) {
+            return true;
+        }
+        if (autoIncrementId && key instanceof Number number && number.longValue() > maxLoadedId) {
+            // 广播到达的新增ID已写入过滤器
+            return number.longValue() <= maxKnownId || current.mightContain(key.toString())
+                    || number.longValue() <= refreshMaxKnownId();
+        }
+        return current.mightContain(key.toString());
+    }
+
+    /**
+     * 新增实体后调用，本地立即生效并广播给其他节点
+     */
+    public void add(Object key) {
+        if (key == null) {
+            return;
+        }
+        addLocal(key.toString());
+        try {
+            redisTemplate.convertAndSend(channel, key.toString());
+        } catch (Exception e) {
+            log.error("广播存在性过滤器新增失败: {}-{}", name, key, e);
+        }
+    }
+
+    /**
+     * 按需刷新表中当前最大ID，每秒至多查询一次，避免超大ID的请求穿透到数据库
+     */
+    private long refreshMaxKnownId() {
+        long now = System.currentTimeMillis();
+        if (maxIdLoader == null || now - lastMaxIdRefreshMillis < 1000) {
+            return maxKnownId;
+        }
+        lastMaxIdRefreshMillis = now;
+        try {
+            Long maxId = maxIdLoader.get();
+            if (maxId != null && maxId > maxKnownId) {
+                maxKnownId = maxId;
+            }
+        } catch (Exception e) {
+            log.error("查询存在性过滤器当前最大ID失败: {}", name, e);
+        }
+        return maxKnownId;
+    }
+
+    private void addLocal(String key) {
+        synchronized (rebuildLock) {
+            BloomFilter current = filter;
+            if (current != null) {
+                current.put(key);
+            }
+            if (pendingKeys != null) {
+                pendingKeys.add(key);
+            }
+        }
+    }
+
+    private void rebuildIfNecessary() {
+        boolean expired = System.currentTimeMillis() - lastRebuildMillis >= TimeUnit.MINUTES.toMillis(rebuildIntervalMinutes);
+        if (filter == null || expired) {
+            rebuild();
+        }
+    }
+
+    /**
+     * 全量重建过滤器
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            pendingKeys = new ArrayList<>();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Collection<?> keys = keyLoader.get();
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, keys.size() * 2L), falsePositiveRate);
+            long maxId = Long.MIN_VALUE;
+            for (Object key : keys) {
+                rebuilt.put(key.toString());
+                if (autoIncrementId && key instanceof Number number) {
+                    maxId = Math.max(maxId, number.longValue());
+                }
+            }
+
+            synchronized (rebuildLock) {
+                pendingKeys.forEach(rebuilt::put);
+                pendingKeys = null;
+                maxLoadedId = autoIncrementId ? maxId : Long.MAX_VALUE;
+                maxKnownId = autoIncrementId && maxIdLoader != null ? maxId : Long.MAX_VALUE;
+                filter = rebuilt;
+            }
+            lastRebuildMillis = System.currentTimeMillis();
+            log.info("存在性过滤器重建完成: {}, 数量: {}, 耗时: {}ms", name, keys.size(), lastRebuildMillis - start);
+        } catch (Exception e) {
+            synchronized (rebuildLock) {
+                pendingKeys = null;
+            }
+            // 重建失败时保留旧过滤器，重建时间不更新，下次检查时继续重建
+            log.error("存在性过滤器重建失败: {}", name, e);
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package org.example.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.lock.DistributedLock;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 读穿透缓存
+ * <p>
+ * 在CacheService之上封装"读缓存 → 未命中回源 → 写缓存"，并防止缓存击穿：
+ * <ul>
+ *     <li>单飞：同一JVM内同一个键同时只有一个线程回源，其余线程等待其结果；
+ *     回源线程超时未返回时，由一个等待线程接替回源并写入缓存，其余线程改为等待接替者</li>
+ *     <li>租约（可选）：回源前通过DistributedLock抢占跨节点租约，未抢到的节点短暂等待其他节点写入缓存</li>
+ *     <li>提前刷新：按XFetch算法，越接近过期、回源越慢，越可能由某个请求提前回源，避免条目集中过期；
+ *     提前刷新提交到后台线程池执行，当前请求直接返回旧值</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReadThroughCache implements InitializingBean, DisposableBean {
+
+    private static final String LEASE_PREFIX = "cache:lease:";
+
+    private final CacheService cacheService;
+
+    private final DistributedLock distributedLock;
+
+    /**
+     * 缓存未命中时正在回源的键
+     */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 正在提前刷新的键，与inFlight分开，未命中的等待线程不会等到提前刷新的结果
+     */
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    /**
+     * XFetch提前刷新系数，越大越倾向于提前刷新
+     */
+    @Value("${eleme.cache.read-through.beta:1.0}")
+    private double beta;
+
+    /**
+     * 跨节点租约时长（毫秒），应大于回源耗时；同一JVM内等待回源线程也以此为上限
+     */
+    @Value("${eleme.cache.read-through.lease-millis:3000}")
+    private long leaseMillis;
+
+    /**
+     * 未抢到租约时等待其他节点写入缓存的最长时间（毫秒），超时后自行回源
+     */
+    @Value("${eleme.cache.read-through.wait-millis:500}")
+    private long waitMillis;
+
+    /**
+     * 提前刷新线程数
+     */
+    @Value("${eleme.cache.read-through.refresh-threads:4}")
+    private int refreshThreads;
+
+    /**
+     * 提前刷新排队上限，队列已满时放弃本次刷新，由后续请求或条目过期后的回源兜底
+     */
+    @Value("${eleme.cache.read-through.refresh-queue-capacity:1000}")
+    private int refreshQueueCapacity;
+
+    @Override
+    public void afterPropertiesSet() {
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refreshQueueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "read-through-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        refreshExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public void destroy() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * 读穿透获取缓存，不使用跨节点租约
+     */
+    public <T> T get(String key, long ttl, TimeUnit unit, Supplier<T> loader) {
+        return get(key, ttl, unit, false, value -> true, loader);
+    }
+
+    /**
+     * 读穿透获取缓存
+     *
+     * @param useLease 是否使用跨节点租约，适用于回源代价高的热点键
+     */
+    public <T> T get(String key, long ttl, TimeUnit unit, boolean useLease, Supplier<T> loader) {
+        return get(key, ttl, unit, useLease, value -> true, loader);
+    }
+
+    /**
+     * 读穿透获取缓存，回源结果为null时按较短的过期时间缓存空结果，防止不存在的键反复穿透到数据库
+     *
+     * @param negativeTtlSeconds 空结果缓存时间（秒）
+     */
+    public <T> T get(String key, long ttl, TimeUnit unit, long negativeTtlSeconds, Supplier<T> loader) {
+        return get(key, ttl, unit, false, value -> true, negativeTtlSeconds, loader);
+    }
+
+    /**
+     * 读穿透获取缓存，不缓存空结果
+     */
+    public <T> T get(String key, long ttl, TimeUnit unit, boolean useLease, Predicate<T> cacheable, Supplier<T> loader) {
+        return get(key, ttl, unit, useLease, cacheable, 0L, loader);
+    }
+
+    /**
+     * 读穿透获取缓存
+     *
+     * @param key       缓存键
+     * @param ttl       过期时间
+     * @param unit      时间单位
+     * @param useLease  是否使用跨节点租约
+     * @param cacheable 回源结果是否写入缓存，例如依赖的下游降级时不缓存
+     * @param negativeTtlSeconds 空结果缓存时间（秒），为0时不缓存空结果
+     * @param loader    回源方法
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, long ttl, TimeUnit unit, boolean useLease, Predicate<T> cacheable,
+                     long negativeTtlSeconds, Supplier<T> loader) {
+        Object cached = cacheService.get(key);
+        if (cached instanceof CacheEnvelope envelope) {
+            if (shouldRefreshEarly(envelope)) {
+                // 提前刷新在后台执行，本次请求直接返回旧值
+                refreshEarly(key, ttl, unit, useLease, cacheable, negativeTtlSeconds, loader);
+            }
+            return (T) envelope.getValue();
+        }
+        if (cached != null) {
+            // 兼容直接写入的旧格式缓存
+            return (T) cached;
+        }
+        return loadSingleFlight(key, ttl, unit, useLease, cacheable, negativeTtlSeconds, loader);
+    }
+
+    /**
+     * 缓存未命中时的单飞回源
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T loadSingleFlight(String key, long ttl, TimeUnit unit, boolean useLease,
+                                   Predicate<T> cacheable, long negativeTtlSeconds, Supplier<T> loader) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> leader = inFlight.putIfAbsent(key, future);
+        while (leader != null) {
+            if (awaitLeader(key, leader)) {
+                return (T) leader.join();
+            }
+            // 回源线程超时或异常退出，只有一个等待线程能替换成功并接替回源，其余线程等待接替者
+            if (inFlight.replace(key, leader, future)) {
+                break;
+            }
+            leader = inFlight.putIfAbsent(key, future);
+        }
+
+        try {
+            T value = useLease
+                    ? loadWithLease(key, ttl, unit, cacheable, negativeTtlSeconds, loader)
+                    : loadAndStore(key, ttl, unit, cacheable, negativeTtlSeconds, loader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * 等待同一JVM内的回源线程，返回true表示回源线程已正常返回结果，返回false表示需要接替回源
+     * 回源线程抛出的运行时异常直接抛给等待线程
+     */
+    private boolean awaitLeader(String key, CompletableFuture<Object> leader) {
+        try {
+            leader.get(leaseMillis, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for cache load: " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            log.warn("Read-through leader failed: key={}", key, e.getCause());
+        } catch (TimeoutException e) {
+            log.warn("Read-through leader timed out: key={}, leaseMillis={}", key, leaseMillis);
+        }
+        return false;
+    }
+
+    /**
+     * 持有跨节点租约回源；租约被其他节点持有时，短暂等待对方写入缓存
+     */
+    private <T> T loadWithLease(String key, long ttl, TimeUnit unit, Predicate<T> cacheable,
+                                long negativeTtlSeconds, Supplier<T> loader) {
+        DistributedLock.LockInfo lease = distributedLock.tryLock(LEASE_PREFIX + key, leaseMillis, TimeUnit.MILLISECONDS);
+        if (lease == null) {
+            T value = waitForOtherNode(key);
+            if (value != null) {
+                return value;
+            }
+            // 租约持有者迟迟未写入，放弃等待，自行回源
+            return loadAndStore(key, ttl, unit, cacheable, negativeTtlSeconds, loader);
+        }
+        try {
+            return loadAndStore(key, ttl, unit, cacheable, negativeTtlSeconds, loader);
+        } finally {
+            distributedLock.unlock(lease);
+        }
+    }
+
+    /**
+     * 轮询等待其他节点回源写入
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T waitForOtherNode(String key) {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(Math.min(50, waitMillis));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            Object cached = cacheService.get(key);
+            if (cached instanceof CacheEnvelope envelope) {
+                return (T) envelope.getValue();
+            }
+            if (cached != null) {
+                return (T) cached;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 提前刷新：同一JVM内同一个键同时只提交一个后台刷新任务，使用租约时只有抢到租约的节点回源
+     */
+    private <T> void refreshEarly(String key, long ttl, TimeUnit unit, boolean useLease,
+                                  Predicate<T> cacheable, long negativeTtlSeconds, Supplier<T> loader) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                DistributedLock.LockInfo lease = null;
+                try {
+                    if (useLease) {
+                        lease = distributedLock.tryLock(LEASE_PREFIX + key, leaseMillis, TimeUnit.MILLISECONDS);
+                        if (lease == null) {
+                            return;
+                        }
+                    }
+                    loadAndStore(key, ttl, unit, cacheable, negativeTtlSeconds, loader);
+                    log.debug("Read-through early refresh: key={}", key);
+                } catch (RuntimeException e) {
+                    // 提前刷新失败不影响读取，旧值继续有效直到过期
+                    log.warn("Read-through early refresh failed: key={}", key, e);
+                } finally {
+                    refreshing.remove(key);
+                    if (lease != null) {
+                        distributedLock.unlock(lease);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Read-through early refresh rejected: key={}", key);
+        }
+    }
+
+    /**
+     * 回源并写入缓存，记录回源耗时
+     */
+    private <T> T loadAndStore(String key, long ttl, TimeUnit unit, Predicate<T> cacheable,
+                               long negativeTtlSeconds, Supplier<T> loader) {
+        long start = System.currentTimeMillis();
+        T value = loader.get();
+        long deltaMillis = System.currentTimeMillis() - start;
+
+        if (value != null && cacheable.test(value)) {
+            long ttlMillis = unit.toMillis(ttl);
+            cacheService.set(key, new CacheEnvelope(value, deltaMillis, System.currentTimeMillis() + ttlMillis), ttl, unit);
+        } else if (value == null && negativeTtlSeconds > 0) {
+            // 空结果以值为null的信封缓存，命中后直接返回null
+            long ttlMillis = TimeUnit.SECONDS.toMillis(negativeTtlSeconds);
+            cacheService.set(key, new CacheEnvelope(null, deltaMillis, System.currentTimeMillis() + ttlMillis),
+                    negativeTtlSeconds, TimeUnit.SECONDS);
+        }
+        return value;
+    }
+
+    /**
+     * XFetch：now - delta * beta * ln(rand) >= expiry 时提前回源
+     */
+    private boolean shouldRefreshEarly(CacheEnvelope envelope) {
+        if (envelope.getExpireAtMillis() <= 0) {
+            return false;
+        }
+        double random = ThreadLocalRandom.current().nextDouble();
+        if (random <= 0) {
+            return false;
+        }
+        double gap = envelope.getDeltaMillis() * beta * Math.log(random);
+        return System.currentTimeMillis() - gap >= envelope.getExpireAtMillis();
+    }
+}
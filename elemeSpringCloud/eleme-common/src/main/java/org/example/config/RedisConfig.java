@@ -1,6 +1,10 @@
 package org.example.config;
 
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.type.CollectionType;
 import com.fasterxml.jackson.databind.type.MapType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
@@ -14,13 +18,16 @@ import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -31,6 +38,44 @@ import java.util.Map;
 @EnableCaching
 public class RedisConfig {
     
+    /**
+     * 各缓存命名空间的过期时间，RedisCacheManager与CacheService的本地缓存共用
+     */
+    public static final Map<String, Duration> CACHE_TTLS;
+    
+    static {
+        Map<String, Duration> ttls = new LinkedHashMap<>();
+        
+        // 用户缓存 - 1小时
+        ttls.put("user", Duration.ofHours(1));
+        
+        // 商家缓存 - 2小时
+        ttls.put("business", Duration.ofHours(2));
+        
+        // 食物缓存 - 30分钟
+        ttls.put("food", Duration.ofMinutes(30));
+        
+        // 订单缓存 - 10分钟
+        ttls.put("order", Duration.ofMinutes(10));
+        
+        // 支付缓存 - 5分钟
+        ttls.put("payment", Duration.ofMinutes(5));
+        
+        // 验证码缓存 - 5分钟
+        ttls.put("captcha", Duration.ofMinutes(5));
+        
+        // 热点数据缓存 - 1天
+        ttls.put("hotdata", Duration.ofDays(1));
+        
+        // 统计缓存 - 1小时
+        ttls.put("statistics", Duration.ofHours(1));
+        
+        // 配置缓存缓存 - 2小时
+        ttls.put("config", Duration.ofHours(2));
+        
+        CACHE_TTLS = Collections.unmodifiableMap(ttls);
+    }
+    
     /**
      * 配置RedisTemplate
      */
@@ -39,12 +84,8 @@ public class RedisConfig {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         
-        // 创建支持JSR310的ObjectMapper
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        
-        // 使用配置了JSR310的GenericJackson2JsonRedisSerializer
-        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        // 使用配置了JSR310和类型信息的GenericJackson2JsonRedisSerializer
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(createRedisObjectMapper());
         
         // 使用StringRedisSerializer来序列化和反序列化redis的key值
         template.setKeySerializer(new StringRedisSerializer());
@@ -63,9 +104,7 @@ public class RedisConfig {
      */
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // 创建支持JSR310的ObjectMapper
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
+        ObjectMapper objectMapper = createRedisObjectMapper();
         
         // 配置序列化
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
@@ -76,33 +115,7 @@ public class RedisConfig {
         
         // 配置不同缓存的过期时间
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        
-        // 用户缓存 - 1小时
-        cacheConfigurations.put("user", config.entryTtl(Duration.ofHours(1)));
-        
-        // 商家缓存 - 2小时
-        cacheConfigurations.put("business", config.entryTtl(Duration.ofHours(2)));
-        
-        // 食物缓存 - 30分钟
-        cacheConfigurations.put("food", config.entryTtl(Duration.ofMinutes(30)));
-        
-        // 订单缓存 - 10分钟
-        cacheConfigurations.put("order", config.entryTtl(Duration.ofMinutes(10)));
-        
-        // 支付缓存 - 5分钟
-        cacheConfigurations.put("payment", config.entryTtl(Duration.ofMinutes(5)));
-        
-        // 验证码缓存 - 5分钟
-        cacheConfigurations.put("captcha", config.entryTtl(Duration.ofMinutes(5)));
-        
-        // 热点数据缓存 - 1天
-        cacheConfigurations.put("hotdata", config.entryTtl(Duration.ofDays(1)));
-        
-        // 统计缓存 - 1小时
-        cacheConfigurations.put("statistics", config.entryTtl(Duration.ofHours(1)));
-        
-        // 配置缓存缓存 - 2小时
-        cacheConfigurations.put("config", config.entryTtl(Duration.ofHours(2)));
+        CACHE_TTLS.forEach((cacheName, ttl) -> cacheConfigurations.put(cacheName, config.entryTtl(ttl)));
         
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
@@ -110,6 +123,36 @@ public class RedisConfig {
                 .build();
     }
     
+    /**
+     * 配置Redis消息监听容器，用于跨服务的缓存失效通知
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+    
+    /**
+     * 创建Redis值序列化使用的ObjectMapper
+     * 写入时携带类型信息，读取时才能还原为原始的实体类型，而不是LinkedHashMap
+     * 反序列化只允许本项目及JDK常用包下的类型，避免缓存中被写入任意类名时实例化危险类型
+     */
+    private ObjectMapper createRedisObjectMapper() {
+        PolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+                .allowIfSubType("org.example.")
+                .allowIfSubType("java.util.")
+                .allowIfSubType("java.time.")
+                .allowIfSubType("java.lang.")
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        objectMapper.activateDefaultTyping(typeValidator,
+                ObjectMapper.DefaultTyping.NON_FINAL, JsonTypeInfo.As.PROPERTY);
+        return objectMapper;
+    }
+    
     /**
      * 配置缓存键生成策略
      */
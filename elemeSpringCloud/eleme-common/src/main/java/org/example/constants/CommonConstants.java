@@ -120,6 +120,46 @@ public class CommonConstants {
      */
     public static final String FOOD_CACHE_PREFIX = REDIS_PREFIX + "food:";
 
+    /**
+     * 商家缓存过期时间（秒）
+     */
+    public static final long BUSINESS_CACHE_EXPIRE = 7200L;
+
+    /**
+     * 食物变更通知频道
+     */
+    public static final String FOOD_CHANGE_CHANNEL = REDIS_PREFIX + "channel:food:change";
+
+    /**
+     * 商家变更通知频道，消息内容为商家ID
+     */
+    public static final String BUSINESS_CHANGE_CHANNEL = REDIS_PREFIX + "channel:business:change";
+
+    /**
+     * 订单变更通知频道，消息内容为OrderChangeEvent
+     */
+    public static final String ORDER_CHANGE_CHANNEL = REDIS_PREFIX + "channel:order:change";
+
+    /**
+     * 本地缓存失效通知频道前缀，后接服务名
+     */
+    public static final String CACHE_INVALIDATION_CHANNEL_PREFIX = REDIS_PREFIX + "channel:cache:invalidate:";
+
+    /**
+     * 缓存标签版本号 Redis Key前缀
+     */
+    public static final String CACHE_TAG_PREFIX = REDIS_PREFIX + "cache:tag:";
+
+    /**
+     * 存在性过滤器新增广播频道前缀，后接实体名
+     */
+    public static final String EXISTENCE_FILTER_CHANNEL_PREFIX = REDIS_PREFIX + "channel:existence:";
+
+    /**
+     * 空结果缓存过期时间（秒）
+     */
+    public static final long NEGATIVE_CACHE_EXPIRE = 60L;
+
     /**
      * 默认缓存过期时间（秒）
      */
@@ -139,4 +179,14 @@ public class CommonConstants {
      * 邮箱验证码过期时间（秒）
      */
     public static final long EMAIL_CODE_EXPIRE = 300L;
-} 
\ No newline at end of file
+
+    /**
+     * 游标分页默认每页条数
+     */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /**
+     * 游标分页每页最大条数
+     */
+    public static final int MAX_PAGE_SIZE = 100;
+}
@@ -0,0 +1,48 @@
+package org.example.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 食物变更事件，由食物服务通过Redis频道广播
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TYPE_CREATED = "CREATED";
+    public static final String TYPE_UPDATED = "UPDATED";
+    public static final String TYPE_DELETED = "DELETED";
+    public static final String TYPE_ON_SALE = "ON_SALE";
+    public static final String TYPE_OFF_SALE = "OFF_SALE";
+
+    /**
+     * 食物ID
+     */
+    private Integer foodId;
+
+    /**
+     * 所属商家ID
+     */
+    private Integer businessId;
+
+    /**
+     * 变更类型
+     */
+    private String type;
+
+    /**
+     * 变更时间戳（毫秒）
+     */
+    private Long timestamp;
+
+    public static FoodChangeEvent of(Integer foodId, Integer businessId, String type) {
+        return new FoodChangeEvent(foodId, businessId, type, System.currentTimeMillis());
+    }
+}
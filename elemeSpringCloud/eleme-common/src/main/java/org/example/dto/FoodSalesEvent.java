@@ -0,0 +1,58 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 商品销量事件，由商品服务从订单服务发件箱中的支付事件和订单明细组装，用于累加热销榜
+ * <p>
+ * 同一事件可能被重复处理，消费方按eventId去重。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FoodSalesEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 发件箱事件ID，用于去重
+     */
+    private Long eventId;
+
+    /**
+     * 订单ID
+     */
+    private Integer orderId;
+
+    /**
+     * 商家ID
+     */
+    private Integer businessId;
+
+    /**
+     * 售出的商品及数量
+     */
+    private List<Item> items;
+
+    /**
+     * 支付时间戳（毫秒）
+     */
+    private Long timestamp;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private Integer foodId;
+
+        private Integer quantity;
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.money.Money;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 商家销售汇总DTO，对应一个商家在一个小时或一天内的汇总
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MerchantSalesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 商家ID
+     */
+    private Integer businessId;
+
+    /**
+     * 时间段起始时间，按天汇总时为当天零点
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    private LocalDateTime bucketStart;
+
+    /**
+     * 下单数
+     */
+    private Long orderCount;
+
+    /**
+     * 支付数
+     */
+    private Long paidCount;
+
+    /**
+     * 成交额（已支付订单总价）
+     */
+    private Money gmv;
+
+    /**
+     * 客单价（成交额 / 支付数），没有支付时为0
+     */
+    private Money averageTicket;
+}
@@ -0,0 +1,45 @@
+package org.example.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量更新订单状态请求DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchStateRequestDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 单次请求最多处理的订单数
+     */
+    public static final int MAX_ORDER_IDS = 500;
+
+    /**
+     * 订单ID列表
+     */
+    @NotEmpty(message = "订单ID列表不能为空")
+    @Size(max = MAX_ORDER_IDS, message = "单次最多处理" + MAX_ORDER_IDS + "个订单")
+    private List<Integer> orderIds;
+
+    /**
+     * 目标状态
+     */
+    @NotNull(message = "目标状态不能为空")
+    private Integer state;
+
+    /**
+     * 商家ID，指定时只处理属于该商家的订单，其余订单视为不存在
+     */
+    private Integer businessId;
+}
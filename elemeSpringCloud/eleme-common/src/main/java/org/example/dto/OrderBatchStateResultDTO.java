@@ -0,0 +1,73 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 批量更新订单状态结果DTO，按请求顺序返回每个订单的处理结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderBatchStateResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 目标状态
+     */
+    private Integer state;
+
+    /**
+     * 成功迁移的订单数
+     */
+    private Integer successCount;
+
+    /**
+     * 未迁移的订单数
+     */
+    private Integer failureCount;
+
+    /**
+     * 每个订单的处理结果
+     */
+    private List<Outcome> outcomes;
+
+    /**
+     * 单个订单的处理结果
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Outcome implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        public static final String REASON_NOT_FOUND = "NOT_FOUND";
+        public static final String REASON_STATE_NOT_ALLOWED = "STATE_NOT_ALLOWED";
+
+        /**
+         * 订单ID
+         */
+        private Integer orderId;
+
+        /**
+         * 是否迁移成功
+         */
+        private Boolean success;
+
+        /**
+         * 迁移前状态，订单不存在时为null
+         */
+        private Integer previousState;
+
+        /**
+         * 失败原因，成功时为null
+         */
+        private String reason;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 订单变更事件，由订单服务在事务提交后通过Redis频道广播
+ * <p>
+ * 投递语义为至少一次：消费方需按订单ID和状态做幂等处理，不同订单的事件之间不保证顺序。
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderChangeEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String TYPE_CREATED = "CREATED";
+    public static final String TYPE_STATE_CHANGED = "STATE_CHANGED";
+    public static final String TYPE_DELETED = "DELETED";
+
+    /**
+     * 发件箱事件ID，可用于去重
+     */
+    private Long eventId;
+
+    /**
+     * 订单ID
+     */
+    private Integer orderId;
+
+    /**
+     * 用户手机号
+     */
+    private String userPhone;
+
+    /**
+     * 商家ID
+     */
+    private Integer businessId;
+
+    /**
+     * 变更类型
+     */
+    private String type;
+
+    /**
+     * 变更前状态，新建订单时为null
+     */
+    private Integer fromState;
+
+    /**
+     * 变更后状态，删除订单时为null
+     */
+    private Integer toState;
+
+    /**
+     * 变更时间戳（毫秒）
+     */
+    private Long timestamp;
+}
@@ -5,11 +5,13 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import org.example.entity.Business;
 import org.example.entity.Food;
+import org.example.entity.OrderItem;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import org.example.money.Money;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -48,7 +50,7 @@ public class OrderDetailDTO implements Serializable {
     /**
      * 订单总价
      */
-    private Double price;
+    private Money price;
 
     /**
      * 订单状态
@@ -102,7 +104,7 @@ public class OrderDetailDTO implements Serializable {
     /**
      * 配送费
      */
-    private Double deliveryFee;
+    private Money deliveryFee;
 
     /**
      * 商家信息
@@ -113,4 +115,9 @@ public class OrderDetailDTO implements Serializable {
      * 订单商品详情列表
      */
     private List<Food> orderItems;
+
+    /**
+     * 订单明细（含数量和下单单价）
+     */
+    private List<OrderItem> items;
 } 
\ No newline at end of file
@@ -3,6 +3,7 @@ package org.example.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.example.money.Money;
 
 import java.io.Serializable;
 import java.util.List;
@@ -33,9 +34,9 @@ public class OrderRequestDTO implements Serializable {
     private List<Integer> orderList;
 
     /**
-     * 订单总价
+     * 订单总价，仅用于与服务端计价核对，订单以服务端计价为准
      */
-    private Double price;
+    private Money price;
 
     /**
      * 收货地址
@@ -58,7 +59,7 @@ public class OrderRequestDTO implements Serializable {
     private String remark;
 
     /**
-     * 配送费
+     * 配送费，订单以商家配送费为准
      */
-    private Double deliveryFee;
+    private Money deliveryFee;
 } 
\ No newline at end of file
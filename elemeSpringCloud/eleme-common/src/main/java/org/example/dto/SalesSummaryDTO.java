@@ -0,0 +1,39 @@
+package org.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.example.money.Money;
+
+import java.io.Serializable;
+
+/**
+ * 全平台销售概况DTO，供监控服务采集
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSummaryDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 订单总数
+     */
+    private Long totalOrders;
+
+    /**
+     * 今日下单数
+     */
+    private Long todayOrders;
+
+    /**
+     * 今日支付数
+     */
+    private Long todayPaidOrders;
+
+    /**
+     * 今日成交额
+     */
+    private Money todayGmv;
+}
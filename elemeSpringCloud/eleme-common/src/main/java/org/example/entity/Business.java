@@ -120,6 +120,18 @@ public class Business implements Serializable {
     @TableField("type")
     private String type;
 
+    /**
+     * 纬度
+     */
+    @TableField("latitude")
+    private Double latitude;
+
+    /**
+     * 经度
+     */
+    @TableField("longitude")
+    private Double longitude;
+
     /**
      * 创建时间
      */
@@ -162,13 +174,19 @@ public class Business implements Serializable {
     @TableField(exist = false)
     private List<Food> foodList;
 
+    /**
+     * 到查询位置的距离（米），仅附近商家查询返回，不添加到数据库
+     */
+    @TableField(exist = false)
+    private Integer distanceMeters;
+
     /**
      * 设置折扣信息，同时解析为列表
      */
     public void setDiscounts(String discounts) {
         this.discounts = discounts;
         if (discounts != null && !discounts.trim().isEmpty()) {
-            this.discountsList = Arrays.asList(discounts.split("-"));
+            this.discountsList = new ArrayList<>(Arrays.asList(discounts.split("-")));
         } else {
             this.discountsList = new ArrayList<>();
         }
@@ -181,7 +199,7 @@ public class Business implements Serializable {
         this.sidebarItems = sidebarItems;
         if (sidebarItems != null && !sidebarItems.trim().isEmpty()) {
             try {
-                this.sidebarItemsList = Arrays.asList(sidebarItems.split("/"));
+                this.sidebarItemsList = new ArrayList<>(Arrays.asList(sidebarItems.split("/")));
             } catch (Exception e) {
                 this.sidebarItemsList = new ArrayList<>();
             }
@@ -12,6 +12,7 @@ import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.example.money.Money;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -64,7 +65,7 @@ public class Food implements Serializable {
      * 现价
      */
     @TableField("red_price")
-    private Double redPrice;
+    private Money redPrice;
 
     /**
      * 原价
@@ -132,7 +133,7 @@ public class Food implements Serializable {
     public void setDiscount(String discount) {
         this.discount = discount;
         if (discount != null && !discount.trim().isEmpty()) {
-            this.discountList = Arrays.asList(discount.split("-"));
+            this.discountList = new ArrayList<>(Arrays.asList(discount.split("-")));
         } else {
             this.discountList = new ArrayList<>();
         }
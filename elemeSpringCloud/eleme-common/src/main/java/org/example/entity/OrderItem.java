@@ -0,0 +1,69 @@
+package org.example.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+import org.example.money.Money;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 订单明细实体类，每个订单中的每种商品一行
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("order_item")
+public class OrderItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 明细ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Integer id;
+
+    /**
+     * 订单ID
+     */
+    @TableField("order_id")
+    private Integer orderId;
+
+    /**
+     * 商品ID
+     */
+    @TableField("food_id")
+    private Integer foodId;
+
+    /**
+     * 购买数量
+     */
+    @TableField("quantity")
+    private Integer quantity;
+
+    /**
+     * 下单时的商品单价
+     */
+    @TableField("unit_price")
+    private Money unitPrice;
+
+    /**
+     * 创建时间
+     */
+    @TableField("created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    @JsonSerialize(using = LocalDateTimeSerializer.class)
+    @JsonDeserialize(using = LocalDateTimeDeserializer.class)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,106 @@
+package org.example.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 订单事件发件箱实体类，与订单写操作在同一事务中写入，由后台任务异步投递
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("order_outbox")
+public class OrderOutbox implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 投递状态 - 待投递
+     */
+    public static final int STATUS_PENDING = 0;
+
+    /**
+     * 投递状态 - 已投递
+     */
+    public static final int STATUS_DISPATCHED = 1;
+
+    /**
+     * 事件ID
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 订单ID
+     */
+    @TableField("order_id")
+    private Integer orderId;
+
+    /**
+     * 用户手机号
+     */
+    @TableField("user_phone")
+    private String userPhone;
+
+    /**
+     * 商家ID
+     */
+    @TableField("business_id")
+    private Integer businessId;
+
+    /**
+     * 事件类型，取值见OrderChangeEvent
+     */
+    @TableField("event_type")
+    private String eventType;
+
+    /**
+     * 变更前状态
+     */
+    @TableField("from_state")
+    private Integer fromState;
+
+    /**
+     * 变更后状态
+     */
+    @TableField("to_state")
+    private Integer toState;
+
+    /**
+     * 投递状态
+     */
+    @TableField("status")
+    private Integer status;
+
+    /**
+     * 投递失败次数
+     */
+    @TableField("attempts")
+    private Integer attempts;
+
+    /**
+     * 下次投递时间
+     */
+    @TableField("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * 创建时间
+     */
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    /**
+     * 投递时间
+     */
+    @TableField("dispatched_at")
+    private LocalDateTime dispatchedAt;
+}
@@ -12,12 +12,14 @@ import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.experimental.Accessors;
+import org.example.money.Money;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.stream.Collectors;
 
 /**
  * 用户订单实体类
@@ -49,7 +51,7 @@ public class UserOrder implements Serializable {
     private String userPhone;
 
     /**
-     * 订单商品列表（用"-"分隔的商品ID）
+     * 订单商品列表（用"-"分隔的商品ID），保留用于兼容，明细以order_item表为准
      */
     @TableField("order_list")
     private String orderList;
@@ -58,10 +60,10 @@ public class UserOrder implements Serializable {
      * 订单总价
      */
     @TableField("price")
-    private Double price;
+    private Money price;
 
     /**
-     * 订单状态（0-未支付，1-已支付，2-已完成，3-已取消）
+     * 订单状态（0-未支付，1-已支付，2-已确认，3-已完成，-1-已取消）
      */
     @TableField("state")
     private Integer state;
@@ -130,7 +132,7 @@ public class UserOrder implements Serializable {
      * 配送费
      */
     @TableField("delivery_fee")
-    private Double deliveryFee;
+    private Money deliveryFee;
 
     /**
      * 订单商品ID列表，不添加到数据库
@@ -138,6 +140,12 @@ public class UserOrder implements Serializable {
     @TableField(exist = false)
     private List<Integer> orderItemIds;
 
+    /**
+     * 订单明细（含数量和下单单价），不添加到数据库
+     */
+    @TableField(exist = false)
+    private List<OrderItem> items;
+
     /**
      * 商家信息，不添加到数据库
      */
@@ -159,7 +167,7 @@ public class UserOrder implements Serializable {
             try {
                 this.orderItemIds = Arrays.stream(orderList.split("-"))
                         .map(Integer::parseInt)
-                        .toList();
+                        .collect(Collectors.toList());
             } catch (NumberFormatException e) {
                 this.orderItemIds = new ArrayList<>();
             }
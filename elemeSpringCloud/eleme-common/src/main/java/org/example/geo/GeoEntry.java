@@ -0,0 +1,20 @@
+package org.example.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 地理索引条目：实体ID和经纬度
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeoEntry {
+
+    private Integer id;
+
+    private Double latitude;
+
+    private Double longitude;
+}
@@ -0,0 +1,19 @@
+package org.example.geo;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 附近查询结果：实体ID和到查询点的距离
+ */
+@Data
+@AllArgsConstructor
+public class GeoHit {
+
+    private Integer id;
+
+    /**
+     * 距离（米）
+     */
+    private double distance;
+}
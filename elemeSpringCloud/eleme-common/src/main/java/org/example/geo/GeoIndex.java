@@ -0,0 +1,323 @@
+package org.example.geo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 地理位置索引
+ * <p>
+ * 在本地内存中按geohash维护实体坐标，查询附近实体时不扫描全部数据：
+ * <ul>
+ *     <li>经纬度各量化为26位并交错成52位geohash，按geohash有序存储，同一网格内的点在有序集合中连续</li>
+ *     <li>查询时按半径选择网格精度，使网格边长不小于半径，查询点所在网格及周围8个网格即可覆盖整个圆，
+ *     每个网格是一段连续的geohash区间，定位为O(log n)</li>
+ *     <li>候选点按球面距离过滤，结果按距离升序返回</li>
+ *     <li>启动后异步全量加载，加载完成前 isReady 为false，调用方应回退到数据库查询</li>
+ *     <li>坐标变更时调用put、remove增量更新，并定期全量重建以纠正遗漏的变更</li>
+ * </ul>
+ * 线程安全：查询持读锁，更新持写锁。由各服务按实体声明为Bean。
+ */
+@Slf4j
+public class GeoIndex implements InitializingBean, DisposableBean {
+
+    /**
+     * 经纬度各自的量化位数
+     */
+    private static final int MAX_STEP = 26;
+
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180;
+
+    private static final Comparator<Point> ORDER = Comparator.comparingLong(Point::hash).thenComparingInt(Point::id);
+
+    private final String name;
+
+    private final Supplier<Collection<GeoEntry>> loader;
+
+    private final long rebuildIntervalMinutes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 按geohash排序的全部点，受lock保护
+     */
+    private NavigableSet<Point> points = new TreeSet<>(ORDER);
+
+    /**
+     * ID → 点，用于更新和删除，受lock保护
+     */
+    private Map<Integer, Point> byId = new HashMap<>();
+
+    /**
+     * 重建期间的增量变更，值为null表示删除，重建完成后重放，受lock保护
+     */
+    private Map<Integer, Point> pendingChanges;
+
+    private volatile boolean ready;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name                   索引名，用于日志和线程名
+     * @param loader                 全量加载索引条目
+     * @param rebuildIntervalMinutes 定期全量重建间隔（分钟）
+     */
+    public GeoIndex(String name, Supplier<Collection<GeoEntry>> loader, long rebuildIntervalMinutes) {
+        this.name = name;
+        this.loader = loader;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "geo-index-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 是否已完成首次加载
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 新增或更新条目，坐标为空或不合法时视为删除
+     */
+    public void put(Integer id, Double latitude, Double longitude) {
+        if (id == null) {
+            return;
+        }
+        Point point = toPoint(id, latitude, longitude);
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(id, point);
+            }
+            apply(points, byId, id, point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除条目
+     */
+    public void remove(Integer id) {
+        put(id, null, null);
+    }
+
+    /**
+     * 查询半径内最近的实体
+     *
+     * @param latitude     纬度
+     * @param longitude    经度
+     * @param radiusMeters 半径（米）
+     * @param limit        最多返回条数
+     * @return 按距离升序排列的结果
+     */
+    public List<GeoHit> nearby(double latitude, double longitude, double radiusMeters, int limit) {
+        if (limit <= 0 || radiusMeters <= 0 || !isValid(latitude, longitude)) {
+            return List.of();
+        }
+        int step = estimateStep(radiusMeters, latitude);
+        int shift = MAX_STEP - step;
+        long cells = 1L << step;
+        long latCell = quantize(latitude, -90, 90) >>> shift;
+        long lngCell = quantize(longitude, -180, 180) >>> shift;
+
+        // 查询点所在网格及周围8个网格，经度方向跨越±180°时回绕
+        Set<Long> cellStarts = new LinkedHashSet<>();
+        for (long dLat = -1; dLat <= 1; dLat++) {
+            long lat = latCell + dLat;
+            if (lat < 0 || lat >= cells) {
+                continue;
+            }
+            for (long dLng = -1; dLng <= 1; dLng++) {
+                long lng = Math.floorMod(lngCell + dLng, cells);
+                cellStarts.add(interleave(lat << shift, lng << shift));
+            }
+        }
+        long cellSpan = 1L << (2 * shift);
+
+        List<GeoHit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (long start : cellStarts) {
+                for (Point point : points.subSet(probe(start), true, probe(start + cellSpan), false)) {
+                    double distance = distance(latitude, longitude, point.latitude(), point.longitude());
+                    if (distance <= radiusMeters) {
+                        hits.add(new GeoHit(point.id(), distance));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingDouble(GeoHit::getDistance).thenComparing(GeoHit::getId));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * 全量重建索引，重建期间的增量变更在切换前重放
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Collection<GeoEntry> entries = loader.get();
+            NavigableSet<Point> rebuiltPoints = new TreeSet<>(ORDER);
+            Map<Integer, Point> rebuiltById = new HashMap<>(entries.size() * 2);
+            for (GeoEntry entry : entries) {
+                if (entry.getId() != null) {
+                    apply(rebuiltPoints, rebuiltById, entry.getId(),
+                            toPoint(entry.getId(), entry.getLatitude(), entry.getLongitude()));
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach((id, point) -> apply(rebuiltPoints, rebuiltById, id, point));
+                pendingChanges = null;
+                points = rebuiltPoints;
+                byId = rebuiltById;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("地理索引重建完成: {}, 条目: {}, 耗时: {}ms", name, rebuiltById.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 重建失败时保留旧索引，下次定时任务继续重建
+            log.error("地理索引重建失败: {}", name, e);
+        }
+    }
+
+    /**
+     * 两点间的球面距离（米）
+     */
+    public static double distance(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * 在给定的索引结构上新增、更新或删除（point为null）一个条目
+     */
+    private static void apply(NavigableSet<Point> points, Map<Integer, Point> byId, Integer id, Point point) {
+        Point previous = point == null ? byId.remove(id) : byId.put(id, point);
+        if (previous != null) {
+            points.remove(previous);
+        }
+        if (point != null) {
+            points.add(point);
+        }
+    }
+
+    private static Point toPoint(Integer id, Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || !isValid(latitude, longitude)) {
+            return null;
+        }
+        long hash = interleave(quantize(latitude, -90, 90), quantize(longitude, -180, 180));
+        return new Point(hash, id, latitude, longitude);
+    }
+
+    private static boolean isValid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * 选择网格精度：网格的高和宽（按圆覆盖范围内的最高纬度计算）都不小于半径时的最大位数
+     */
+    private static int estimateStep(double radiusMeters, double latitude) {
+        double maxLatitude = Math.min(90, Math.abs(latitude) + radiusMeters / METERS_PER_DEGREE);
+        double cos = Math.cos(Math.toRadians(maxLatitude));
+        int step = MAX_STEP;
+        while (step > 0) {
+            double heightMeters = 180.0 / (1L << step) * METERS_PER_DEGREE;
+            double widthMeters = 360.0 / (1L << step) * METERS_PER_DEGREE * cos;
+            if (heightMeters >= radiusMeters && widthMeters >= radiusMeters) {
+                break;
+            }
+            step--;
+        }
+        return step;
+    }
+
+    private static long quantize(double value, double min, double max) {
+        long cells = 1L << MAX_STEP;
+        long index = (long) ((value - min) / (max - min) * cells);
+        return Math.max(0, Math.min(cells - 1, index));
+    }
+
+    /**
+     * 纬度占偶数位、经度占奇数位
+     */
+    private static long interleave(long latBits, long lngBits) {
+        return spread(latBits) | (spread(lngBits) << 1);
+    }
+
+    private static long spread(long value) {
+        long x = value & 0xFFFFFFFFL;
+        x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+        x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        x = (x | (x << 2)) & 0x3333333333333333L;
+        x = (x | (x << 1)) & 0x5555555555555555L;
+        return x;
+    }
+
+    /**
+     * 区间查询的边界，ID取最小值使同一geohash的点都在边界之后
+     */
+    private static Point probe(long hash) {
+        return new Point(hash, Integer.MIN_VALUE, 0, 0);
+    }
+
+    private record Point(long hash, int id, double latitude, double longitude) {
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * 金额，以分为单位的整数保存
+ * <p>
+ * 替代Double表示的金额：加减、比较都是long运算，不会出现浮点误差累积。
+ * <ul>
+ *     <li>JSON中仍以元为单位的数字读写，如 12.5，与原先Double的格式一致；反序列化同时接受数字和字符串，按分四舍五入</li>
+ *     <li>数据库中仍为 decimal(10,2) 的元，由 MoneyTypeHandler 转换</li>
+ *     <li>请求参数通过 valueOf 从元字符串转换，如 minPrice=12.5</li>
+ * </ul>
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * 按分创建
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * 按元创建，超过两位小数时按分四舍五入
+     */
+    public static Money ofYuan(BigDecimal yuan) {
+        return ofCents(yuan.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    /**
+     * 按元字符串创建，如 "12.5"
+     * @throws NumberFormatException 不是合法的数字
+     */
+    public static Money valueOf(String yuan) {
+        return ofYuan(new BigDecimal(yuan.trim()));
+    }
+
+    /**
+     * 金额（分）
+     */
+    public long cents() {
+        return cents;
+    }
+
+    /**
+     * 金额（元），两位小数
+     */
+    public BigDecimal toYuan() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof Money money && cents == money.cents);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * 以元表示，如 "12.50"，用于日志和CSV导出
+     */
+    @Override
+    public String toString() {
+        return toYuan().toPlainString();
+    }
+
+    /**
+     * 写为以元为单位的数字；分在 2^53 以内时 cents / 100.0 与原先Double的输出一致
+     */
+    public static class Serializer extends JsonSerializer<Money> {
+
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            gen.writeNumber(value.cents / 100.0);
+        }
+    }
+
+    /**
+     * 从以元为单位的数字或字符串读取，按十进制解析，不经过double
+     */
+    public static class Deserializer extends JsonDeserializer<Money> {
+
+        @Override
+        public Money deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return ofYuan(parser.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                String text = parser.getText();
+                if (text.isBlank()) {
+                    return null;
+                }
+                try {
+                    return valueOf(text);
+                } catch (NumberFormatException e) {
+                    return (Money) context.handleWeirdStringValue(Money.class, text, "不是合法的金额");
+                }
+            }
+            return (Money) context.handleUnexpectedToken(Money.class, parser);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.money;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 金额与数据库 decimal(10,2) 元之间的转换
+ * <p>
+ * 通过 mybatis-plus.type-handlers-package 全局注册，实体字段、注解SQL的参数和结果映射都自动使用，无需逐个声明。
+ */
+@MappedTypes(Money.class)
+@MappedJdbcTypes(value = {JdbcType.DECIMAL, JdbcType.NUMERIC}, includeNullJdbcType = true)
+public class MoneyTypeHandler extends BaseTypeHandler<Money> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Money parameter, JdbcType jdbcType) throws SQLException {
+        ps.setBigDecimal(i, parameter.toYuan());
+    }
+
+    @Override
+    public Money getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toMoney(rs.getBigDecimal(columnName));
+    }
+
+    @Override
+    public Money getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toMoney(rs.getBigDecimal(columnIndex));
+    }
+
+    @Override
+    public Money getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toMoney(cs.getBigDecimal(columnIndex));
+    }
+
+    private Money toMoney(BigDecimal yuan) {
+        return yuan == null ? null : Money.ofYuan(yuan);
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索索引条目：实体ID和被检索的名称
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchEntry {
+
+    private Integer id;
+
+    private String text;
+}
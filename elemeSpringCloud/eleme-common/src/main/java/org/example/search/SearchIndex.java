@@ -0,0 +1,311 @@
+package org.example.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * 名称倒排索引
+ * <p>
+ * 在本地内存中维护实体名称到ID的倒排索引，替代 LIKE '%关键字%' 的全表扫描。
+ * <ul>
+ *     <li>名称转小写并去掉空白和标点后切分为单字和相邻二字组，适合没有分词边界的中文名称</li>
+ *     <li>单字查询按单字查找，多字查询按二字组查找；命中二字组比例不低于 MIN_MATCH_RATIO 的条目作为模糊结果返回</li>
+ *     <li>单字的倒排列表可能包含大部分条目，单字查询最多取 SINGLE_CHAR_MAX_CANDIDATES 个候选参与排序</li>
+ *     <li>排序：名称相同 &gt; 以查询开头 &gt; 包含查询 &gt; 模糊匹配，同级按命中数多、名称短、ID小排列</li>
+ *     <li>启动后异步全量加载，加载完成前 isReady 为false，调用方应回退到数据库查询</li>
+ *     <li>增删改时调用put、remove增量更新，并定期全量重建以纠正遗漏的变更</li>
+ * </ul>
+ * 线程安全：查询持读锁，更新持写锁。由各服务按实体声明为Bean。
+ */
+@Slf4j
+public class SearchIndex implements InitializingBean, DisposableBean {
+
+    /**
+     * 模糊匹配至少需要命中的查询二字组比例
+     */
+    private static final double MIN_MATCH_RATIO = 0.6;
+
+    /**
+     * 单字查询参与排序的最大候选数
+     */
+    static final int SINGLE_CHAR_MAX_CANDIDATES = 1000;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int CONTAINS = 2;
+    private static final int FUZZY = 3;
+
+    private final String name;
+
+    private final Supplier<Collection<SearchEntry>> loader;
+
+    private final long rebuildIntervalMinutes;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 词元 → 包含该词元的ID，受lock保护
+     */
+    private Map<String, Set<Integer>> postings = new HashMap<>();
+
+    /**
+     * ID → 规范化后的名称，受lock保护
+     */
+    private Map<Integer, String> texts = new HashMap<>();
+
+    /**
+     * 重建期间的增量变更，值为null表示删除，重建完成后重放，受lock保护
+     */
+    private Map<Integer, String> pendingChanges;
+
+    private volatile boolean ready;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name                   索引名，用于日志和线程名
+     * @param loader                 全量加载索引条目
+     * @param rebuildIntervalMinutes 定期全量重建间隔（分钟）
+     */
+    public SearchIndex(String name, Supplier<Collection<SearchEntry>> loader, long rebuildIntervalMinutes) {
+        this.name = name;
+        this.loader = loader;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "search-index-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 是否已完成首次加载
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * 新增或更新条目，名称为空时视为删除
+     */
+    public void put(Integer id, String text) {
+        if (id == null) {
+            return;
+        }
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            if (pendingChanges != null) {
+                pendingChanges.put(id, normalized.isEmpty() ? null : normalized);
+            }
+            apply(postings, texts, id, normalized.isEmpty() ? null : normalized);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除条目
+     */
+    public void remove(Integer id) {
+        put(id, null);
+    }
+
+    /**
+     * 搜索名称
+     *
+     * @param query 查询关键字
+     * @param limit 最多返回条数
+     * @return 按相关度排序的ID
+     */
+    public List<Integer> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Set<String> queryTokens = queryTokens(normalized);
+        int required = Math.max(1, (int) Math.ceil(queryTokens.size() * MIN_MATCH_RATIO));
+        int maxCandidates = normalized.codePointCount(0, normalized.length()) == 1
+                ? Math.max(limit, SINGLE_CHAR_MAX_CANDIDATES) : Integer.MAX_VALUE;
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> matched = new HashMap<>();
+            for (String token : queryTokens) {
+                Set<Integer> ids = postings.get(token);
+                if (ids != null) {
+                    for (Integer id : ids) {
+                        if (matched.size() >= maxCandidates) {
+                            break;
+                        }
+                        matched.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+            for (Map.Entry<Integer, Integer> entry : matched.entrySet()) {
+                if (entry.getValue() < required) {
+                    continue;
+                }
+                String text = texts.get(entry.getKey());
+                int tier = text.equals(normalized) ? EXACT
+                        : text.startsWith(normalized) ? PREFIX
+                        : text.contains(normalized) ? CONTAINS
+                        : FUZZY;
+                hits.add(new Hit(entry.getKey(), tier, entry.getValue(), text.length()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(Comparator.comparingInt(Hit::tier)
+                .thenComparing(Comparator.comparingInt(Hit::matched).reversed())
+                .thenComparingInt(Hit::length)
+                .thenComparingInt(Hit::id));
+        return hits.stream().limit(limit).map(Hit::id).toList();
+    }
+
+    /**
+     * 全量重建索引，重建期间的增量变更在切换前重放
+     */
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingChanges = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Collection<SearchEntry> entries = loader.get();
+            Map<String, Set<Integer>> rebuiltPostings = new HashMap<>();
+            Map<Integer, String> rebuiltTexts = new HashMap<>(entries.size() * 2);
+            for (SearchEntry entry : entries) {
+                String normalized = normalize(entry.getText());
+                if (entry.getId() != null && !normalized.isEmpty()) {
+                    apply(rebuiltPostings, rebuiltTexts, entry.getId(), normalized);
+                }
+            }
+
+            lock.writeLock().lock();
+            try {
+                pendingChanges.forEach((id, text) -> apply(rebuiltPostings, rebuiltTexts, id, text));
+                pendingChanges = null;
+                postings = rebuiltPostings;
+                texts = rebuiltTexts;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("搜索索引重建完成: {}, 条目: {}, 词元: {}, 耗时: {}ms", name, rebuiltTexts.size(),
+                    rebuiltPostings.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                pendingChanges = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // 重建失败时保留旧索引，下次定时任务继续重建
+            log.error("搜索索引重建失败: {}", name, e);
+        }
+    }
+
+    /**
+     * 在给定的索引结构上新增、更新或删除（text为null）一个条目
+     */
+    private static void apply(Map<String, Set<Integer>> postings, Map<Integer, String> texts, Integer id, String text) {
+        String previous = text == null ? texts.remove(id) : texts.put(id, text);
+        if (previous != null) {
+            if (previous.equals(text)) {
+                return;
+            }
+            for (String token : indexTokens(previous)) {
+                Set<Integer> ids = postings.get(token);
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    postings.remove(token);
+                }
+            }
+        }
+        if (text != null) {
+            for (String token : indexTokens(text)) {
+                postings.computeIfAbsent(token, key -> new HashSet<>()).add(id);
+            }
+        }
+    }
+
+    /**
+     * 规范化：转小写，只保留字母和数字（含汉字）
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder builder = new StringBuilder(lower.length());
+        lower.codePoints().filter(Character::isLetterOrDigit).forEach(builder::appendCodePoint);
+        return builder.toString();
+    }
+
+    /**
+     * 名称的词元：全部单字和相邻二字组
+     */
+    private static Set<String> indexTokens(String text) {
+        int[] codePoints = text.codePoints().toArray();
+        Set<String> tokens = new HashSet<>(codePoints.length * 2);
+        for (int i = 0; i < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 1));
+            if (i + 1 < codePoints.length) {
+                tokens.add(new String(codePoints, i, 2));
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * 查询的词元：单字查询为该字，否则为相邻二字组
+     */
+    private static Set<String> queryTokens(String query) {
+        int[] codePoints = query.codePoints().toArray();
+        if (codePoints.length == 1) {
+            return Set.of(query);
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            tokens.add(new String(codePoints, i, 2));
+        }
+        return tokens;
+    }
+
+    private record Hit(int id, int tier, int matched, int length) {
+    }
+}
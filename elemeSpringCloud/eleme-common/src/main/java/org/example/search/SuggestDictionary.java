@@ -0,0 +1,167 @@
+package org.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 输入提示词典，构建后不可变
+ * <p>
+ * 条目按规范化后的文本排序存放在数组中，前缀对应数组中的一段连续区间，二分查找定位：
+ * <ul>
+ *     <li>一两个字的短前缀区间很大，构建时预先算好每个短前缀权重最高的 topK 条</li>
+ *     <li>更长的前缀区间很小，查询时扫描区间取权重最高的几条</li>
+ * </ul>
+ * 相同文本和类别的条目合并，权重累加。排序：权重高、文本短优先。
+ */
+public final class SuggestDictionary {
+
+    public static final SuggestDictionary EMPTY = build(List.of(), 0);
+
+    /**
+     * 预先计算提示结果的前缀长度上限（字数）
+     */
+    private static final int PRECOMPUTED_PREFIX_LENGTH = 2;
+
+    /**
+     * 排序键：规范化文本 + '\0' + 类别，规范化文本不含'\0'，同一前缀的条目保持连续
+     */
+    private final String[] keys;
+
+    private final Suggestion[] entries;
+
+    private final Map<String, int[]> topByPrefix;
+
+    private final int topK;
+
+    private final Comparator<Integer> ranking;
+
+    private SuggestDictionary(String[] keys, Suggestion[] entries, int topK) {
+        this.keys = keys;
+        this.entries = entries;
+        this.topK = topK;
+        this.ranking = Comparator.<Integer>comparingLong(i -> entries[i].getWeight()).reversed()
+                .thenComparingInt(i -> keys[i].length())
+                .thenComparing(i -> keys[i]);
+        this.topByPrefix = precompute();
+    }
+
+    /**
+     * 构建词典
+     *
+     * @param suggestions 提示条目，文本规范化后为空的忽略
+     * @param topK        每个前缀最多返回的条数
+     */
+    public static SuggestDictionary build(Collection<Suggestion> suggestions, int topK) {
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            String normalized = SearchIndex.normalize(suggestion.getText());
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            merged.merge(normalized + '\0' + suggestion.getCategory(),
+                    new Suggestion(suggestion.getText().trim(), suggestion.getCategory(), suggestion.getWeight()),
+                    (a, b) -> new Suggestion(a.getText(), a.getCategory(), a.getWeight() + b.getWeight()));
+        }
+        String[] keys = merged.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        Suggestion[] entries = new Suggestion[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            entries[i] = merged.get(keys[i]);
+        }
+        return new SuggestDictionary(keys, entries, topK);
+    }
+
+    /**
+     * 条目数
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    /**
+     * 按前缀查询提示
+     *
+     * @param prefix 用户已输入的内容
+     * @param limit  最多返回条数，不超过topK
+     */
+    public List<Suggestion> lookup(String prefix, int limit) {
+        String normalized = SearchIndex.normalize(prefix);
+        int count = Math.min(limit, topK);
+        if (normalized.isEmpty() || count <= 0) {
+            return List.of();
+        }
+
+        int[] top = topByPrefix.get(normalized);
+        if (top != null) {
+            List<Suggestion> result = new ArrayList<>(Math.min(count, top.length));
+            for (int i = 0; i < top.length && i < count; i++) {
+                result.add(entries[top[i]]);
+            }
+            return result;
+        }
+        if (normalized.codePointCount(0, normalized.length()) <= PRECOMPUTED_PREFIX_LENGTH) {
+            // 短前缀均已预先计算，查不到说明没有匹配
+            return List.of();
+        }
+
+        int from = lowerBound(normalized);
+        int to = lowerBound(normalized + Character.MAX_VALUE);
+        // 小顶堆保留权重最高的count条
+        PriorityQueue<Integer> heap = new PriorityQueue<>(count + 1, ranking.reversed());
+        for (int i = from; i < to; i++) {
+            heap.offer(i);
+            if (heap.size() > count) {
+                heap.poll();
+            }
+        }
+        List<Integer> indexes = new ArrayList<>(heap);
+        indexes.sort(ranking);
+        List<Suggestion> result = new ArrayList<>(indexes.size());
+        indexes.forEach(i -> result.add(entries[i]));
+        return result;
+    }
+
+    /**
+     * 为所有短前缀计算权重最高的topK条
+     */
+    private Map<String, int[]> precompute() {
+        Map<String, List<Integer>> candidates = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            String text = keys[i].substring(0, keys[i].indexOf('\0'));
+            int length = text.codePointCount(0, text.length());
+            for (int n = 1; n <= Math.min(PRECOMPUTED_PREFIX_LENGTH, length); n++) {
+                candidates.computeIfAbsent(text.substring(0, text.offsetByCodePoints(0, n)), k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> result = new HashMap<>(candidates.size() * 2);
+        candidates.forEach((prefix, indexes) -> {
+            indexes.sort(ranking);
+            result.put(prefix, indexes.stream().limit(topK).mapToInt(Integer::intValue).toArray());
+        });
+        return result;
+    }
+
+    /**
+     * 第一个不小于target的键的位置
+     */
+    private int lowerBound(String target) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(target) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
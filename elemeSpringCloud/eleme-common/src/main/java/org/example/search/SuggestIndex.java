@@ -0,0 +1,104 @@
+package org.example.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 输入提示索引
+ * <p>
+ * 后台定时全量加载提示条目并构建新的SuggestDictionary，构建完成后整体替换，查询始终读取完整的词典，不访问数据库。
+ * 首次加载完成前返回空结果；重建失败时继续使用旧词典。由各服务按需要声明为Bean。
+ */
+@Slf4j
+public class SuggestIndex implements InitializingBean, DisposableBean {
+
+    /**
+     * 销量中的整数，最多取12位，避免累加溢出
+     */
+    private static final Pattern NUMBER_PATTERN = Pattern.compile("\\d{1,12}");
+
+    private final String name;
+
+    private final Supplier<Collection<Suggestion>> loader;
+
+    private final int topK;
+
+    private final long rebuildIntervalMinutes;
+
+    private volatile SuggestDictionary dictionary = SuggestDictionary.EMPTY;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param name                   索引名，用于日志和线程名
+     * @param loader                 全量加载提示条目
+     * @param topK                   每个前缀最多返回的条数
+     * @param rebuildIntervalMinutes 定期重建间隔（分钟）
+     */
+    public SuggestIndex(String name, Supplier<Collection<Suggestion>> loader, int topK, long rebuildIntervalMinutes) {
+        this.name = name;
+        this.loader = loader;
+        this.topK = topK;
+        this.rebuildIntervalMinutes = rebuildIntervalMinutes;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "suggest-index-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuild, 0, rebuildIntervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void destroy() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 按前缀查询提示
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return dictionary.lookup(prefix, limit);
+    }
+
+    /**
+     * 全量重建词典
+     */
+    public void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            SuggestDictionary rebuilt = SuggestDictionary.build(loader.get(), topK);
+            dictionary = rebuilt;
+            log.info("输入提示索引重建完成: {}, 条目: {}, 耗时: {}ms", name, rebuilt.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("输入提示索引重建失败: {}", name, e);
+        }
+    }
+
+    /**
+     * 从销量文本（如「月售345单」「1000+」）中取第一个整数作为权重，没有数字时为0
+     */
+    public static long parseWeight(String sales) {
+        if (sales == null) {
+            return 0;
+        }
+        Matcher matcher = NUMBER_PATTERN.matcher(sales);
+        return matcher.find() ? Long.parseLong(matcher.group()) : 0;
+    }
+}
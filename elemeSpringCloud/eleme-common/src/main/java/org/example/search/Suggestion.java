@@ -0,0 +1,37 @@
+package org.example.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * 输入提示条目
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Suggestion implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String CATEGORY_FOOD = "FOOD";
+    public static final String CATEGORY_BUSINESS = "BUSINESS";
+    public static final String CATEGORY_TYPE = "TYPE";
+
+    /**
+     * 提示文本
+     */
+    private String text;
+
+    /**
+     * 类别：商品名、商家名或商家分类
+     */
+    private String category;
+
+    /**
+     * 权重（销量），同名条目累加
+     */
+    private long weight;
+}
@@ -0,0 +1,119 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CacheServiceTest {
+
+    private static final String KEY = "food:1";
+
+    private static final String CHANNEL = "eleme:channel:cache:invalidate:eleme-food-service";
+
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private ValueOperations<String, Object> valueOperations;
+
+    private CacheService cacheService;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ObjectProvider<RedisMessageListenerContainer> containerProvider = mock(ObjectProvider.class);
+        cacheService = new CacheService(redisTemplate, containerProvider);
+        ReflectionTestUtils.setField(cacheService, "applicationName", "eleme-food-service");
+        ReflectionTestUtils.setField(cacheService, "localCacheEnabled", true);
+        ReflectionTestUtils.setField(cacheService, "localCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(cacheService, "localCacheTtlSeconds", 60L);
+        ReflectionTestUtils.setField(cacheService, "localCacheNamespaces", "");
+        cacheService.init();
+        callers = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void getRacingDeleteDoesNotRestoreStaleValue() throws Exception {
+        CountDownLatch read = new CountDownLatch(1);
+        CountDownLatch deleted = new CountDownLatch(1);
+        when(valueOperations.get(KEY))
+                .thenAnswer(invocation -> {
+                    // 读到旧值后暂停，等待另一个线程完成删除
+                    read.countDown();
+                    assertTrue(deleted.await(1, TimeUnit.SECONDS));
+                    return "stale";
+                })
+                .thenReturn(null);
+
+        Future<Object> racing = callers.submit(() -> cacheService.get(KEY));
+        assertTrue(read.await(1, TimeUnit.SECONDS));
+        cacheService.delete(KEY);
+        deleted.countDown();
+
+        assertEquals("stale", racing.get(1, TimeUnit.SECONDS));
+        assertNull(cacheService.get(KEY));
+        verify(valueOperations, times(2)).get(KEY);
+    }
+
+    @Test
+    void getWithoutConcurrentInvalidationIsServedLocally() {
+        when(valueOperations.get(KEY)).thenReturn("value");
+
+        assertEquals("value", cacheService.get(KEY));
+        assertEquals("value", cacheService.get(KEY));
+
+        verify(valueOperations, times(1)).get(KEY);
+    }
+
+    @Test
+    void setPublishesInvalidationForLocalKeys() {
+        cacheService.set(KEY, "value");
+
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).convertAndSend(eq(CHANNEL), message.capture());
+        CacheService.InvalidationMessage invalidation = (CacheService.InvalidationMessage) message.getValue();
+        assertEquals(List.of(KEY), invalidation.getKeys());
+        assertEquals("value", cacheService.get(KEY));
+        verify(valueOperations, never()).get(KEY);
+    }
+
+    @Test
+    void setOfRedisOnlyKeyPublishesNothing() {
+        cacheService.set("rate_limit:1", 1, 10, TimeUnit.SECONDS);
+
+        verify(redisTemplate, never()).convertAndSend(anyString(), any());
+    }
+}
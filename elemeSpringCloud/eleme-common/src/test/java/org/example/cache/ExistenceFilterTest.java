@@ -0,0 +1,116 @@
+package org.example.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ExistenceFilterTest {
+
+    private final List<Integer> ids = new ArrayList<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AtomicInteger maxIdQueries = new AtomicInteger();
+
+    private final AtomicLong maxId = new AtomicLong(1000);
+
+    private ExistenceFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        for (int id = 1; id <= 1000; id++) {
+            ids.add(id);
+        }
+        filter = new ExistenceFilter("food", 1000, 0.001, true, () -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(ids);
+        }, () -> {
+            maxIdQueries.incrementAndGet();
+            return maxId.get();
+        }, mock(RedisTemplate.class), mock(RedisMessageListenerContainer.class), 60);
+    }
+
+    @Test
+    void everyIdMightExistBeforeFirstLoad() {
+        assertTrue(filter.mightExist(123_456));
+    }
+
+    @Test
+    void unknownIdsAreRejectedAfterLoad() {
+        filter.rebuild();
+
+        assertTrue(filter.mightExist(500));
+        assertFalse(filter.mightExist(-1));
+        assertFalse(filter.mightExist(null));
+    }
+
+    @Test
+    void newIdsUpToCurrentMaxIdMightExist() {
+        filter.rebuild();
+
+        // 其他节点刚新增、广播尚未到达的ID，不超过表中当前最大ID时放行
+        maxId.set(1005);
+        assertTrue(filter.mightExist(1005));
+        assertTrue(filter.mightExist(1003));
+        assertEquals(1, maxIdQueries.get());
+
+        // 超过当前最大ID的ID判定为不存在，一秒内不再重复查询
+        assertFalse(filter.mightExist(1_000_000));
+        assertFalse(filter.mightExist(2_000_000));
+        assertEquals(1, maxIdQueries.get());
+    }
+
+    @Test
+    void broadcastIdsAboveMaxIdMightExist() {
+        filter.rebuild();
+        ReflectionTestUtils.invokeMethod(filter, "addLocal", "1001");
+
+        assertTrue(filter.mightExist(1001));
+        assertEquals(0, maxIdQueries.get());
+    }
+
+    @Test
+    void removedIdsStayUntilPeriodicRebuild() {
+        rebuildIfNecessary();
+        assertEquals(1, loads.get());
+
+        // 删除不触发重建，已删除的ID在定期重建前仍判定为可能存在
+        ids.remove(Integer.valueOf(500));
+        rebuildIfNecessary();
+        assertEquals(1, loads.get());
+        assertTrue(filter.mightExist(500));
+
+        filter.rebuild();
+        assertFalse(filter.mightExist(500));
+        assertTrue(filter.mightExist(499));
+    }
+
+    @Test
+    void failedLoadKeepsEveryIdPossible() {
+        ExistenceFilter failing = new ExistenceFilter("food", 1000, 0.001, true, () -> {
+            throw new IllegalStateException("db down");
+        }, null, null, null, 60);
+
+        failing.rebuild();
+
+        // 加载失败时不会把任何ID判定为不存在
+        assertTrue(failing.mightExist(500));
+    }
+
+    private void rebuildIfNecessary() {
+        ReflectionTestUtils.invokeMethod(filter, "rebuildIfNecessary");
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.cache;
+
+import org.example.lock.DistributedLock;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReadThroughCacheTest {
+
+    private static final String KEY = "food:1";
+
+    private CacheService cacheService;
+
+    private ReadThroughCache cache;
+
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = mock(CacheService.class);
+        cache = new ReadThroughCache(cacheService, mock(DistributedLock.class));
+        ReflectionTestUtils.setField(cache, "beta", 1.0);
+        ReflectionTestUtils.setField(cache, "leaseMillis", 200L);
+        ReflectionTestUtils.setField(cache, "waitMillis", 100L);
+        ReflectionTestUtils.setField(cache, "refreshThreads", 1);
+        ReflectionTestUtils.setField(cache, "refreshQueueCapacity", 10);
+        cache.afterPropertiesSet();
+        callers = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        cache.destroy();
+    }
+
+    @Test
+    void concurrentMissesLoadOnce() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(() -> cache.get(KEY, 10, TimeUnit.MINUTES, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "value";
+            })));
+        }
+        Thread.sleep(50);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(1, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        verify(cacheService).set(eq(KEY), any(CacheEnvelope.class), eq(10L), eq(TimeUnit.MINUTES));
+    }
+
+    @Test
+    void waiterTakesOverStuckLeaderAndCaches() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        callers.submit(() -> cache.get(KEY, 10, TimeUnit.MINUTES, () -> {
+            await(stuck);
+            return "stale";
+        }));
+        Thread.sleep(50);
+
+        AtomicInteger loads = new AtomicInteger();
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            waiters.add(callers.submit(() -> cache.get(KEY, 10, TimeUnit.MINUTES, () -> {
+                loads.incrementAndGet();
+                return "fresh";
+            })));
+        }
+
+        for (Future<String> waiter : waiters) {
+            assertEquals("fresh", waiter.get(2, TimeUnit.SECONDS));
+        }
+        // 只有一个等待线程接替回源，结果写入缓存
+        assertEquals(1, loads.get());
+        ArgumentCaptor<CacheEnvelope> stored = ArgumentCaptor.forClass(CacheEnvelope.class);
+        verify(cacheService).set(eq(KEY), stored.capture(), eq(10L), eq(TimeUnit.MINUTES));
+        assertEquals("fresh", stored.getValue().getValue());
+        stuck.countDown();
+    }
+
+    @Test
+    void earlyRefreshRunsInBackgroundAndReturnsOldValue() throws Exception {
+        when(cacheService.get(KEY)).thenReturn(new CacheEnvelope("old", 10, System.currentTimeMillis() - 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        String value = cache.get(KEY, 10, TimeUnit.MINUTES, () -> {
+            started.countDown();
+            await(release);
+            return "new";
+        });
+
+        assertEquals("old", value);
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+        release.countDown();
+        ArgumentCaptor<CacheEnvelope> stored = ArgumentCaptor.forClass(CacheEnvelope.class);
+        verify(cacheService, timeout(1000)).set(eq(KEY), stored.capture(), eq(10L), eq(TimeUnit.MINUTES));
+        assertEquals("new", stored.getValue().getValue());
+    }
+
+    @Test
+    void earlyRefreshDoesNotBlockMissWaiters() throws Exception {
+        String refreshKey = "food:2";
+        when(cacheService.get(refreshKey)).thenReturn(new CacheEnvelope("old", 10, System.currentTimeMillis() - 1));
+        CountDownLatch release = new CountDownLatch(1);
+        cache.get(refreshKey, 10, TimeUnit.MINUTES, () -> {
+            await(release);
+            return "new";
+        });
+
+        // 另一个键的未命中回源不受正在进行的提前刷新影响，也不会拿到null
+        assertEquals("value", cache.get(KEY, 10, TimeUnit.MINUTES, () -> "value"));
+
+        // 同一个键在刷新期间未命中时自行回源，不会等到提前刷新的结果
+        when(cacheService.get(refreshKey)).thenReturn(null);
+        assertEquals("loaded", cache.get(refreshKey, 10, TimeUnit.MINUTES, () -> "loaded"));
+        release.countDown();
+    }
+
+    @Test
+    void failedEarlyRefreshKeepsOldValue() {
+        when(cacheService.get(KEY)).thenReturn(new CacheEnvelope("old", 10, System.currentTimeMillis() - 1));
+
+        String value = cache.get(KEY, 10, TimeUnit.MINUTES, () -> {
+            throw new IllegalStateException("db down");
+        });
+
+        assertEquals("old", value);
+        verify(cacheService, after(200).never()).set(eq(KEY), any(), anyLong(), any());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
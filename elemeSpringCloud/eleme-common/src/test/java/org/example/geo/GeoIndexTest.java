@@ -0,0 +1,155 @@
+package org.example.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoIndexTest {
+
+    @Test
+    void nearbyMatchesBruteForceAcrossRadii() {
+        Random random = new Random(7);
+        List<GeoEntry> entries = new ArrayList<>();
+        // 集中在一个城市范围内的点，外加少量全球分布的点
+        for (int i = 1; i <= 5000; i++) {
+            entries.add(new GeoEntry(i, 31.0 + random.nextDouble() * 0.5, 121.2 + random.nextDouble() * 0.5));
+        }
+        for (int i = 5001; i <= 6000; i++) {
+            entries.add(new GeoEntry(i, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+        }
+        GeoIndex index = loaded(entries);
+
+        for (int q = 0; q < 200; q++) {
+            double latitude = 31.0 + random.nextDouble() * 0.5;
+            double longitude = 121.2 + random.nextDouble() * 0.5;
+            double radius = new double[]{50, 300, 1000, 5000, 30000}[q % 5];
+            assertEquals(bruteForce(entries, latitude, longitude, radius, 50),
+                    ids(index.nearby(latitude, longitude, radius, 50)), latitude + "," + longitude + " r=" + radius);
+        }
+        for (int q = 0; q < 100; q++) {
+            double latitude = random.nextDouble() * 180 - 90;
+            double longitude = random.nextDouble() * 360 - 180;
+            double radius = 500_000 + random.nextDouble() * 2_000_000;
+            assertEquals(bruteForce(entries, latitude, longitude, radius, 100),
+                    ids(index.nearby(latitude, longitude, radius, 100)), latitude + "," + longitude + " r=" + radius);
+        }
+    }
+
+    @Test
+    void wrapsAcrossAntimeridian() {
+        List<GeoEntry> entries = List.of(
+                new GeoEntry(1, -17.0, 179.99),
+                new GeoEntry(2, -17.0, -179.99),
+                new GeoEntry(3, -17.0, 180.0),
+                new GeoEntry(4, -17.0, -180.0),
+                new GeoEntry(5, -17.0, 178.0));
+        GeoIndex index = loaded(entries);
+
+        // 东西两侧的查询点都能找到另一侧约1公里外的点
+        assertEquals(Set.of(1, 2, 3, 4), Set.copyOf(ids(index.nearby(-17.0, 179.999, 5000, 10))));
+        assertEquals(bruteForce(entries, -17.0, 179.999, 5000, 10), ids(index.nearby(-17.0, 179.999, 5000, 10)));
+        assertEquals(bruteForce(entries, -17.0, -179.995, 5000, 10), ids(index.nearby(-17.0, -179.995, 5000, 10)));
+        assertTrue(ids(index.nearby(-17.0, -179.995, 5000, 10)).contains(1));
+        assertFalse(ids(index.nearby(-17.0, -179.995, 5000, 10)).contains(5));
+    }
+
+    @Test
+    void coversPolarQueries() {
+        List<GeoEntry> entries = List.of(
+                new GeoEntry(1, 89.99, 0.0),
+                new GeoEntry(2, 89.99, 180.0),
+                new GeoEntry(3, 89.99, -90.0),
+                new GeoEntry(4, 89.0, 45.0));
+        GeoIndex index = loaded(entries);
+
+        assertEquals(bruteForce(entries, 89.995, 90.0, 5000, 10), ids(index.nearby(89.995, 90.0, 5000, 10)));
+        assertEquals(3, index.nearby(89.995, 90.0, 5000, 10).size());
+    }
+
+    @Test
+    void returnsDistancesInAscendingOrderWithinLimit() {
+        GeoIndex index = loaded(List.of(
+                new GeoEntry(1, 31.2300, 121.4700),
+                new GeoEntry(2, 31.2310, 121.4700),
+                new GeoEntry(3, 31.2400, 121.4700)));
+
+        List<GeoHit> hits = index.nearby(31.2300, 121.4700, 2000, 2);
+
+        assertEquals(List.of(1, 2), ids(hits));
+        assertEquals(0, hits.get(0).getDistance(), 0.001);
+        assertEquals(111, hits.get(1).getDistance(), 1);
+    }
+
+    @Test
+    void rejectsInvalidQueries() {
+        GeoIndex index = loaded(List.of(new GeoEntry(1, 31.23, 121.47)));
+
+        assertEquals(List.of(), index.nearby(91, 121.47, 1000, 10));
+        assertEquals(List.of(), index.nearby(31.23, 181, 1000, 10));
+        assertEquals(List.of(), index.nearby(31.23, 121.47, 0, 10));
+        assertEquals(List.of(), index.nearby(31.23, 121.47, 1000, 0));
+    }
+
+    @Test
+    void incrementalUpdatesAndInvalidCoordinates() {
+        GeoIndex index = loaded(List.of(new GeoEntry(1, 31.23, 121.47), new GeoEntry(2, 31.23, 121.47)));
+
+        index.put(1, 39.90, 116.40);
+        index.remove(2);
+        index.put(3, 31.23, 121.47);
+        index.put(4, null, 121.47);
+        index.put(5, 95.0, 121.47);
+
+        assertEquals(List.of(3), ids(index.nearby(31.23, 121.47, 1000, 10)));
+        assertEquals(List.of(1), ids(index.nearby(39.90, 116.40, 1000, 10)));
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileLoading() {
+        AtomicReference<GeoIndex> holder = new AtomicReference<>();
+        GeoIndex index = new GeoIndex("test", () -> {
+            holder.get().put(1, 39.90, 116.40);
+            holder.get().remove(2);
+            holder.get().put(3, 31.23, 121.47);
+            return List.of(new GeoEntry(1, 31.23, 121.47), new GeoEntry(2, 31.23, 121.47));
+        }, 60);
+        holder.set(index);
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(3), ids(index.nearby(31.23, 121.47, 1000, 10)));
+        assertEquals(List.of(1), ids(index.nearby(39.90, 116.40, 1000, 10)));
+    }
+
+    private static GeoIndex loaded(List<GeoEntry> entries) {
+        GeoIndex index = new GeoIndex("test", () -> entries, 60);
+        index.rebuild();
+        return index;
+    }
+
+    private static List<Integer> bruteForce(List<GeoEntry> entries, double latitude, double longitude,
+                                            double radius, int limit) {
+        return entries.stream()
+                .map(entry -> new GeoHit(entry.getId(),
+                        GeoIndex.distance(latitude, longitude, entry.getLatitude(), entry.getLongitude())))
+                .filter(hit -> hit.getDistance() <= radius)
+                .sorted(Comparator.comparingDouble(GeoHit::getDistance).thenComparing(GeoHit::getId))
+                .limit(limit)
+                .map(GeoHit::getId)
+                .toList();
+    }
+
+    private static List<Integer> ids(List<GeoHit> hits) {
+        return hits.stream().map(GeoHit::getId).toList();
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.example.config.RedisConfig;
+import org.example.entity.Food;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void arithmeticIsExactInCents() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.valueOf("0.1"));
+        }
+        assertEquals(Money.valueOf("1.00"), total);
+        assertEquals(Money.valueOf("0.30"), Money.valueOf("0.1").plus(Money.valueOf("0.2")));
+        assertEquals(Money.valueOf("-0.50"), Money.valueOf("1.00").minus(Money.valueOf("1.50")));
+        assertTrue(Money.valueOf("1.00").minus(Money.valueOf("1.50")).isNegative());
+        assertEquals(Money.valueOf("37.50"), Money.valueOf("12.5").times(3));
+    }
+
+    @Test
+    void arithmeticOverflowFails() {
+        Money max = Money.ofCents(Long.MAX_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> max.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> max.times(2));
+    }
+
+    @Test
+    void yuanRoundsHalfUpToCents() {
+        assertEquals(1235, Money.valueOf("12.345").cents());
+        assertEquals(1234, Money.valueOf("12.344").cents());
+        assertEquals(1, Money.valueOf("0.005").cents());
+        assertEquals(-1, Money.valueOf("-0.005").cents());
+        assertEquals(1250, Money.valueOf(" 12.5 ").cents());
+        assertThrows(NumberFormatException.class, () -> Money.valueOf("12元"));
+    }
+
+    @Test
+    void zeroIsShared() {
+        assertSame(Money.ZERO, Money.ofCents(0));
+        assertSame(Money.ZERO, Money.valueOf("0.00"));
+    }
+
+    @Test
+    void formatsAsYuanWithTwoDecimals() {
+        assertEquals("12.50", Money.ofCents(1250).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals(new BigDecimal("12.50"), Money.ofCents(1250).toYuan());
+    }
+
+    @Test
+    void jsonWritesYuanNumberLikeDouble() throws Exception {
+        assertEquals("12.5", objectMapper.writeValueAsString(Money.ofCents(1250)));
+        assertEquals("0.3", objectMapper.writeValueAsString(Money.valueOf("0.1").plus(Money.valueOf("0.2"))));
+        assertEquals("0.0", objectMapper.writeValueAsString(Money.ZERO));
+    }
+
+    @Test
+    void jsonReadsNumbersAndStringsWithoutDoubleRounding() throws Exception {
+        assertEquals(Money.ofCents(1250), objectMapper.readValue("12.5", Money.class));
+        assertEquals(Money.ofCents(1200), objectMapper.readValue("12", Money.class));
+        assertEquals(Money.ofCents(1235), objectMapper.readValue("12.345", Money.class));
+        assertEquals(Money.ofCents(1250), objectMapper.readValue("\"12.5\"", Money.class));
+        assertNull(objectMapper.readValue("\" \"", Money.class));
+        assertNull(objectMapper.readValue("null", Money.class));
+        assertThrows(InvalidFormatException.class, () -> objectMapper.readValue("\"abc\"", Money.class));
+    }
+
+    @Test
+    void jsonRoundTrip() throws Exception {
+        for (long cents : new long[]{0, 1, 5, 99, 1250, -1999, 12_345_678_901L}) {
+            Money money = Money.ofCents(cents);
+            assertEquals(money, objectMapper.readValue(objectMapper.writeValueAsString(money), Money.class));
+        }
+    }
+
+    @Test
+    void redisSerializerRoundTripsEntityWithMoney() {
+        ObjectMapper redisObjectMapper = ReflectionTestUtils.invokeMethod(new RedisConfig(), "createRedisObjectMapper");
+        GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(redisObjectMapper);
+        Food food = new Food();
+        food.setId(1);
+        food.setRedPrice(Money.valueOf("19.90"));
+        food.setDiscount("满30减5");
+
+        Object restored = serializer.deserialize(serializer.serialize(new ArrayList<>(List.of(food))));
+
+        assertTrue(restored instanceof List<?> list && list.get(0) instanceof Food);
+        assertEquals(Money.valueOf("19.90"), ((Food) ((List<?>) restored).get(0)).getRedPrice());
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.money;
+
+import org.apache.ibatis.type.JdbcType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MoneyTypeHandlerTest {
+
+    private final MoneyTypeHandler handler = new MoneyTypeHandler();
+
+    @Test
+    void writesYuanWithTwoDecimals() throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+
+        handler.setParameter(ps, 1, Money.ofCents(1250), JdbcType.DECIMAL);
+        handler.setParameter(ps, 2, Money.ofCents(-5), null);
+
+        verify(ps).setBigDecimal(1, new BigDecimal("12.50"));
+        verify(ps).setBigDecimal(2, new BigDecimal("-0.05"));
+    }
+
+    @Test
+    void writesNull() throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+
+        handler.setParameter(ps, 1, null, JdbcType.DECIMAL);
+
+        verify(ps).setNull(1, JdbcType.DECIMAL.TYPE_CODE);
+    }
+
+    @Test
+    void readsDecimalColumns() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getBigDecimal("price")).thenReturn(new BigDecimal("19.90"));
+        when(rs.getBigDecimal(2)).thenReturn(new BigDecimal("0.10"));
+        CallableStatement cs = mock(CallableStatement.class);
+        when(cs.getBigDecimal(1)).thenReturn(new BigDecimal("3"));
+
+        assertEquals(Money.ofCents(1990), handler.getResult(rs, "price"));
+        assertEquals(Money.ofCents(10), handler.getResult(rs, 2));
+        assertEquals(Money.ofCents(300), handler.getResult(cs, 1));
+    }
+
+    @Test
+    void readsNullAsNull() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+
+        assertNull(handler.getResult(rs, "price"));
+        assertNull(handler.getResult(rs, 1));
+    }
+
+    @Test
+    void roundTripsThroughDecimalColumn() throws Exception {
+        for (long cents : new long[]{0, 1, 99, 1250, 99_999_999}) {
+            PreparedStatement ps = mock(PreparedStatement.class);
+            handler.setParameter(ps, 1, Money.ofCents(cents), JdbcType.DECIMAL);
+            BigDecimal stored = Money.ofCents(cents).toYuan();
+            verify(ps).setBigDecimal(1, stored);
+
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getBigDecimal(1)).thenReturn(stored);
+            assertEquals(Money.ofCents(cents), handler.getResult(rs, 1));
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SearchIndexTest {
+
+    @Test
+    void ranksExactThenPrefixThenContains() {
+        SearchIndex index = loaded(List.of(
+                new SearchEntry(1, "宫保鸡丁"),
+                new SearchEntry(2, "鸡丁"),
+                new SearchEntry(3, "鸡丁盖饭"),
+                new SearchEntry(4, "香辣鸡丁"),
+                new SearchEntry(5, "鸡肉丁")));
+
+        assertEquals(List.of(2, 3, 1, 4), index.search("鸡丁", 10));
+        assertEquals(List.of(2, 3), index.search("鸡丁", 2));
+    }
+
+    @Test
+    void fuzzyMatchNeedsMostQueryBigrams() {
+        SearchIndex index = loaded(List.of(
+                new SearchEntry(1, "宫保鸡丁"),
+                new SearchEntry(2, "鸡丁")));
+
+        // 「宫保鸡丁饭」的4个二字组中「宫保鸡丁」命中3个，「鸡丁」只命中1个
+        assertEquals(List.of(1), index.search("宫保鸡丁饭", 10));
+        assertEquals(List.of(), index.search("麻婆豆腐", 10));
+    }
+
+    @Test
+    void normalizesCaseWhitespaceAndPunctuation() {
+        SearchIndex index = loaded(List.of(new SearchEntry(1, "Coca-Cola 可乐")));
+
+        assertEquals(List.of(1), index.search("COCA cola", 10));
+        assertEquals(List.of(), index.search(" - ", 10));
+    }
+
+    @Test
+    void singleCharacterQueryCapsCandidates() {
+        int total = SearchIndex.SINGLE_CHAR_MAX_CANDIDATES * 3;
+        List<SearchEntry> entries = new ArrayList<>();
+        for (int i = 1; i <= total; i++) {
+            entries.add(new SearchEntry(i, "鸡丁" + i));
+        }
+        SearchIndex index = loaded(entries);
+
+        // 参与排序的候选不超过上限，条数较少时取的是同一批候选的前几条
+        List<Integer> candidates = index.search("鸡", SearchIndex.SINGLE_CHAR_MAX_CANDIDATES);
+        assertEquals(SearchIndex.SINGLE_CHAR_MAX_CANDIDATES, candidates.size());
+        assertEquals(candidates.subList(0, 10), index.search("鸡", 10));
+        // 请求条数超过上限时以请求条数为准
+        assertEquals(total - 1, index.search("鸡", total - 1).size());
+        // 多字查询不受限制
+        assertEquals(total, index.search("鸡丁", Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void incrementalUpdates() {
+        SearchIndex index = loaded(List.of(new SearchEntry(1, "鸡丁"), new SearchEntry(2, "牛肉面")));
+
+        index.put(1, "鸭血粉丝");
+        index.remove(2);
+        index.put(3, "牛肉饭");
+
+        assertEquals(List.of(), index.search("鸡丁", 10));
+        assertEquals(List.of(1), index.search("鸭血", 10));
+        assertEquals(List.of(3), index.search("牛肉", 10));
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeWhileLoading() {
+        AtomicReference<SearchIndex> holder = new AtomicReference<>();
+        SearchIndex index = new SearchIndex("test", () -> {
+            // 加载期间发生的增量变更：数据库快照里仍是旧数据
+            holder.get().put(1, "新名称");
+            holder.get().remove(2);
+            holder.get().put(3, "新增商品");
+            return List.of(new SearchEntry(1, "旧名称"), new SearchEntry(2, "已删除"));
+        }, 60);
+        holder.set(index);
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertEquals(List.of(1), index.search("新名称", 10));
+        assertEquals(List.of(), index.search("旧名称", 10));
+        assertEquals(List.of(), index.search("已删除", 10));
+        assertEquals(List.of(3), index.search("新增", 10));
+    }
+
+    @Test
+    void failedRebuildKeepsPreviousIndex() {
+        AtomicReference<Supplier<Collection<SearchEntry>>> loader =
+                new AtomicReference<>(() -> List.of(new SearchEntry(1, "鸡丁")));
+        SearchIndex index = new SearchIndex("test", () -> loader.get().get(), 60);
+        index.rebuild();
+
+        loader.set(() -> {
+            throw new IllegalStateException("db down");
+        });
+        index.rebuild();
+        // 失败的重建不再记录增量变更
+        index.put(2, "鸡丁饭");
+
+        assertEquals(List.of(1, 2), index.search("鸡丁", 10));
+    }
+
+    @Test
+    void notReadyBeforeFirstLoad() {
+        SearchIndex index = new SearchIndex("test", List::of, 60);
+
+        assertFalse(index.isReady());
+        assertEquals(List.of(), index.search("鸡", 10));
+    }
+
+    private static SearchIndex loaded(List<SearchEntry> entries) {
+        SearchIndex index = new SearchIndex("test", () -> entries, 60);
+        index.rebuild();
+        return index;
+    }
+}
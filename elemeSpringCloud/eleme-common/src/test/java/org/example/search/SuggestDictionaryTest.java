@@ -0,0 +1,122 @@
+package org.example.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SuggestDictionaryTest {
+
+    private static final String ALPHABET = "鸡丁牛肉面饭汤Ab";
+
+    private static final String[] CATEGORIES = {
+            Suggestion.CATEGORY_FOOD, Suggestion.CATEGORY_BUSINESS, Suggestion.CATEGORY_TYPE};
+
+    private static final int TOP_K = 8;
+
+    @Test
+    void precomputedAndScannedPrefixesMatchBruteForce() {
+        Random random = new Random(42);
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            StringBuilder text = new StringBuilder();
+            int length = 1 + random.nextInt(5);
+            for (int j = 0; j < length; j++) {
+                text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            suggestions.add(new Suggestion(text.toString(), CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    random.nextInt(100)));
+        }
+        SuggestDictionary dictionary = SuggestDictionary.build(suggestions, TOP_K);
+        List<Suggestion> merged = merge(suggestions);
+
+        // 一两个字的前缀走预先计算的结果，三个字及以上扫描区间
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (Suggestion suggestion : merged) {
+            String normalized = SearchIndex.normalize(suggestion.getText());
+            for (int n = 1; n <= normalized.length(); n++) {
+                prefixes.add(normalized.substring(0, n));
+            }
+        }
+        prefixes.add("不存在");
+        prefixes.add("汤汤汤汤汤汤");
+        for (String prefix : prefixes) {
+            for (int limit : new int[]{1, 3, TOP_K}) {
+                assertEquals(bruteForce(merged, prefix, limit), dictionary.lookup(prefix, limit), prefix + " " + limit);
+            }
+        }
+    }
+
+    @Test
+    void mergesSameTextAndCategory() {
+        SuggestDictionary dictionary = SuggestDictionary.build(List.of(
+                new Suggestion("鸡丁饭", Suggestion.CATEGORY_FOOD, 10),
+                new Suggestion(" 鸡丁饭 ", Suggestion.CATEGORY_FOOD, 15),
+                new Suggestion("鸡丁饭", Suggestion.CATEGORY_BUSINESS, 20),
+                new Suggestion("鸡丁", Suggestion.CATEGORY_FOOD, 20),
+                new Suggestion("!!", Suggestion.CATEGORY_FOOD, 99)), TOP_K);
+
+        assertEquals(3, dictionary.size());
+        assertEquals(List.of(
+                new Suggestion("鸡丁饭", Suggestion.CATEGORY_FOOD, 25),
+                new Suggestion("鸡丁", Suggestion.CATEGORY_FOOD, 20),
+                new Suggestion("鸡丁饭", Suggestion.CATEGORY_BUSINESS, 20)), dictionary.lookup("鸡", TOP_K));
+    }
+
+    @Test
+    void limitIsCappedByTopKAndBlankPrefixReturnsNothing() {
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            suggestions.add(new Suggestion("牛肉面" + i, Suggestion.CATEGORY_FOOD, i));
+        }
+        SuggestDictionary dictionary = SuggestDictionary.build(suggestions, TOP_K);
+
+        assertEquals(TOP_K, dictionary.lookup("牛", 100).size());
+        assertEquals(TOP_K, dictionary.lookup("牛肉面", 100).size());
+        assertEquals(List.of(), dictionary.lookup(" ", 5));
+        assertEquals(List.of(), dictionary.lookup("牛", 0));
+        assertEquals(List.of(), SuggestDictionary.EMPTY.lookup("牛", 5));
+    }
+
+    /**
+     * 与构建词典相同的合并规则：规范化文本和类别相同的条目权重累加，保留第一条的文本
+     */
+    private static List<Suggestion> merge(List<Suggestion> suggestions) {
+        Map<String, Suggestion> merged = new LinkedHashMap<>();
+        for (Suggestion suggestion : suggestions) {
+            String normalized = SearchIndex.normalize(suggestion.getText());
+            if (!normalized.isEmpty()) {
+                merged.merge(normalized + '\0' + suggestion.getCategory(),
+                        new Suggestion(suggestion.getText().trim(), suggestion.getCategory(), suggestion.getWeight()),
+                        (a, b) -> new Suggestion(a.getText(), a.getCategory(), a.getWeight() + b.getWeight()));
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    /**
+     * 逐条比较前缀，按权重高、文本短、文本和类别字典序排列
+     */
+    private static List<Suggestion> bruteForce(List<Suggestion> merged, String prefix, int limit) {
+        String normalizedPrefix = SearchIndex.normalize(prefix);
+        return merged.stream()
+                .filter(s -> SearchIndex.normalize(s.getText()).startsWith(normalizedPrefix))
+                .sorted(Comparator.comparingLong(Suggestion::getWeight).reversed()
+                        .thenComparing(SuggestDictionaryTest::key, Comparator.comparingInt(String::length)
+                                .thenComparing(Comparator.naturalOrder())))
+                .limit(Math.min(limit, TOP_K))
+                .toList();
+    }
+
+    private static String key(Suggestion suggestion) {
+        return SearchIndex.normalize(suggestion.getText()) + '\0' + suggestion.getCategory();
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.config;
+
+import org.example.backfill.RangeBackfill;
+import org.example.lock.DistributedLock;
+import org.example.mapper.FoodMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 回填任务配置
+ * 商品的销量、原价数值影子列启动后分批回填，之后定期校准；通过接口新增、修改商品时同步更新
+ */
+@Configuration
+public class BackfillConfig {
+
+    @Bean
+    public RangeBackfill foodNumericColumnBackfill(
+            FoodMapper foodMapper,
+            DistributedLock distributedLock,
+            @Value("${eleme.backfill.food.batch-size:1000}") int batchSize,
+            @Value("${eleme.backfill.food.pause-millis:50}") long pauseMillis,
+            @Value("${eleme.backfill.food.interval-minutes:60}") long intervalMinutes) {
+        return new RangeBackfill("food-numeric", foodMapper::findMaxId, foodMapper::syncNumericColumns,
+                distributedLock, batchSize, pauseMillis, intervalMinutes);
+    }
+}
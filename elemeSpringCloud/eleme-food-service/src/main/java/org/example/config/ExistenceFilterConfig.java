@@ -0,0 +1,28 @@
+package org.example.config;
+
+import org.example.cache.ExistenceFilter;
+import org.example.mapper.FoodMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 存在性过滤器配置
+ * 商品查询前先经过布隆过滤器，一定不存在的商品直接返回，不访问Redis和数据库
+ */
+@Configuration
+public class ExistenceFilterConfig {
+
+    @Bean
+    public ExistenceFilter foodExistenceFilter(
+            FoodMapper foodMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            @Value("${eleme.existence-filter.food.expected-insertions:100000}") long expectedInsertions,
+            @Value("${eleme.existence-filter.food.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        return new ExistenceFilter("food", expectedInsertions, 0.01, true,
+                foodMapper::findAllIds, foodMapper::findMaxId, redisTemplate, redisMessageListenerContainer, rebuildIntervalMinutes);
+    }
+}
@@ -0,0 +1,37 @@
+package org.example.config;
+
+import org.example.mapper.FoodMapper;
+import org.example.search.SearchIndex;
+import org.example.search.SuggestIndex;
+import org.example.search.Suggestion;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.stream.Collectors;
+
+/**
+ * 搜索索引配置
+ * 商品名称搜索走本地倒排索引，输入提示走本地前缀词典，只包含上架商品
+ */
+@Configuration
+public class SearchIndexConfig {
+
+    @Bean
+    public SearchIndex foodSearchIndex(
+            FoodMapper foodMapper,
+            @Value("${eleme.search.food.rebuild-interval-minutes:30}") long rebuildIntervalMinutes) {
+        return new SearchIndex("food", foodMapper::findSearchEntries, rebuildIntervalMinutes);
+    }
+
+    @Bean
+    public SuggestIndex foodSuggestIndex(
+            FoodMapper foodMapper,
+            @Value("${eleme.search.food.suggest-top-k:20}") int topK,
+            @Value("${eleme.search.food.suggest-rebuild-interval-minutes:10}") long rebuildIntervalMinutes) {
+        // 同名商品的销量累加，作为提示排序的权重
+        return new SuggestIndex("food", () -> foodMapper.findSuggestSources().stream()
+                .map(food -> new Suggestion(food.getName(), Suggestion.CATEGORY_FOOD, SuggestIndex.parseWeight(food.getAmount())))
+                .collect(Collectors.toList()), topK, rebuildIntervalMinutes);
+    }
+}
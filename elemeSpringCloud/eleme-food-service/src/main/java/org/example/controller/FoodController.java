@@ -6,12 +6,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.R;
 import org.example.entity.Food;
+import org.example.leaderboard.HotWindow;
+import org.example.money.Money;
+import org.example.search.Suggestion;
 import org.example.service.FoodService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
@@ -100,26 +104,42 @@ public class FoodController {
     }
 
     @GetMapping("/search")
-    @Operation(summary = "搜索商品", description = "根据商品名称关键词搜索商品")
+    @Operation(summary = "搜索商品", description = "根据商品名称关键词搜索上架商品，按名称相同、前缀、包含、模糊匹配的顺序排列")
     public R<List<Food>> searchFoodsByName(
             @Parameter(description = "搜索关键词", required = true) 
-            @RequestParam @NotNull @Size(min = 1, max = 50) String name) {
+            @RequestParam @NotNull @Size(min = 1, max = 50) String name,
+            @Parameter(description = "最多返回条数")
+            @RequestParam(defaultValue = "50") @Min(1) @Max(200) Integer limit) {
         
         log.info("搜索商品: {}", name);
-        List<Food> foods = foodService.searchFoodsByName(name);
+        List<Food> foods = foodService.searchFoodsByName(name, limit);
         return R.success(foods);
     }
 
+    @GetMapping("/suggest")
+    @Operation(summary = "商品输入提示", description = "根据已输入的前缀返回商品名称提示，按销量排序，供搜索框逐字调用")
+    public R<List<Suggestion>> suggestFoodNames(
+            @Parameter(description = "已输入的内容", required = true)
+            @RequestParam @NotNull @Size(min = 1, max = 50) String prefix,
+            @Parameter(description = "最多返回条数")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(20) Integer limit) {
+
+        return R.success(foodService.suggestFoodNames(prefix, limit));
+    }
+
     @GetMapping("/price-range")
     @Operation(summary = "价格区间查询", description = "根据价格区间查询商品")
     public R<List<Food>> getFoodsByPriceRange(
             @Parameter(description = "最低价格", required = true) 
-            @RequestParam @NotNull @Min(0) Double minPrice,
+            @RequestParam @NotNull Money minPrice,
             @Parameter(description = "最高价格", required = true) 
-            @RequestParam @NotNull @Min(0) Double maxPrice) {
+            @RequestParam @NotNull Money maxPrice) {
         
         log.info("价格区间查询商品: {}-{}", minPrice, maxPrice);
-        if (minPrice > maxPrice) {
+        if (minPrice.isNegative() || maxPrice.isNegative()) {
+            return R.error("价格不能为负数");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
             return R.error("最低价格不能大于最高价格");
         }
         List<Food> foods = foodService.getFoodsByPriceRange(minPrice, maxPrice);
@@ -127,13 +147,15 @@ public class FoodController {
     }
 
     @GetMapping("/hot")
-    @Operation(summary = "查询热门商品", description = "查询热门商品，按销量排序")
+    @Operation(summary = "查询热门商品", description = "查询热门商品，按销量排序，可按最近一小时或最近一天统计")
     public R<List<Food>> getHotFoods(
             @Parameter(description = "限制数量", required = false) 
-            @RequestParam(defaultValue = "10") @Min(1) Integer limit) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(200) Integer limit,
+            @Parameter(description = "统计窗口(all/hour/day)")
+            @RequestParam(defaultValue = "all") String window) {
         
-        log.info("查询热门商品: {}", limit);
-        List<Food> foods = foodService.getHotFoods(limit);
+        log.info("查询热门商品: {}-{}", limit, window);
+        List<Food> foods = foodService.getHotFoods(limit, HotWindow.of(window));
         return R.success(foods);
     }
 
@@ -143,10 +165,12 @@ public class FoodController {
             @Parameter(description = "商家ID", required = true) 
             @PathVariable @NotNull @Min(1) Integer businessId,
             @Parameter(description = "限制数量", required = false) 
-            @RequestParam(defaultValue = "10") @Min(1) Integer limit) {
+            @RequestParam(defaultValue = "10") @Min(1) @Max(20) Integer limit,
+            @Parameter(description = "统计窗口(all/hour/day)")
+            @RequestParam(defaultValue = "all") String window) {
         
-        log.info("查询商家热门商品: {}-{}", businessId, limit);
-        List<Food> foods = foodService.getHotFoodsByBusinessId(businessId, limit);
+        log.info("查询商家热门商品: {}-{}-{}", businessId, limit, window);
+        List<Food> foods = foodService.getHotFoodsByBusinessId(businessId, limit, HotWindow.of(window));
         return R.success(foods);
     }
 
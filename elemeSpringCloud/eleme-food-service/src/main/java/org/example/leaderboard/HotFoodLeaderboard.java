@@ -0,0 +1,457 @@
+package org.example.leaderboard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.constants.CommonConstants;
+import org.example.dto.FoodSalesEvent;
+import org.example.dto.OrderChangeEvent;
+import org.example.entity.Food;
+import org.example.entity.OrderItem;
+import org.example.entity.OrderOutbox;
+import org.example.lock.DistributedLock;
+import org.example.mapper.FoodMapper;
+import org.example.mapper.FoodSalesMapper;
+import org.example.search.SuggestIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 商品热销榜
+ * <p>
+ * 在Redis有序集合中按商品累计销量，分全站和商家两个范围：
+ * <ul>
+ *     <li>增量：定时按事件ID顺序拉取订单服务发件箱（order_outbox）中的支付事件和订单明细，
+ *     用Lua脚本一次性累加累计榜和当前小时榜，已处理到的事件ID作为高水位持久化在Redis中；
+ *     商品服务停机期间的支付在恢复后从高水位继续累加，不会丢失，需在发件箱保留时长内恢复</li>
+ *     <li>顺序：事件ID在插入时分配、在提交后可见，只处理创建时间早于 数据库当前时间 - 沉淀时长 的事件，
+ *     遇到未沉淀的事件即停止，避免高水位越过尚未提交的较小ID</li>
+ *     <li>去重：每个事件按事件ID去重，累加后、推进高水位前宕机重新拉取只累加一次</li>
+ *     <li>基线：首次启动时以商品表的销量字段初始化累计榜，之后只做增量；每个商品的基线按已初始化集合去重，
+ *     初始化中断后重新执行不会重复累加</li>
+ *     <li>窗口：最近一小时、最近一天的榜单由小时榜按权重合并得到，合并结果按分钟缓存</li>
+ *     <li>初始化完成前榜单不完整，查询方回退到数据库排序</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class HotFoodLeaderboard {
+
+    private static final String KEY_PREFIX = "food:rank:";
+
+    /**
+     * 全站累计榜
+     */
+    private static final String GLOBAL_KEY = KEY_PREFIX + "all";
+
+    /**
+     * 初始化完成标记
+     */
+    private static final String READY_KEY = KEY_PREFIX + "ready";
+
+    private static final String SEED_LOCK_KEY = KEY_PREFIX + "seed";
+
+    /**
+     * 已处理到的发件箱事件ID
+     */
+    private static final String HIGH_WATER_MARK_KEY = KEY_PREFIX + "hwm";
+
+    private static final String PULL_LOCK_KEY = KEY_PREFIX + "pull";
+
+    private static final int MAX_PULL_BATCHES_PER_RUN = 20;
+
+    private static final String APPLIED_KEY_PREFIX = KEY_PREFIX + "applied:";
+
+    /**
+     * 已累加基线的商品ID集合
+     */
+    private static final String SEEDED_KEY = KEY_PREFIX + "seeded";
+
+    private static final long READY_CHECK_INTERVAL_MILLIS = 60_000L;
+
+    private static final long HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * 小时榜保留时长，需覆盖最长的统计窗口
+     */
+    private static final long BUCKET_TTL_SECONDS = TimeUnit.HOURS.toSeconds(25);
+
+    /**
+     * 事件去重标记保留时长，需大于发件箱的重试时长
+     */
+    private static final long APPLIED_TTL_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    /**
+     * 窗口合并结果缓存时长
+     */
+    private static final long WINDOW_TTL_SECONDS = 60;
+
+    private static final int DAY_BUCKETS = 24;
+
+    /**
+     * 最近一天窗口的半衰期（小时）
+     */
+    private static final double DAY_HALF_LIFE_HOURS = 6.0;
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    /**
+     * KEYS: 去重标记, 全站累计榜, 全站小时榜, 商家累计榜, 商家小时榜
+     * ARGV: 去重标记过期秒数, 小时榜过期秒数, 之后依次为商品ID和数量
+     */
+    private static final String APPLY_SCRIPT =
+            "if not redis.call('SET', KEYS[1], 1, 'NX', 'EX', ARGV[1]) then return 0 end " +
+            "for i = 3, #ARGV, 2 do " +
+            "  redis.call('ZINCRBY', KEYS[2], ARGV[i + 1], ARGV[i]) " +
+            "  redis.call('ZINCRBY', KEYS[3], ARGV[i + 1], ARGV[i]) " +
+            "  redis.call('ZINCRBY', KEYS[4], ARGV[i + 1], ARGV[i]) " +
+            "  redis.call('ZINCRBY', KEYS[5], ARGV[i + 1], ARGV[i]) " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[2]) " +
+            "redis.call('EXPIRE', KEYS[5], ARGV[2]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> APPLY = new DefaultRedisScript<>(APPLY_SCRIPT, Long.class);
+
+    /**
+     * KEYS: 已初始化集合, 全站累计榜, 商家累计榜（可选）
+     * ARGV: 商品ID, 基线销量
+     */
+    private static final String SEED_SCRIPT =
+            "if redis.call('SADD', KEYS[1], ARGV[1]) == 0 then return 0 end " +
+            "redis.call('ZINCRBY', KEYS[2], ARGV[2], ARGV[1]) " +
+            "if KEYS[3] then redis.call('ZINCRBY', KEYS[3], ARGV[2], ARGV[1]) end " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> SEED = new DefaultRedisScript<>(SEED_SCRIPT, Long.class);
+
+    /**
+     * KEYS: 高水位
+     * ARGV: 新的事件ID，只增不减
+     */
+    private static final String ADVANCE_SCRIPT =
+            "local current = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "if tonumber(ARGV[1]) <= current then return 0 end " +
+            "redis.call('SET', KEYS[1], ARGV[1]) " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> ADVANCE = new DefaultRedisScript<>(ADVANCE_SCRIPT, Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private FoodMapper foodMapper;
+
+    @Autowired
+    private FoodSalesMapper foodSalesMapper;
+
+    @Autowired
+    private DistributedLock distributedLock;
+
+    @Value("${eleme.food.leaderboard.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 每批拉取的发件箱事件数
+     */
+    @Value("${eleme.food.leaderboard.pull-batch-size:500}")
+    private int pullBatchSize;
+
+    /**
+     * 事件沉淀时长（秒），应大于下单、支付事务的最长耗时
+     */
+    @Value("${eleme.food.leaderboard.settle-seconds:10}")
+    private long settleSeconds;
+
+    private volatile boolean ready;
+
+    private volatile long readyCheckedAt;
+
+    /**
+     * 从高水位继续拉取发件箱事件，累加已支付订单的销量；多个节点由分布式锁保证同一时间只有一个在拉取
+     */
+    @Scheduled(initialDelayString = "${eleme.food.leaderboard.pull-initial-delay-millis:5000}",
+            fixedDelayString = "${eleme.food.leaderboard.pull-interval-millis:1000}")
+    public void pull() {
+        if (!enabled) {
+            return;
+        }
+        DistributedLock.LockInfo lock = distributedLock.tryLock(PULL_LOCK_KEY, 1, TimeUnit.MINUTES);
+        if (lock == null) {
+            return;
+        }
+        try {
+            long afterId = highWaterMark();
+            for (int i = 0; i < MAX_PULL_BATCHES_PER_RUN; i++) {
+                List<OrderOutbox> events = foodSalesMapper.findEventsAfter(afterId, pullBatchSize);
+                if (events.isEmpty()) {
+                    return;
+                }
+                LocalDateTime settledBefore = foodSalesMapper.selectNow().minusSeconds(settleSeconds);
+                List<OrderOutbox> settled = new ArrayList<>();
+                for (OrderOutbox event : events) {
+                    if (event.getCreatedAt() == null || event.getCreatedAt().isAfter(settledBefore)) {
+                        break;
+                    }
+                    settled.add(event);
+                }
+                if (settled.isEmpty()) {
+                    return;
+                }
+                applyPaid(settled);
+                afterId = settled.get(settled.size() - 1).getId();
+                redisTemplate.execute(ADVANCE, List.of(HIGH_WATER_MARK_KEY), afterId);
+                if (settled.size() < events.size() || events.size() < pullBatchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("拉取商品销量事件失败", e);
+        } finally {
+            distributedLock.unlock(lock);
+        }
+    }
+
+    /**
+     * 读取高水位，首次消费时从当前最大事件ID开始，之前的销量由初始化基线覆盖
+     */
+    private long highWaterMark() {
+        Object value = redisTemplate.opsForValue().get(HIGH_WATER_MARK_KEY);
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        Long maxId = foodSalesMapper.findMaxEventId();
+        redisTemplate.opsForValue().setIfAbsent(HIGH_WATER_MARK_KEY, maxId != null ? maxId : 0L);
+        value = redisTemplate.opsForValue().get(HIGH_WATER_MARK_KEY);
+        log.info("商品热销榜开始消费订单事件: {}", value);
+        return value instanceof Number number ? number.longValue() : 0L;
+    }
+
+    /**
+     * 一次查询整批支付事件对应订单的明细并逐个累加，没有明细的旧订单不计入
+     */
+    private void applyPaid(List<OrderOutbox> events) {
+        List<OrderOutbox> paid = events.stream()
+                .filter(event -> OrderChangeEvent.TYPE_STATE_CHANGED.equals(event.getEventType()))
+                .filter(event -> event.getToState() != null && event.getToState() == CommonConstants.ORDER_STATUS_PAID)
+                .collect(Collectors.toList());
+        if (paid.isEmpty()) {
+            return;
+        }
+        List<Integer> orderIds = paid.stream().map(OrderOutbox::getOrderId).distinct().collect(Collectors.toList());
+        Map<Integer, List<OrderItem>> items = foodSalesMapper.findItemsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItem::getOrderId));
+        for (OrderOutbox event : paid) {
+            List<OrderItem> orderItems = items.get(event.getOrderId());
+            if (orderItems == null) {
+                continue;
+            }
+            List<FoodSalesEvent.Item> salesItems = orderItems.stream()
+                    .map(item -> new FoodSalesEvent.Item(item.getFoodId(), item.getQuantity()))
+                    .collect(Collectors.toList());
+            apply(new FoodSalesEvent(event.getId(), event.getOrderId(), event.getBusinessId(), salesItems,
+                    event.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+    }
+
+    /**
+     * 累加一个订单的销量，同一事件只累加一次
+     */
+    public void apply(FoodSalesEvent event) {
+        if (event.getEventId() == null || event.getItems() == null || event.getItems().isEmpty()) {
+            return;
+        }
+        long timestamp = event.getTimestamp() != null ? event.getTimestamp() : System.currentTimeMillis();
+        long hour = Math.floorDiv(timestamp, HOUR_MILLIS);
+        String businessKey = businessKey(event.getBusinessId());
+
+        List<String> keys = List.of(APPLIED_KEY_PREFIX + event.getEventId(),
+                GLOBAL_KEY, hourKey(GLOBAL_KEY, hour), businessKey, hourKey(businessKey, hour));
+        List<Object> args = new ArrayList<>();
+        args.add(APPLIED_TTL_SECONDS);
+        args.add(BUCKET_TTL_SECONDS);
+        for (FoodSalesEvent.Item item : event.getItems()) {
+            if (item.getFoodId() != null && item.getQuantity() != null && item.getQuantity() > 0) {
+                args.add(item.getFoodId());
+                args.add(item.getQuantity());
+            }
+        }
+        if (args.size() == 2) {
+            return;
+        }
+        Long applied = redisTemplate.execute(APPLY, keys, args.toArray());
+        if (applied == null || applied == 0L) {
+            log.debug("商品销量事件已处理过: {}", event.getEventId());
+        }
+    }
+
+    /**
+     * 查询全站热销商品ID，按销量降序
+     */
+    public List<Integer> top(HotWindow window, int limit) {
+        return top(GLOBAL_KEY, "all", window, limit);
+    }
+
+    /**
+     * 查询商家热销商品ID，按销量降序
+     */
+    public List<Integer> topByBusiness(Integer businessId, HotWindow window, int limit) {
+        return top(businessKey(businessId), "business:" + businessId, window, limit);
+    }
+
+    private List<Integer> top(String baseKey, String scope, HotWindow window, int limit) {
+        String key = window == HotWindow.ALL ? baseKey : windowKey(baseKey, scope, window);
+        Set<Object> members = redisTemplate.opsForZSet().reverseRange(key, 0, limit - 1L);
+        List<Integer> ids = new ArrayList<>();
+        if (members != null) {
+            for (Object member : members) {
+                ids.add(member instanceof Number number ? number.intValue() : Integer.valueOf(member.toString()));
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * 按权重合并小时榜，同一分钟内的查询复用合并结果
+     */
+    private String windowKey(String baseKey, String scope, HotWindow window) {
+        long now = System.currentTimeMillis();
+        String key = KEY_PREFIX + "window:" + scope + ":" + window.name().toLowerCase(Locale.ROOT) + ":"
+                + TimeUnit.MILLISECONDS.toMinutes(now);
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(key))) {
+            return key;
+        }
+
+        long hour = Math.floorDiv(now, HOUR_MILLIS);
+        List<String> buckets = new ArrayList<>();
+        List<Double> weights = new ArrayList<>();
+        if (window == HotWindow.HOUR) {
+            // 滑动窗口：上一小时按尚未滑出窗口的比例计入
+            double elapsed = (double) Math.floorMod(now, HOUR_MILLIS) / HOUR_MILLIS;
+            buckets.add(hourKey(baseKey, hour));
+            weights.add(1.0);
+            buckets.add(hourKey(baseKey, hour - 1));
+            weights.add(1.0 - elapsed);
+        } else {
+            for (int i = 0; i < DAY_BUCKETS; i++) {
+                buckets.add(hourKey(baseKey, hour - i));
+                weights.add(Math.pow(0.5, i / DAY_HALF_LIFE_HOURS));
+            }
+        }
+
+        ZSetOperations<String, Object> zSet = redisTemplate.opsForZSet();
+        zSet.unionAndStore(buckets.get(0), buckets.subList(1, buckets.size()), key, Aggregate.SUM,
+                Weights.of(weights.stream().mapToDouble(Double::doubleValue).toArray()));
+        redisTemplate.expire(key, WINDOW_TTL_SECONDS, TimeUnit.SECONDS);
+        return key;
+    }
+
+    /**
+     * 商品删除后移出累计榜，小时榜到期自动清除
+     */
+    public void remove(Integer foodId, Integer businessId) {
+        if (foodId == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(GLOBAL_KEY, foodId);
+            if (businessId != null) {
+                redisTemplate.opsForZSet().remove(businessKey(businessId), foodId);
+            }
+        } catch (Exception e) {
+            log.error("移出热销榜失败: {}", foodId, e);
+        }
+    }
+
+    /**
+     * 榜单是否已完成初始化
+     */
+    public boolean isReady() {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        if (now - readyCheckedAt >= READY_CHECK_INTERVAL_MILLIS) {
+            ready = Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY));
+            readyCheckedAt = now;
+        }
+        return ready;
+    }
+
+    /**
+     * 以商品表的销量字段初始化累计榜，只在初始化标记不存在时执行
+     * <p>
+     * 初始化前已累加的增量保留，基线在其上累加；每个商品的基线只累加一次，中途失败或锁过期后重新执行是安全的。
+     */
+    @Scheduled(initialDelayString = "${eleme.food.leaderboard.seed-initial-delay-millis:15000}",
+            fixedDelayString = "${eleme.food.leaderboard.seed-interval-millis:600000}")
+    public void seed() {
+        if (!enabled || Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY))) {
+            return;
+        }
+        DistributedLock.LockInfo lock = distributedLock.tryLock(SEED_LOCK_KEY, 30, TimeUnit.MINUTES);
+        if (lock == null) {
+            return;
+        }
+        try {
+            // 抢到锁后再确认一次，避免其他节点刚完成初始化
+            if (Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY))) {
+                return;
+            }
+            long start = System.currentTimeMillis();
+            List<Food> foods = foodMapper.findRankSources();
+            for (int from = 0; from < foods.size(); from += SEED_BATCH_SIZE) {
+                List<Food> batch = foods.subList(from, Math.min(from + SEED_BATCH_SIZE, foods.size()));
+                redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <K, V> Object execute(RedisOperations<K, V> operations) {
+                        RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                        for (Food food : batch) {
+                            long baseline = SuggestIndex.parseWeight(food.getAmount());
+                            List<String> keys = food.getBusiness() != null
+                                    ? List.of(SEEDED_KEY, GLOBAL_KEY, businessKey(food.getBusiness()))
+                                    : List.of(SEEDED_KEY, GLOBAL_KEY);
+                            redisOperations.execute(SEED, keys, food.getId(), baseline);
+                        }
+                        return null;
+                    }
+                });
+            }
+            redisTemplate.opsForValue().set(READY_KEY, "1");
+            ready = true;
+            readyCheckedAt = System.currentTimeMillis();
+            log.info("商品热销榜初始化完成: {} 个商品, 耗时: {}ms", foods.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("商品热销榜初始化失败", e);
+        } finally {
+            distributedLock.unlock(lock);
+        }
+    }
+
+    private static String businessKey(Integer businessId) {
+        return KEY_PREFIX + "business:" + businessId;
+    }
+
+    private static String hourKey(String baseKey, long hour) {
+        return baseKey + ":hour:" + hour;
+    }
+}
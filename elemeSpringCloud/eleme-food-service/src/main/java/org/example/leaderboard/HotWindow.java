@@ -0,0 +1,38 @@
+package org.example.leaderboard;
+
+import java.util.Locale;
+
+/**
+ * 热销榜统计窗口
+ */
+public enum HotWindow {
+
+    /**
+     * 累计销量，以商品表销量为基线
+     */
+    ALL,
+
+    /**
+     * 最近一小时，按滑动窗口合并当前小时和上一小时的销量
+     */
+    HOUR,
+
+    /**
+     * 最近一天，按小时衰减，越早的销量权重越低
+     */
+    DAY;
+
+    /**
+     * 按名称解析统计窗口，不区分大小写
+     */
+    public static HotWindow of(String name) {
+        if (name == null || name.isBlank()) {
+            return ALL;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的统计窗口: " + name);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.listener;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.constants.CommonConstants;
+import org.example.dto.FoodChangeEvent;
+import org.example.entity.Food;
+import org.example.mapper.FoodMapper;
+import org.example.search.SearchIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品搜索索引增量更新
+ * 本节点变更商品后直接调用apply，其他节点的变更通过食物变更频道收到后更新
+ */
+@Slf4j
+@Component
+public class FoodSearchIndexListener implements MessageListener {
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private SearchIndex foodSearchIndex;
+
+    @Autowired
+    private FoodMapper foodMapper;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.FOOD_CHANGE_CHANNEL));
+        log.info("已订阅商品搜索索引更新频道");
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof FoodChangeEvent event) {
+                apply(event);
+            } else {
+                log.warn("无法识别的商品变更消息: {}", payload);
+            }
+        } catch (Exception e) {
+            log.error("处理商品搜索索引更新失败", e);
+        }
+    }
+
+    /**
+     * 按变更事件更新索引：删除、下架时移除；其他变更以数据库为准，上架商品写入索引
+     */
+    public void apply(FoodChangeEvent event) {
+        Integer foodId = event.getFoodId();
+        if (foodId == null) {
+            return;
+        }
+        if (FoodChangeEvent.TYPE_DELETED.equals(event.getType()) || FoodChangeEvent.TYPE_OFF_SALE.equals(event.getType())) {
+            foodSearchIndex.remove(foodId);
+            return;
+        }
+        Food food = foodMapper.selectById(foodId);
+        if (food != null && Integer.valueOf(1).equals(food.getSelling())) {
+            foodSearchIndex.put(foodId, food.getName());
+        } else {
+            foodSearchIndex.remove(foodId);
+        }
+    }
+}
@@ -3,7 +3,10 @@ package org.example.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 import org.example.entity.Food;
+import org.example.money.Money;
+import org.example.search.SearchEntry;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +15,12 @@ import java.util.List;
 @Repository
 public interface FoodMapper extends BaseMapper<Food> {
 
+    /**
+     * 从文本字段解析数值影子列：取第一个数值，截断到列的精度，没有数值时为NULL
+     */
+    String AMOUNT_NUM = "CAST(REGEXP_SUBSTR(amount, '[0-9]{1,9}') AS UNSIGNED)";
+    String GRAY_PRICE_NUM = "CAST(REGEXP_SUBSTR(gray_price, '[0-9]{1,8}([.][0-9]{1,2})?') AS DECIMAL(10,2))";
+
     /**
      * 根据商家ID查询所有商品
      * @param businessId 商家ID
@@ -59,14 +68,14 @@ public interface FoodMapper extends BaseMapper<Food> {
      * @return 商品列表
      */
     @Select("SELECT * FROM food WHERE red_price >= #{minPrice} AND red_price <= #{maxPrice} AND selling = 1")
-    List<Food> findFoodsByPriceRange(Double minPrice, Double maxPrice);
+    List<Food> findFoodsByPriceRange(Money minPrice, Money maxPrice);
 
     /**
      * 查询热门商品（按销量排序）
      * @param limit 限制数量
      * @return 热门商品列表
      */
-    @Select("SELECT * FROM food WHERE selling = 1 ORDER BY CAST(amount AS UNSIGNED) DESC LIMIT #{limit}")
+    @Select("SELECT * FROM food WHERE selling = 1 ORDER BY amount_num DESC LIMIT #{limit}")
     List<Food> findHotFoods(Integer limit);
 
     /**
@@ -75,7 +84,7 @@ public interface FoodMapper extends BaseMapper<Food> {
      * @param limit 限制数量
      * @return 热门商品列表
      */
-    @Select("SELECT * FROM food WHERE business = #{businessId} AND selling = 1 ORDER BY CAST(amount AS UNSIGNED) DESC LIMIT #{limit}")
+    @Select("SELECT * FROM food WHERE business = #{businessId} AND selling = 1 ORDER BY amount_num DESC LIMIT #{limit}")
     List<Food> findHotFoodsByBusiness(Integer businessId, Integer limit);
 
     /**
@@ -105,4 +114,50 @@ public interface FoodMapper extends BaseMapper<Food> {
             "</foreach>" +
             "</script>")
     List<Food> findFoodsByIds(List<Integer> ids);
-} 
\ No newline at end of file
+
+    /**
+     * 查询全部商品ID，用于构建存在性过滤器
+     * @return 商品ID列表
+     */
+    @Select("SELECT id FROM food")
+    List<Integer> findAllIds();
+
+    /**
+     * 查询全部上架商品的名称，用于构建搜索索引
+     * @return 搜索条目列表
+     */
+    @Select("SELECT id, name AS text FROM food WHERE selling = 1")
+    List<SearchEntry> findSearchEntries();
+
+    /**
+     * 查询全部上架商品的名称和销量，用于构建输入提示
+     * @return 只包含名称和销量的商品列表
+     */
+    @Select("SELECT name, amount FROM food WHERE selling = 1")
+    List<Food> findSuggestSources();
+
+    /**
+     * 查询全部商品的商家和销量，用于初始化热销榜
+     * @return 只包含ID、商家ID和销量的商品列表
+     */
+    @Select("SELECT id, business, amount FROM food")
+    List<Food> findRankSources();
+
+    /**
+     * 查询最大商品ID，用于分批回填和存在性过滤器放行新增商品
+     * @return 最大ID，表为空时为null
+     */
+    @Select("SELECT MAX(id) FROM food")
+    Long findMaxId();
+
+    /**
+     * 按文本字段重算ID区间内的数值影子列，只改写结果不一致的行
+     * @param fromId 起始ID（含）
+     * @param toId 结束ID（含）
+     * @return 改写行数
+     */
+    @Update("UPDATE food SET amount_num = " + AMOUNT_NUM + ", gray_price_num = " + GRAY_PRICE_NUM + " " +
+            "WHERE id BETWEEN #{fromId} AND #{toId} " +
+            "AND NOT (amount_num <=> " + AMOUNT_NUM + " AND gray_price_num <=> " + GRAY_PRICE_NUM + ")")
+    int syncNumericColumns(Long fromId, Long toId);
+}
@@ -0,0 +1,54 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.entity.OrderItem;
+import org.example.entity.OrderOutbox;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 热销榜增量来源：按事件ID顺序读取订单服务写入的发件箱事件和订单明细，只读
+ */
+@Mapper
+@Repository
+public interface FoodSalesMapper {
+
+    /**
+     * 按主键顺序读取ID大于afterId的订单事件，只读取累加销量所需的列
+     * @param afterId 已处理到的事件ID
+     * @param limit 查询条数
+     * @return 事件列表，按ID升序
+     */
+    @Select("SELECT id, order_id, business_id, event_type, to_state, created_at FROM order_outbox " +
+            "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<OrderOutbox> findEventsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 查询最大事件ID，热销榜首次消费时从这里开始
+     * @return 最大ID，表为空时为null
+     */
+    @Select("SELECT MAX(id) FROM order_outbox")
+    Long findMaxEventId();
+
+    /**
+     * 批量查询订单明细，只读取商品ID和数量
+     * @param orderIds 订单ID列表
+     * @return 明细列表
+     */
+    @Select("<script>" +
+            "SELECT order_id, food_id, quantity FROM order_item WHERE order_id IN " +
+            "<foreach collection='orderIds' item='orderId' open='(' separator=',' close=')'>#{orderId}</foreach>" +
+            "</script>")
+    List<OrderItem> findItemsByOrderIds(@Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 查询数据库当前时间，与事件的created_at使用同一时钟
+     * @return 数据库当前时间
+     */
+    @Select("SELECT NOW()")
+    LocalDateTime selectNow();
+}
@@ -1,6 +1,9 @@
 package org.example.service;
 
 import org.example.entity.Food;
+import org.example.leaderboard.HotWindow;
+import org.example.money.Money;
+import org.example.search.Suggestion;
 
 import java.util.List;
 
@@ -49,11 +52,20 @@ public interface FoodService {
     Integer countOnSaleFoodsByBusinessId(Integer businessId);
 
     /**
-     * 根据商品名称搜索商品
+     * 根据商品名称搜索上架商品，支持前缀、包含和模糊匹配
      * @param name 商品名称关键词
-     * @return 商品列表
+     * @param limit 最多返回条数
+     * @return 按相关度排序的商品列表
+     */
+    List<Food> searchFoodsByName(String name, Integer limit);
+
+    /**
+     * 商品名称输入提示，按销量排序，只读本地词典
+     * @param prefix 已输入的内容
+     * @param limit 最多返回条数
+     * @return 提示列表
      */
-    List<Food> searchFoodsByName(String name);
+    List<Suggestion> suggestFoodNames(String prefix, Integer limit);
 
     /**
      * 根据价格区间查询商品
@@ -61,22 +73,24 @@ public interface FoodService {
      * @param maxPrice 最高价格
      * @return 商品列表
      */
-    List<Food> getFoodsByPriceRange(Double minPrice, Double maxPrice);
+    List<Food> getFoodsByPriceRange(Money minPrice, Money maxPrice);
 
     /**
      * 查询热门商品
      * @param limit 限制数量
+     * @param window 统计窗口，为null时按累计销量
      * @return 热门商品列表
      */
-    List<Food> getHotFoods(Integer limit);
+    List<Food> getHotFoods(Integer limit, HotWindow window);
 
     /**
      * 根据商家ID查询热门商品
      * @param businessId 商家ID
      * @param limit 限制数量
+     * @param window 统计窗口，为null时按累计销量
      * @return 热门商品列表
      */
-    List<Food> getHotFoodsByBusinessId(Integer businessId, Integer limit);
+    List<Food> getHotFoodsByBusinessId(Integer businessId, Integer limit, HotWindow window);
 
     /**
      * 查询特价商品
@@ -2,16 +2,34 @@ package org.example.service.impl;
 
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.cache.CacheService;
+import org.example.cache.ExistenceFilter;
+import org.example.cache.ReadThroughCache;
+import org.example.constants.CommonConstants;
+import org.example.dto.FoodChangeEvent;
 import org.example.entity.Food;
+import org.example.leaderboard.HotFoodLeaderboard;
+import org.example.leaderboard.HotWindow;
+import org.example.listener.FoodSearchIndexListener;
 import org.example.mapper.FoodMapper;
+import org.example.money.Money;
+import org.example.search.SearchIndex;
+import org.example.search.SuggestIndex;
+import org.example.search.Suggestion;
 import org.example.service.FoodService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -20,9 +38,30 @@ public class FoodServiceImpl implements FoodService {
     @Autowired
     private FoodMapper foodMapper;
 
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ReadThroughCache readThroughCache;
+
+    @Autowired
+    private ExistenceFilter foodExistenceFilter;
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Autowired
+    private SearchIndex foodSearchIndex;
+
+    @Autowired
+    private FoodSearchIndexListener foodSearchIndexListener;
+
+    @Autowired
+    private SuggestIndex foodSuggestIndex;
+
+    @Autowired
+    private HotFoodLeaderboard hotFoodLeaderboard;
+
     private static final String FOOD_CACHE_KEY = "food:";
     private static final String BUSINESS_FOODS_CACHE_KEY = "business:foods:";
     private static final String HOT_FOODS_CACHE_KEY = "hot:foods";
@@ -36,24 +75,29 @@ public class FoodServiceImpl implements FoodService {
             return null;
         }
 
-        // 先从缓存中获取
-        String cacheKey = FOOD_CACHE_KEY + id;
-        Food food = (Food) redisTemplate.opsForValue().get(cacheKey);
-        if (food != null) {
-            log.debug("从缓存中获取商品信息: {}", id);
-            return food;
+        // 布隆过滤器判定一定不存在的商品直接返回
+        if (!foodExistenceFilter.mightExist(id)) {
+            log.debug("商品不存在，被存在性过滤器拦截: {}", id);
+            return null;
         }
 
-        // 从数据库查询
-        food = foodMapper.selectById(id);
-        if (food != null) {
-            // 处理折扣信息
-            processDiscountList(food);
-            // 存入缓存
-            redisTemplate.opsForValue().set(cacheKey, food, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-            log.debug("从数据库获取商品信息并缓存: {}", id);
-        }
-        return food;
+        return loadFood(id);
+    }
+
+    /**
+     * 读穿透缓存，未命中时从数据库查询，不存在的商品短时间缓存空结果
+     */
+    private Food loadFood(Integer id) {
+        return readThroughCache.get(FOOD_CACHE_KEY + id, CACHE_EXPIRE_TIME, TimeUnit.MINUTES,
+                CommonConstants.NEGATIVE_CACHE_EXPIRE, () -> {
+            Food food = foodMapper.selectById(id);
+            if (food != null) {
+                // 处理折扣信息
+                processDiscountList(food);
+                log.debug("从数据库获取商品信息并缓存: {}", id);
+            }
+            return food;
+        });
     }
 
     @Override
@@ -76,22 +120,15 @@ public class FoodServiceImpl implements FoodService {
             return List.of();
         }
 
-        // 先从缓存中获取
+        // 读穿透缓存，未命中时从数据库查询
         String cacheKey = BUSINESS_FOODS_CACHE_KEY + businessId + ":all";
-        List<Food> foods = (List<Food>) redisTemplate.opsForValue().get(cacheKey);
-        if (foods != null) {
-            log.debug("从缓存中获取商家商品列表: {}", businessId);
+        return readThroughCache.get(cacheKey, CACHE_EXPIRE_TIME, TimeUnit.MINUTES, () -> {
+            List<Food> foods = foodMapper.findAllByBusiness(businessId);
+            // 处理折扣信息
+            foods.forEach(this::processDiscountList);
+            log.debug("从数据库获取商家商品列表并缓存: {}", businessId);
             return foods;
-        }
-
-        // 从数据库查询
-        foods = foodMapper.findAllByBusiness(businessId);
-        // 处理折扣信息
-        foods.forEach(this::processDiscountList);
-        // 存入缓存
-        redisTemplate.opsForValue().set(cacheKey, foods, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        log.debug("从数据库获取商家商品列表并缓存: {}", businessId);
-        return foods;
+        });
     }
 
     @Override
@@ -101,22 +138,15 @@ public class FoodServiceImpl implements FoodService {
             return List.of();
         }
 
-        // 先从缓存中获取
+        // 读穿透缓存，商家菜单是高峰期热点键，回源时使用跨节点租约
         String cacheKey = BUSINESS_FOODS_CACHE_KEY + businessId + ":onsale";
-        List<Food> foods = (List<Food>) redisTemplate.opsForValue().get(cacheKey);
-        if (foods != null) {
-            log.debug("从缓存中获取商家上架商品列表: {}", businessId);
+        return readThroughCache.get(cacheKey, CACHE_EXPIRE_TIME, TimeUnit.MINUTES, true, () -> {
+            List<Food> foods = foodMapper.findOnSaleFoodsByBusiness(businessId);
+            // 处理折扣信息
+            foods.forEach(this::processDiscountList);
+            log.debug("从数据库获取商家上架商品列表并缓存: {}", businessId);
             return foods;
-        }
-
-        // 从数据库查询
-        foods = foodMapper.findOnSaleFoodsByBusiness(businessId);
-        // 处理折扣信息
-        foods.forEach(this::processDiscountList);
-        // 存入缓存
-        redisTemplate.opsForValue().set(cacheKey, foods, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        log.debug("从数据库获取商家上架商品列表并缓存: {}", businessId);
-        return foods;
+        });
     }
 
     @Override
@@ -139,19 +169,46 @@ public class FoodServiceImpl implements FoodService {
 
     @Override
     @SentinelResource(value = "searchFoodsByName", fallback = "searchFoodsByNameFallback")
-    public List<Food> searchFoodsByName(String name) {
-        if (name == null || name.trim().isEmpty()) {
+    public List<Food> searchFoodsByName(String name, Integer limit) {
+        if (name == null || name.trim().isEmpty() || limit == null || limit <= 0) {
             return List.of();
         }
-        List<Food> foods = foodMapper.findFoodsByNameLike(name.trim());
-        foods.forEach(this::processDiscountList);
-        return foods;
+        // 索引首次加载完成前回退到数据库模糊查询
+        if (!foodSearchIndex.isReady()) {
+            List<Food> foods = foodMapper.findFoodsByNameLike(name.trim());
+            foods.forEach(this::processDiscountList);
+            return foods.stream().limit(limit).collect(Collectors.toList());
+        }
+
+        List<Integer> ids = foodSearchIndex.search(name, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        // 按索引的相关度顺序返回，索引未及时更新时以数据库的上架状态为准
+        Map<Integer, Food> foods = foodMapper.findFoodsByIds(ids).stream()
+                .collect(Collectors.toMap(Food::getId, Function.identity()));
+        List<Food> result = ids.stream()
+                .map(foods::get)
+                .filter(Objects::nonNull)
+                .filter(food -> Integer.valueOf(1).equals(food.getSelling()))
+                .collect(Collectors.toList());
+        result.forEach(this::processDiscountList);
+        return result;
+    }
+
+    @Override
+    @SentinelResource(value = "suggestFoodNames", fallback = "suggestFoodNamesFallback")
+    public List<Suggestion> suggestFoodNames(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank() || limit == null || limit <= 0) {
+            return List.of();
+        }
+        return foodSuggestIndex.suggest(prefix, limit);
     }
 
     @Override
     @SentinelResource(value = "getFoodsByPriceRange", fallback = "getFoodsByPriceRangeFallback")
-    public List<Food> getFoodsByPriceRange(Double minPrice, Double maxPrice) {
-        if (minPrice == null || maxPrice == null || minPrice > maxPrice) {
+    public List<Food> getFoodsByPriceRange(Money minPrice, Money maxPrice) {
+        if (minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) > 0) {
             return List.of();
         }
         List<Food> foods = foodMapper.findFoodsByPriceRange(minPrice, maxPrice);
@@ -161,34 +218,50 @@ public class FoodServiceImpl implements FoodService {
 
     @Override
     @SentinelResource(value = "getHotFoods", fallback = "getHotFoodsFallback")
-    public List<Food> getHotFoods(Integer limit) {
+    public List<Food> getHotFoods(Integer limit, HotWindow window) {
         if (limit == null || limit <= 0) {
             limit = 10;
         }
+        if (window == null) {
+            window = HotWindow.ALL;
+        }
 
-        // 先从缓存中获取
-        String cacheKey = HOT_FOODS_CACHE_KEY + ":" + limit;
-        List<Food> foods = (List<Food>) redisTemplate.opsForValue().get(cacheKey);
-        if (foods != null) {
-            log.debug("从缓存中获取热门商品列表");
-            return foods;
+        // 优先读热销榜，榜单未初始化或读取失败时按商品表销量排序
+        if (hotFoodLeaderboard.isReady()) {
+            try {
+                return resolveHotFoods(hotFoodLeaderboard.top(window, limit * 2), limit);
+            } catch (Exception e) {
+                log.warn("读取热销榜失败，回退到数据库排序: {}", window, e);
+            }
         }
 
-        // 从数据库查询
-        foods = foodMapper.findHotFoods(limit);
-        foods.forEach(this::processDiscountList);
-        // 存入缓存，热门商品缓存时间稍短
-        redisTemplate.opsForValue().set(cacheKey, foods, 10, TimeUnit.MINUTES);
-        log.debug("从数据库获取热门商品列表并缓存");
-        return foods;
+        // 读穿透缓存，热门商品缓存时间稍短
+        String cacheKey = cacheService.taggedKey(HOT_FOODS_CACHE_KEY, String.valueOf(limit));
+        int hotLimit = limit;
+        return readThroughCache.get(cacheKey, 10, TimeUnit.MINUTES, true, () -> {
+            List<Food> foods = foodMapper.findHotFoods(hotLimit);
+            foods.forEach(this::processDiscountList);
+            log.debug("从数据库获取热门商品列表并缓存");
+            return foods;
+        });
     }
 
     @Override
     @SentinelResource(value = "getHotFoodsByBusinessId", fallback = "getHotFoodsByBusinessIdFallback")
-    public List<Food> getHotFoodsByBusinessId(Integer businessId, Integer limit) {
+    public List<Food> getHotFoodsByBusinessId(Integer businessId, Integer limit, HotWindow window) {
         if (businessId == null || limit == null || limit <= 0) {
             return List.of();
         }
+        if (window == null) {
+            window = HotWindow.ALL;
+        }
+        if (hotFoodLeaderboard.isReady()) {
+            try {
+                return resolveHotFoods(hotFoodLeaderboard.topByBusiness(businessId, window, limit * 2), limit);
+            } catch (Exception e) {
+                log.warn("读取商家热销榜失败，回退到数据库排序: {}-{}", businessId, window, e);
+            }
+        }
         List<Food> foods = foodMapper.findHotFoodsByBusiness(businessId, limit);
         foods.forEach(this::processDiscountList);
         return foods;
@@ -197,20 +270,13 @@ public class FoodServiceImpl implements FoodService {
     @Override
     @SentinelResource(value = "getDiscountFoods", fallback = "getDiscountFoodsFallback")
     public List<Food> getDiscountFoods() {
-        // 先从缓存中获取
-        List<Food> foods = (List<Food>) redisTemplate.opsForValue().get(DISCOUNT_FOODS_CACHE_KEY);
-        if (foods != null) {
-            log.debug("从缓存中获取特价商品列表");
+        // 读穿透缓存
+        return readThroughCache.get(DISCOUNT_FOODS_CACHE_KEY, 15, TimeUnit.MINUTES, () -> {
+            List<Food> foods = foodMapper.findDiscountFoods();
+            foods.forEach(this::processDiscountList);
+            log.debug("从数据库获取特价商品列表并缓存");
             return foods;
-        }
-
-        // 从数据库查询
-        foods = foodMapper.findDiscountFoods();
-        foods.forEach(this::processDiscountList);
-        // 存入缓存
-        redisTemplate.opsForValue().set(DISCOUNT_FOODS_CACHE_KEY, foods, 15, TimeUnit.MINUTES);
-        log.debug("从数据库获取特价商品列表并缓存");
-        return foods;
+        });
     }
 
     @Override
@@ -234,10 +300,10 @@ public class FoodServiceImpl implements FoodService {
         try {
             int result = foodMapper.insert(food);
             if (result > 0) {
-                // 清理相关缓存
-                clearBusinessFoodsCache(food.getBusiness());
-                clearHotFoodsCache();
-                clearDiscountFoodsCache();
+                syncNumericColumns(food.getId());
+                foodExistenceFilter.add(food.getId());
+                // 提交后清理相关缓存（包括可能存在的空结果缓存）并广播变更
+                publishFoodChange(food.getId(), food.getBusiness(), FoodChangeEvent.TYPE_CREATED);
                 log.info("新增商品成功: {}", food.getId());
                 return true;
             }
@@ -257,11 +323,15 @@ public class FoodServiceImpl implements FoodService {
         try {
             int result = foodMapper.updateById(food);
             if (result > 0) {
-                // 清理相关缓存
-                clearFoodCache(food.getId());
-                clearBusinessFoodsCache(food.getBusiness());
-                clearHotFoodsCache();
-                clearDiscountFoodsCache();
+                syncNumericColumns(food.getId());
+                // 部分更新时请求中可能不带商家ID，以数据库为准
+                Integer businessId = food.getBusiness();
+                if (businessId == null) {
+                    Food existingFood = foodMapper.selectById(food.getId());
+                    businessId = existingFood != null ? existingFood.getBusiness() : null;
+                }
+                // 提交后清理相关缓存并广播变更
+                publishFoodChange(food.getId(), businessId, FoodChangeEvent.TYPE_UPDATED);
                 log.info("更新商品成功: {}", food.getId());
                 return true;
             }
@@ -283,11 +353,8 @@ public class FoodServiceImpl implements FoodService {
             if (food != null) {
                 int result = foodMapper.deleteById(id);
                 if (result > 0) {
-                    // 清理相关缓存
-                    clearFoodCache(id);
-                    clearBusinessFoodsCache(food.getBusiness());
-                    clearHotFoodsCache();
-                    clearDiscountFoodsCache();
+                    // 提交后清理相关缓存、移出热销榜并广播变更
+                    publishFoodChange(id, food.getBusiness(), FoodChangeEvent.TYPE_DELETED);
                     log.info("删除商品成功: {}", id);
                     return true;
                 }
@@ -311,13 +378,10 @@ public class FoodServiceImpl implements FoodService {
             food.setSelling(1);
             int result = foodMapper.updateById(food);
             if (result > 0) {
-                // 清理相关缓存
+                // 提交后清理相关缓存并广播变更
                 Food existingFood = foodMapper.selectById(id);
                 if (existingFood != null) {
-                    clearFoodCache(id);
-                    clearBusinessFoodsCache(existingFood.getBusiness());
-                    clearHotFoodsCache();
-                    clearDiscountFoodsCache();
+                    publishFoodChange(id, existingFood.getBusiness(), FoodChangeEvent.TYPE_ON_SALE);
                 }
                 log.info("商品上架成功: {}", id);
                 return true;
@@ -341,13 +405,10 @@ public class FoodServiceImpl implements FoodService {
             food.setSelling(0);
             int result = foodMapper.updateById(food);
             if (result > 0) {
-                // 清理相关缓存
+                // 提交后清理相关缓存并广播变更
                 Food existingFood = foodMapper.selectById(id);
                 if (existingFood != null) {
-                    clearFoodCache(id);
-                    clearBusinessFoodsCache(existingFood.getBusiness());
-                    clearHotFoodsCache();
-                    clearDiscountFoodsCache();
+                    publishFoodChange(id, existingFood.getBusiness(), FoodChangeEvent.TYPE_OFF_SALE);
                 }
                 log.info("商品下架成功: {}", id);
                 return true;
@@ -372,7 +433,7 @@ public class FoodServiceImpl implements FoodService {
      */
     private void clearFoodCache(Integer id) {
         if (id != null) {
-            redisTemplate.delete(FOOD_CACHE_KEY + id);
+            cacheService.delete(FOOD_CACHE_KEY + id);
         }
     }
 
@@ -381,23 +442,81 @@ public class FoodServiceImpl implements FoodService {
      */
     private void clearBusinessFoodsCache(Integer businessId) {
         if (businessId != null) {
-            redisTemplate.delete(BUSINESS_FOODS_CACHE_KEY + businessId + ":all");
-            redisTemplate.delete(BUSINESS_FOODS_CACHE_KEY + businessId + ":onsale");
+            cacheService.delete(List.of(BUSINESS_FOODS_CACHE_KEY + businessId + ":all",
+                    BUSINESS_FOODS_CACHE_KEY + businessId + ":onsale"));
         }
     }
 
     /**
-     * 清理热门商品缓存
+     * 在同一事务中按文本字段更新当前行的数值影子列，排序查询立即生效，不必等待后台回填
+     */
+    private void syncNumericColumns(Integer id) {
+        foodMapper.syncNumericColumns(id.longValue(), id.longValue());
+    }
+
+    /**
+     * 按榜单顺序经单个商品的读穿透缓存取商品详情，跳过已下架和已删除的商品，凑满limit即停止
+     * 商品详情多数命中本地缓存，榜单排名实时读取；榜单多取一些，下架商品较多时返回数量可能不足limit
+     */
+    private List<Food> resolveHotFoods(List<Integer> ids, int limit) {
+        return ids.stream()
+                .map(this::loadFood)
+                .filter(Objects::nonNull)
+                .filter(food -> Integer.valueOf(1).equals(food.getSelling()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 清理热门商品缓存，递增标签版本号使所有limit变体同时失效
      */
     private void clearHotFoodsCache() {
-        redisTemplate.delete(HOT_FOODS_CACHE_KEY + ":*");
+        cacheService.invalidateTag(HOT_FOODS_CACHE_KEY);
     }
 
     /**
      * 清理特价商品缓存
      */
     private void clearDiscountFoodsCache() {
-        redisTemplate.delete(DISCOUNT_FOODS_CACHE_KEY);
+        cacheService.delete(DISCOUNT_FOODS_CACHE_KEY);
+    }
+
+    /**
+     * 清理本服务的相关缓存，更新本节点的商品搜索索引，并广播食物变更事件，通知商家服务等下游清理其缓存的菜单
+     * 在事务提交后执行，避免本服务或下游在提交前回源读到旧数据并重新缓存
+     */
+    private void publishFoodChange(Integer foodId, Integer businessId, String type) {
+        FoodChangeEvent event = FoodChangeEvent.of(foodId, businessId, type);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sendFoodChange(event);
+                }
+            });
+        } else {
+            sendFoodChange(event);
+        }
+    }
+
+    private void sendFoodChange(FoodChangeEvent event) {
+        clearFoodCache(event.getFoodId());
+        clearBusinessFoodsCache(event.getBusinessId());
+        clearHotFoodsCache();
+        clearDiscountFoodsCache();
+        if (FoodChangeEvent.TYPE_DELETED.equals(event.getType())) {
+            hotFoodLeaderboard.remove(event.getFoodId(), event.getBusinessId());
+        }
+        try {
+            foodSearchIndexListener.apply(event);
+        } catch (Exception e) {
+            log.error("更新商品搜索索引失败: {}", event, e);
+        }
+        try {
+            redisTemplate.convertAndSend(CommonConstants.FOOD_CHANGE_CHANNEL, event);
+        } catch (Exception e) {
+            log.error("广播食物变更事件失败: {}", event, e);
+        }
     }
 
     // Sentinel 降级方法
@@ -431,22 +550,28 @@ public class FoodServiceImpl implements FoodService {
         return 0;
     }
 
-    public List<Food> searchFoodsByNameFallback(String name, Throwable throwable) {
+    public List<Food> searchFoodsByNameFallback(String name, Integer limit, Throwable throwable) {
         log.error("搜索商品降级处理: {}", name, throwable);
         return List.of();
     }
 
-    public List<Food> getFoodsByPriceRangeFallback(Double minPrice, Double maxPrice, Throwable throwable) {
+    public List<Suggestion> suggestFoodNamesFallback(String prefix, Integer limit, Throwable throwable) {
+        log.error("商品输入提示降级处理: {}", prefix, throwable);
+        return List.of();
+    }
+
+    public List<Food> getFoodsByPriceRangeFallback(Money minPrice, Money maxPrice, Throwable throwable) {
         log.error("价格区间查询商品降级处理: {}-{}", minPrice, maxPrice, throwable);
         return List.of();
     }
 
-    public List<Food> getHotFoodsFallback(Integer limit, Throwable throwable) {
+    public List<Food> getHotFoodsFallback(Integer limit, HotWindow window, Throwable throwable) {
         log.error("获取热门商品降级处理: {}", limit, throwable);
         return List.of();
     }
 
-    public List<Food> getHotFoodsByBusinessIdFallback(Integer businessId, Integer limit, Throwable throwable) {
+    public List<Food> getHotFoodsByBusinessIdFallback(Integer businessId, Integer limit, HotWindow window,
+                                                      Throwable throwable) {
         log.error("获取商家热门商品降级处理: {}-{}", businessId, limit, throwable);
         return List.of();
     }
@@ -2,6 +2,7 @@ package org.example.config;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.binder.MeterBinder;
+import org.example.metrics.OrderMetricsCollector;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -15,16 +16,22 @@ public class MetricsConfig {
      * 自定义业务指标
      */
     @Bean
-    public MeterBinder customMetrics(MeterRegistry meterRegistry) {
+    public MeterBinder customMetrics(MeterRegistry meterRegistry, OrderMetricsCollector orderMetrics) {
         return (registry) -> {
             // 服务在线数量
             registry.gauge("eleme.services.online", 0);
             
             // 总订单数
-            registry.gauge("eleme.orders.total", 0);
+            registry.gauge("eleme.orders.total", orderMetrics, OrderMetricsCollector::getTotalOrders);
             
             // 今日订单数
-            registry.gauge("eleme.orders.today", 0);
+            registry.gauge("eleme.orders.today", orderMetrics, OrderMetricsCollector::getTodayOrders);
+
+            // 今日支付订单数
+            registry.gauge("eleme.orders.today.paid", orderMetrics, OrderMetricsCollector::getTodayPaidOrders);
+
+            // 今日成交额
+            registry.gauge("eleme.sales.today.gmv", orderMetrics, OrderMetricsCollector::getTodayGmv);
             
             // 在线用户数
             registry.gauge("eleme.users.online", 0);
@@ -0,0 +1,86 @@
+package org.example.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 订单指标采集
+ * <p>
+ * 定时从订单服务的销售概况接口拉取订单总数和今日下单数、支付数、成交额，供监控指标读取。
+ * 概况由订单服务的增量汇总表和订单计数提供，不扫描订单表。
+ * 采集失败时保留上一次的值。
+ */
+@Slf4j
+@Component
+public class OrderMetricsCollector {
+
+    private static final String SUMMARY_PATH = "/order/sales/summary";
+
+    @Autowired
+    private DiscoveryClient discoveryClient;
+
+    private final RestTemplate restTemplate;
+
+    @Value("${eleme.monitor.order-service-id:eleme-order-service}")
+    private String orderServiceId;
+
+    @Getter
+    private volatile long totalOrders;
+
+    @Getter
+    private volatile long todayOrders;
+
+    @Getter
+    private volatile long todayPaidOrders;
+
+    @Getter
+    private volatile double todayGmv;
+
+    public OrderMetricsCollector(RestTemplateBuilder restTemplateBuilder) {
+        this.restTemplate = restTemplateBuilder
+                .setConnectTimeout(Duration.ofSeconds(2))
+                .setReadTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * 拉取销售概况，采集间隔即指标的最大延迟
+     */
+    @Scheduled(initialDelayString = "${eleme.monitor.order-metrics.initial-delay-millis:10000}",
+            fixedDelayString = "${eleme.monitor.order-metrics.interval-millis:30000}")
+    public void collect() {
+        List<ServiceInstance> instances = discoveryClient.getInstances(orderServiceId);
+        if (instances.isEmpty()) {
+            log.warn("订单指标采集跳过，没有可用的订单服务实例: {}", orderServiceId);
+            return;
+        }
+        ServiceInstance instance = instances.get(ThreadLocalRandom.current().nextInt(instances.size()));
+        try {
+            JsonNode response = restTemplate.getForObject(instance.getUri() + SUMMARY_PATH, JsonNode.class);
+            JsonNode data = response != null ? response.path("data") : null;
+            if (data == null || !data.isObject()) {
+                log.warn("订单指标采集失败，销售概况不可用: {}", response);
+                return;
+            }
+            totalOrders = data.path("totalOrders").asLong(totalOrders);
+            todayOrders = data.path("todayOrders").asLong(todayOrders);
+            todayPaidOrders = data.path("todayPaidOrders").asLong(todayPaidOrders);
+            todayGmv = data.path("todayGmv").asDouble(todayGmv);
+        } catch (Exception e) {
+            log.warn("订单指标采集失败: {}", instance.getUri(), e);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.assembler;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderDetailDTO;
+import org.example.dto.R;
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.entity.OrderItem;
+import org.example.entity.UserOrder;
+import org.example.feign.BusinessClient;
+import org.example.feign.FoodClient;
+import org.example.mapper.OrderItemMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 订单详情组装器
+ * 先批量查询一批订单的明细，汇总涉及的商家ID和商品ID，按集合去重后各批量拉取一次，再在内存中拼装订单详情，
+ * 数据库查询和远程调用次数与订单数量无关
+ */
+@Component
+@Slf4j
+public class OrderDetailAssembler {
+
+    @Autowired
+    private BusinessClient businessClient;
+
+    @Autowired
+    private FoodClient foodClient;
+
+    @Autowired
+    private OrderItemMapper orderItemMapper;
+
+    /**
+     * 组装单个订单详情
+     * @param order 订单
+     * @return 订单详情DTO
+     */
+    public OrderDetailDTO assemble(UserOrder order) {
+        if (order == null) {
+            return null;
+        }
+        return assemble(List.of(order)).get(0);
+    }
+
+    /**
+     * 批量组装订单详情
+     * @param orders 订单列表
+     * @return 订单详情列表，顺序与入参一致
+     */
+    public List<OrderDetailDTO> assemble(List<UserOrder> orders) {
+        if (orders == null || orders.isEmpty()) {
+            return List.of();
+        }
+
+        // 1. 一次查询加载全部订单明细，再汇总去重后的商家ID和商品ID
+        Map<Integer, List<OrderItem>> itemMap = loadOrderItems(orders);
+        Set<Integer> businessIds = new LinkedHashSet<>();
+        Set<Integer> foodIds = new LinkedHashSet<>();
+        for (UserOrder order : orders) {
+            if (order.getBusinessId() != null) {
+                businessIds.add(order.getBusinessId());
+            }
+            itemMap.getOrDefault(order.getId(), List.of()).forEach(item -> foodIds.add(item.getFoodId()));
+        }
+
+        // 2. 每类数据只拉取一次
+        Map<Integer, Business> businessMap = loadBusinesses(businessIds);
+        Map<Integer, Food> foodMap = loadFoods(foodIds);
+
+        // 3. 内存拼装
+        List<OrderDetailDTO> orderDetails = new ArrayList<>(orders.size());
+        for (UserOrder order : orders) {
+            orderDetails.add(toOrderDetail(order, itemMap.getOrDefault(order.getId(), List.of()), businessMap, foodMap));
+        }
+        log.debug("批量组装订单详情完成，订单数量: {}, 商家数量: {}, 商品数量: {}",
+                orders.size(), businessMap.size(), foodMap.size());
+        return orderDetails;
+    }
+
+    /**
+     * 一次查询加载全部订单明细，按订单ID分组；尚未迁移明细的历史订单由order_list解析
+     */
+    private Map<Integer, List<OrderItem>> loadOrderItems(List<UserOrder> orders) {
+        List<Integer> orderIds = orders.stream()
+                .map(UserOrder::getId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<Integer, List<OrderItem>> itemMap = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (OrderItem item : orderItemMapper.findByOrderIds(orderIds)) {
+                itemMap.computeIfAbsent(item.getOrderId(), key -> new ArrayList<>()).add(item);
+            }
+        }
+        for (UserOrder order : orders) {
+            if (order.getId() != null && !itemMap.containsKey(order.getId())) {
+                itemMap.put(order.getId(), parseLegacyItems(order));
+            }
+        }
+        return itemMap;
+    }
+
+    /**
+     * 将历史订单的order_list解析为明细，重复的商品ID累加数量，单价未知
+     */
+    private List<OrderItem> parseLegacyItems(UserOrder order) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Integer foodId : order.getOrderItemIds()) {
+            quantities.merge(foodId, 1, Integer::sum);
+        }
+        List<OrderItem> items = new ArrayList<>(quantities.size());
+        quantities.forEach((foodId, quantity) -> items.add(new OrderItem()
+                .setOrderId(order.getId())
+                .setFoodId(foodId)
+                .setQuantity(quantity)
+                .setCreatedAt(order.getCreatedAt())));
+        return items;
+    }
+
+    /**
+     * 一次批量调用加载全部商家信息，订单详情不需要商家的完整菜单
+     */
+    private Map<Integer, Business> loadBusinesses(Collection<Integer> businessIds) {
+        Map<Integer, Business> businessMap = new HashMap<>();
+        if (businessIds.isEmpty()) {
+            return businessMap;
+        }
+        try {
+            R<List<Business>> businessResult = businessClient.getBusinessesByIds(new ArrayList<>(businessIds), false);
+            if (businessResult.isSuccess() && businessResult.getData() != null) {
+                for (Business business : businessResult.getData()) {
+                    businessMap.put(business.getId(), business);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量获取商家信息失败，商家数量: {}，相关订单将不包含商家信息", businessIds.size(), e);
+        }
+        return businessMap;
+    }
+
+    /**
+     * 一次批量调用加载全部商品信息
+     */
+    private Map<Integer, Food> loadFoods(Collection<Integer> foodIds) {
+        Map<Integer, Food> foodMap = new HashMap<>();
+        if (foodIds.isEmpty()) {
+            return foodMap;
+        }
+        try {
+            R<List<Food>> foodResult = foodClient.getFoodsByIds(new ArrayList<>(foodIds));
+            if (foodResult.isSuccess() && foodResult.getData() != null) {
+                for (Food food : foodResult.getData()) {
+                    foodMap.put(food.getId(), food);
+                }
+            }
+        } catch (Exception e) {
+            log.error("批量获取商品信息失败，商品数量: {}", foodIds.size(), e);
+        }
+        return foodMap;
+    }
+
+    private OrderDetailDTO toOrderDetail(UserOrder order, List<OrderItem> items,
+                                         Map<Integer, Business> businessMap, Map<Integer, Food> foodMap) {
+        OrderDetailDTO orderDetail = new OrderDetailDTO();
+        orderDetail.setId(order.getId());
+        orderDetail.setBusinessID(order.getBusinessId());
+        orderDetail.setUserPhone(order.getUserPhone());
+        orderDetail.setOrderList(order.getOrderList());
+        orderDetail.setPrice(order.getPrice());
+        orderDetail.setState(order.getState());
+        orderDetail.setCreatedAt(order.getCreatedAt());
+        orderDetail.setPaidAt(order.getPaidAt());
+        orderDetail.setCompletedAt(order.getCompletedAt());
+        orderDetail.setDeliveryAddress(order.getDeliveryAddress());
+        orderDetail.setReceiverName(order.getReceiverName());
+        orderDetail.setReceiverPhone(order.getReceiverPhone());
+        orderDetail.setRemark(order.getRemark());
+        orderDetail.setDeliveryFee(order.getDeliveryFee());
+        orderDetail.setBusiness(businessMap.get(order.getBusinessId()));
+
+        // 明细已按商品合并，同一商品只返回一条，数量见items
+        List<Food> orderItems = items.stream()
+                .map(item -> foodMap.get(item.getFoodId()))
+                .filter(Objects::nonNull)
+                .toList();
+        orderDetail.setOrderItems(new ArrayList<>(orderItems));
+        orderDetail.setItems(new ArrayList<>(items));
+        return orderDetail;
+    }
+}
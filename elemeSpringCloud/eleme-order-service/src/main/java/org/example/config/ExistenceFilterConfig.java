@@ -0,0 +1,28 @@
+package org.example.config;
+
+import org.example.cache.ExistenceFilter;
+import org.example.mapper.UserOrderMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 存在性过滤器配置
+ * 订单查询前先经过布隆过滤器，一定不存在的订单直接返回，不访问Redis和数据库
+ */
+@Configuration
+public class ExistenceFilterConfig {
+
+    @Bean
+    public ExistenceFilter orderExistenceFilter(
+            UserOrderMapper userOrderMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            @Value("${eleme.existence-filter.order.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${eleme.existence-filter.order.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        return new ExistenceFilter("order", expectedInsertions, 0.01, true,
+                userOrderMapper::findAllIds, userOrderMapper::findMaxId, redisTemplate, redisMessageListenerContainer, rebuildIntervalMinutes);
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 订单服务线程池配置
+ */
+@Configuration
+public class OrderExecutorConfig {
+
+    /**
+     * 下单校验线程池，用于并行调用用户、商家、商品服务
+     * 队列满时拒绝提交，由校验器快速返回失败，避免请求线程串行执行远程调用后整体超时
+     */
+    @Bean(name = "orderValidationExecutor")
+    public ThreadPoolTaskExecutor orderValidationExecutor(
+            @Value("${eleme.order.validation.core-pool-size:8}") int corePoolSize,
+            @Value("${eleme.order.validation.max-pool-size:32}") int maxPoolSize,
+            @Value("${eleme.order.validation.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setKeepAliveSeconds(60);
+        executor.setThreadNamePrefix("order-validate-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+}
@@ -4,20 +4,34 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
+import org.example.dto.CursorPage;
+import org.example.dto.MerchantSalesDTO;
+import org.example.dto.OrderBatchStateRequestDTO;
+import org.example.dto.OrderBatchStateResultDTO;
 import org.example.dto.OrderDetailDTO;
 import org.example.dto.OrderRequestDTO;
 import org.example.dto.R;
+import org.example.dto.SalesSummaryDTO;
 import org.example.entity.UserOrder;
+import org.example.export.OrderExportFormat;
+import org.example.money.Money;
 import org.example.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -29,6 +43,12 @@ import java.util.Map;
 @Validated
 public class OrderController {
 
+    /**
+     * 时间参数格式，兼容ISO格式
+     */
+    private static final String DATE_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    private static final String ISO_DATE_TIME_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
     @Autowired
     private OrderService orderService;
 
@@ -81,7 +101,7 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userPhone}")
-    @Operation(summary = "查询用户订单", description = "根据用户手机号查询订单列表")
+    @Operation(summary = "查询用户订单", description = "根据用户手机号查询订单列表，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByUserPhone(
             @Parameter(description = "用户手机号", required = true) 
             @PathVariable @NotBlank String userPhone) {
@@ -92,7 +112,7 @@ public class OrderController {
     }
 
     @GetMapping("/business/{businessId}")
-    @Operation(summary = "查询商家订单", description = "根据商家ID查询订单列表")
+    @Operation(summary = "查询商家订单", description = "根据商家ID查询订单列表，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByBusinessId(
             @Parameter(description = "商家ID", required = true) 
             @PathVariable @NotNull @Min(1) Integer businessId) {
@@ -103,7 +123,7 @@ public class OrderController {
     }
 
     @GetMapping("/state/{state}")
-    @Operation(summary = "按状态查询订单", description = "根据订单状态查询订单列表")
+    @Operation(summary = "按状态查询订单", description = "根据订单状态查询订单列表，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByState(
             @Parameter(description = "订单状态", required = true) 
             @PathVariable @NotNull Integer state) {
@@ -114,7 +134,7 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userPhone}/state/{state}")
-    @Operation(summary = "查询用户特定状态订单", description = "根据用户手机号和状态查询订单列表")
+    @Operation(summary = "查询用户特定状态订单", description = "根据用户手机号和状态查询订单列表，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByUserPhoneAndState(
             @Parameter(description = "用户手机号", required = true) 
             @PathVariable @NotBlank String userPhone,
@@ -127,7 +147,7 @@ public class OrderController {
     }
 
     @GetMapping("/business/{businessId}/state/{state}")
-    @Operation(summary = "查询商家特定状态订单", description = "根据商家ID和状态查询订单列表")
+    @Operation(summary = "查询商家特定状态订单", description = "根据商家ID和状态查询订单列表，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByBusinessIdAndState(
             @Parameter(description = "商家ID", required = true) 
             @PathVariable @NotNull @Min(1) Integer businessId,
@@ -155,11 +175,11 @@ public class OrderController {
     }
 
     @PutMapping("/{id}/state/{state}")
-    @Operation(summary = "更新订单状态", description = "更新指定订单的状态")
+    @Operation(summary = "更新订单状态", description = "按状态机更新指定订单的状态，当前状态不允许迁移到新状态时更新失败")
     public R<String> updateOrderState(
             @Parameter(description = "订单ID", required = true) 
             @PathVariable @NotNull @Min(1) Integer id,
-            @Parameter(description = "新状态", required = true) 
+            @Parameter(description = "新状态(0-未支付,1-已支付,2-已确认,3-已完成,-1-已取消)", required = true) 
             @PathVariable @NotNull Integer state) {
         
         log.info("更新订单状态: {}-{}", id, state);
@@ -216,6 +236,21 @@ public class OrderController {
         }
     }
 
+    @PutMapping("/batch/state")
+    @Operation(summary = "批量更新订单状态", description = "将一批订单迁移到同一状态，返回每个订单的处理结果；指定商家ID时只处理该商家的订单")
+    public R<OrderBatchStateResultDTO> batchUpdateOrderState(
+            @Parameter(description = "批量更新请求", required = true)
+            @RequestBody @Valid OrderBatchStateRequestDTO request) {
+
+        log.info("批量更新订单状态: {} 个订单, 目标状态 {}", request.getOrderIds().size(), request.getState());
+        OrderBatchStateResultDTO result = orderService.batchUpdateOrderState(request);
+        if (result != null) {
+            return R.success(result);
+        } else {
+            return R.error("批量更新订单状态失败");
+        }
+    }
+
     @GetMapping("/user/{userPhone}/count")
     @Operation(summary = "统计用户订单数量", description = "统计指定用户的订单总数")
     public R<Integer> countOrdersByUserPhone(
@@ -250,45 +285,126 @@ public class OrderController {
     }
 
     @GetMapping("/user/{userPhone}/time-range")
-    @Operation(summary = "按时间范围查询用户订单", description = "根据用户手机号和时间范围查询订单")
+    @Operation(summary = "按时间范围查询用户订单", description = "根据用户手机号和时间范围查询订单，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByUserPhoneAndTimeRange(
             @Parameter(description = "用户手机号", required = true) 
             @PathVariable @NotBlank String userPhone,
-            @Parameter(description = "开始时间", required = true) 
-            @RequestParam @NotBlank String startTime,
-            @Parameter(description = "结束时间", required = true) 
-            @RequestParam @NotBlank String endTime) {
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime) {
         
         log.info("按时间范围查询用户订单: {}-{}-{}", userPhone, startTime, endTime);
+        if (startTime.isAfter(endTime)) {
+            return R.error("开始时间不能晚于结束时间");
+        }
         List<UserOrder> orders = orderService.getOrdersByUserPhoneAndTimeRange(userPhone, startTime, endTime);
         return R.success(orders);
     }
 
     @GetMapping("/business/{businessId}/time-range")
-    @Operation(summary = "按时间范围查询商家订单", description = "根据商家ID和时间范围查询订单")
+    @Operation(summary = "按时间范围查询商家订单", description = "根据商家ID和时间范围查询订单，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByBusinessIdAndTimeRange(
             @Parameter(description = "商家ID", required = true) 
             @PathVariable @NotNull @Min(1) Integer businessId,
-            @Parameter(description = "开始时间", required = true) 
-            @RequestParam @NotBlank String startTime,
-            @Parameter(description = "结束时间", required = true) 
-            @RequestParam @NotBlank String endTime) {
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime) {
         
         log.info("按时间范围查询商家订单: {}-{}-{}", businessId, startTime, endTime);
+        if (startTime.isAfter(endTime)) {
+            return R.error("开始时间不能晚于结束时间");
+        }
         List<UserOrder> orders = orderService.getOrdersByBusinessIdAndTimeRange(businessId, startTime, endTime);
         return R.success(orders);
     }
 
+    @GetMapping("/business/{businessId}/sales/hourly")
+    @Operation(summary = "查询商家小时销售汇总", description = "按小时返回商家的下单数、支付数、成交额和客单价，数据来自增量汇总表")
+    public R<List<MerchantSalesDTO>> getHourlySales(
+            @Parameter(description = "商家ID", required = true)
+            @PathVariable @NotNull @Min(1) Integer businessId,
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime) {
+
+        log.info("查询商家小时销售汇总: {}-{}-{}", businessId, startTime, endTime);
+        if (startTime.isAfter(endTime)) {
+            return R.error("开始时间不能晚于结束时间");
+        }
+        return R.success(orderService.getHourlySales(businessId, startTime, endTime));
+    }
+
+    @GetMapping("/business/{businessId}/sales/daily")
+    @Operation(summary = "查询商家每日销售汇总", description = "按天返回商家的下单数、支付数、成交额和客单价，数据来自增量汇总表")
+    public R<List<MerchantSalesDTO>> getDailySales(
+            @Parameter(description = "商家ID", required = true)
+            @PathVariable @NotNull @Min(1) Integer businessId,
+            @Parameter(description = "开始日期(yyyy-MM-dd)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(description = "结束日期(yyyy-MM-dd)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        log.info("查询商家每日销售汇总: {}-{}-{}", businessId, startDate, endDate);
+        if (startDate.isAfter(endDate)) {
+            return R.error("开始日期不能晚于结束日期");
+        }
+        return R.success(orderService.getDailySales(businessId, startDate, endDate));
+    }
+
+    @GetMapping("/sales/summary")
+    @Operation(summary = "获取销售概况", description = "返回订单总数和今日下单数、支付数、成交额，供监控服务采集")
+    public R<SalesSummaryDTO> getSalesSummary() {
+        SalesSummaryDTO summary = orderService.getSalesSummary();
+        if (summary != null) {
+            return R.success(summary);
+        } else {
+            return R.error("销售概况暂不可用");
+        }
+    }
+
+    @GetMapping("/business/{businessId}/export")
+    @Operation(summary = "导出商家订单", description = "按时间范围流式导出商家订单，格式为ndjson或csv，响应以分块传输边查边写，适合大范围导出")
+    public ResponseEntity<StreamingResponseBody> exportOrdersByBusinessId(
+            @Parameter(description = "商家ID", required = true)
+            @PathVariable @NotNull @Min(1) Integer businessId,
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)", required = true)
+            @RequestParam @NotNull @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime,
+            @Parameter(description = "导出格式(ndjson/csv)")
+            @RequestParam(defaultValue = "ndjson") String format) {
+
+        log.info("导出商家订单: {}-{}-{}-{}", businessId, startTime, endTime, format);
+        if (startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("开始时间不能晚于结束时间");
+        }
+        OrderExportFormat exportFormat = OrderExportFormat.of(format);
+        String filename = "orders-" + businessId + "-" + startTime.toLocalDate() + "-" + endTime.toLocalDate()
+                + "." + exportFormat.getExtension();
+        StreamingResponseBody body = out -> orderService.exportOrdersByBusinessIdAndTimeRange(
+                businessId, startTime, endTime, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.parseMediaType(exportFormat.getContentType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .body(body);
+    }
+
     @GetMapping("/price-range")
-    @Operation(summary = "按价格范围查询订单", description = "根据价格范围查询订单")
+    @Operation(summary = "按价格范围查询订单", description = "根据价格范围查询订单，返回全部结果，请使用对应的分页接口", deprecated = true)
     public R<List<UserOrder>> getOrdersByPriceRange(
             @Parameter(description = "最低价格", required = true) 
-            @RequestParam @NotNull @Min(0) Double minPrice,
+            @RequestParam @NotNull Money minPrice,
             @Parameter(description = "最高价格", required = true) 
-            @RequestParam @NotNull @Min(0) Double maxPrice) {
+            @RequestParam @NotNull Money maxPrice) {
         
         log.info("按价格范围查询订单: {}-{}", minPrice, maxPrice);
-        if (minPrice > maxPrice) {
+        if (minPrice.isNegative() || maxPrice.isNegative()) {
+            return R.error("价格不能为负数");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
             return R.error("最低价格不能大于最高价格");
         }
         List<UserOrder> orders = orderService.getOrdersByPriceRange(minPrice, maxPrice);
@@ -306,6 +422,96 @@ public class OrderController {
         return R.success(orders);
     }
 
+    @GetMapping("/user/{userPhone}/page")
+    @Operation(summary = "分页查询用户订单", description = "按创建时间倒序游标分页查询用户订单，可按状态和时间范围过滤")
+    public R<CursorPage<UserOrder>> getOrderPageByUserPhone(
+            @Parameter(description = "用户手机号", required = true)
+            @PathVariable @NotBlank String userPhone,
+            @Parameter(description = "订单状态")
+            @RequestParam(required = false) Integer state,
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+
+        log.info("分页查询用户订单: {}-{}-{}", userPhone, state, cursor);
+        return R.success(orderService.getOrderPageByUserPhone(userPhone, state, startTime, endTime, cursor, size));
+    }
+
+    @GetMapping("/user/{userPhone}/details/page")
+    @Operation(summary = "分页查询用户订单详情", description = "按创建时间倒序游标分页查询包含商家和食物信息的订单详情")
+    public R<CursorPage<OrderDetailDTO>> getOrderDetailPageByUserPhone(
+            @Parameter(description = "用户手机号", required = true)
+            @PathVariable @NotBlank String userPhone,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+
+        log.info("分页查询用户订单详情: {}-{}", userPhone, cursor);
+        return R.success(orderService.getOrderDetailPageByUserPhone(userPhone, cursor, size));
+    }
+
+    @GetMapping("/business/{businessId}/page")
+    @Operation(summary = "分页查询商家订单", description = "按创建时间倒序游标分页查询商家订单，可按状态和时间范围过滤")
+    public R<CursorPage<UserOrder>> getOrderPageByBusinessId(
+            @Parameter(description = "商家ID", required = true)
+            @PathVariable @NotNull @Min(1) Integer businessId,
+            @Parameter(description = "订单状态")
+            @RequestParam(required = false) Integer state,
+            @Parameter(description = "开始时间(yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime startTime,
+            @Parameter(description = "结束时间(yyyy-MM-dd HH:mm:ss)")
+            @RequestParam(required = false) @DateTimeFormat(pattern = DATE_TIME_PATTERN, fallbackPatterns = ISO_DATE_TIME_PATTERN) LocalDateTime endTime,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+
+        log.info("分页查询商家订单: {}-{}-{}", businessId, state, cursor);
+        return R.success(orderService.getOrderPageByBusinessId(businessId, state, startTime, endTime, cursor, size));
+    }
+
+    @GetMapping("/state/{state}/page")
+    @Operation(summary = "分页按状态查询订单", description = "按创建时间倒序游标分页查询特定状态的订单")
+    public R<CursorPage<UserOrder>> getOrderPageByState(
+            @Parameter(description = "订单状态", required = true)
+            @PathVariable @NotNull Integer state,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+
+        log.info("分页按状态查询订单: {}-{}", state, cursor);
+        return R.success(orderService.getOrderPageByState(state, cursor, size));
+    }
+
+    @GetMapping("/price-range/page")
+    @Operation(summary = "分页按价格范围查询订单", description = "按创建时间倒序游标分页查询价格范围内的订单")
+    public R<CursorPage<UserOrder>> getOrderPageByPriceRange(
+            @Parameter(description = "最低价格", required = true)
+            @RequestParam @NotNull Money minPrice,
+            @Parameter(description = "最高价格", required = true)
+            @RequestParam @NotNull Money maxPrice,
+            @Parameter(description = "上一页返回的游标，为空时查询第一页")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页条数")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(100) Integer size) {
+
+        log.info("分页按价格范围查询订单: {}-{}-{}", minPrice, maxPrice, cursor);
+        if (minPrice.isNegative() || maxPrice.isNegative()) {
+            return R.error("价格不能为负数");
+        }
+        if (minPrice.compareTo(maxPrice) > 0) {
+            return R.error("最低价格不能大于最高价格");
+        }
+        return R.success(orderService.getOrderPageByPriceRange(minPrice, maxPrice, cursor, size));
+    }
+
     @DeleteMapping("/{id}")
     @Operation(summary = "删除订单", description = "删除指定订单（仅允许删除已取消的订单）")
     public R<String> deleteOrder(
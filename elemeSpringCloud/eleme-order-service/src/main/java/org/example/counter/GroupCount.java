@@ -0,0 +1,20 @@
+package org.example.counter;
+
+import lombok.Data;
+
+/**
+ * 分组计数查询结果
+ */
+@Data
+public class GroupCount {
+
+    /**
+     * 分组键，如用户手机号、商家ID、订单状态
+     */
+    private String groupKey;
+
+    /**
+     * 订单数量
+     */
+    private Long orderCount;
+}
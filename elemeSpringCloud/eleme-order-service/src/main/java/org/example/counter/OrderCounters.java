@@ -0,0 +1,280 @@
+package org.example.counter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderChangeEvent;
+import org.example.entity.OrderOutbox;
+import org.example.lock.DistributedLock;
+import org.example.mapper.UserOrderMapper;
+import org.example.state.OrderState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 订单数量计数器
+ * <p>
+ * 按用户、商家、订单状态分别在Redis Hash中维护订单数量，统计接口只读一个Hash字段：
+ * <ul>
+ *     <li>增量：发件箱投递订单事件时在同一管道中执行Lua脚本HINCRBY（见OrderOutboxDispatcher），
+ *     脚本先按事件ID写入去重标记，重复投递的事件不会重复计数</li>
+ *     <li>校准：启动后及之后定期从数据库分组统计，写入临时Hash后RENAME覆盖正式Hash，
+ *     校准期间读到的始终是完整的旧计数或新计数，数据库中已不存在的分组随之清除</li>
+ *     <li>首次校准完成前计数不完整，统计接口回退到数据库COUNT</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class OrderCounters {
+
+    /**
+     * 用户订单数，字段为用户手机号
+     */
+    public static final String USER_KEY = "order:count:user";
+
+    /**
+     * 商家订单数，字段为商家ID
+     */
+    public static final String BUSINESS_KEY = "order:count:business";
+
+    /**
+     * 各状态订单数，字段为状态码
+     */
+    public static final String STATE_KEY = "order:count:state";
+
+    /**
+     * 首次校准完成标记
+     */
+    private static final String READY_KEY = "order:count:ready";
+
+    private static final String RECONCILE_LOCK_KEY = "order:count:reconcile";
+
+    /**
+     * 事件去重标记前缀，后接发件箱事件ID
+     */
+    private static final String APPLIED_KEY_PREFIX = "order:count:applied:";
+
+    /**
+     * 校准时临时Hash的后缀
+     */
+    private static final String REBUILD_SUFFIX = ":rebuild";
+
+    /**
+     * 去重标记保留时长，覆盖已投递事件的保留时长
+     */
+    private static final long APPLIED_TTL_SECONDS = TimeUnit.DAYS.toSeconds(1);
+
+    /**
+     * KEYS: 去重标记, 用户订单数, 商家订单数, 各状态订单数
+     * ARGV: 去重标记过期秒数, 之后每三个一组：KEYS中计数Hash的下标, 字段, 增量
+     */
+    private static final String APPLY_SCRIPT =
+            "if not redis.call('SET', KEYS[1], 1, 'NX', 'EX', ARGV[1]) then return 0 end " +
+            "for i = 2, #ARGV, 3 do " +
+            "  redis.call('HINCRBY', KEYS[tonumber(ARGV[i])], ARGV[i + 1], ARGV[i + 2]) " +
+            "end " +
+            "return 1";
+
+    private static final DefaultRedisScript<Long> APPLY = new DefaultRedisScript<>(APPLY_SCRIPT, Long.class);
+
+    private static final List<String> COUNTER_KEYS = List.of(USER_KEY, BUSINESS_KEY, STATE_KEY);
+
+    private static final long READY_CHECK_INTERVAL_MILLIS = 60_000L;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private UserOrderMapper userOrderMapper;
+
+    @Autowired
+    private DistributedLock distributedLock;
+
+    /**
+     * 校准时每次分组统计的分组数
+     */
+    @Value("${eleme.order.counter.reconcile-page-size:1000}")
+    private int reconcilePageSize;
+
+    private volatile boolean ready;
+
+    private volatile long readyCheckedAt;
+
+    /**
+     * 按订单事件更新计数，在发件箱投递的管道中调用，同一事件只计数一次
+     */
+    public void apply(RedisOperations<String, Object> operations, OrderOutbox event) {
+        if (event.getId() == null) {
+            return;
+        }
+        String userPhone = event.getUserPhone();
+        String businessId = event.getBusinessId() == null ? null : event.getBusinessId().toString();
+        List<String> args = new ArrayList<>();
+        args.add(String.valueOf(APPLIED_TTL_SECONDS));
+        switch (event.getEventType()) {
+            case OrderChangeEvent.TYPE_CREATED -> {
+                increment(args, USER_KEY, userPhone, 1);
+                increment(args, BUSINESS_KEY, businessId, 1);
+                increment(args, STATE_KEY, stateField(event.getToState()), 1);
+            }
+            case OrderChangeEvent.TYPE_STATE_CHANGED -> {
+                increment(args, STATE_KEY, stateField(event.getFromState()), -1);
+                increment(args, STATE_KEY, stateField(event.getToState()), 1);
+            }
+            case OrderChangeEvent.TYPE_DELETED -> {
+                increment(args, USER_KEY, userPhone, -1);
+                increment(args, BUSINESS_KEY, businessId, -1);
+                increment(args, STATE_KEY, stateField(event.getFromState()), -1);
+            }
+            default -> log.warn("未知的订单事件类型: {}", event.getEventType());
+        }
+        if (args.size() == 1) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(COUNTER_KEYS.size() + 1);
+        keys.add(APPLIED_KEY_PREFIX + event.getId());
+        keys.addAll(COUNTER_KEYS);
+        operations.execute(APPLY, StringRedisSerializer.UTF_8, new GenericToStringSerializer<>(Long.class),
+                keys, args.toArray());
+    }
+
+    private void increment(List<String> args, String key, String field, long delta) {
+        if (field != null) {
+            // Lua中KEYS下标从1开始，第1个为去重标记
+            args.add(String.valueOf(COUNTER_KEYS.indexOf(key) + 2));
+            args.add(field);
+            args.add(String.valueOf(delta));
+        }
+    }
+
+    private String stateField(Integer state) {
+        return state == null ? null : state.toString();
+    }
+
+    /**
+     * 用户订单数
+     */
+    public Integer countByUserPhone(String userPhone) {
+        return read(USER_KEY, userPhone, () -> userOrderMapper.countByUserPhone(userPhone));
+    }
+
+    /**
+     * 商家订单数
+     */
+    public Integer countByBusinessId(Integer businessId) {
+        return read(BUSINESS_KEY, businessId.toString(), () -> userOrderMapper.countByBusinessId(businessId));
+    }
+
+    /**
+     * 特定状态订单数
+     */
+    public Integer countByState(Integer state) {
+        return read(STATE_KEY, state.toString(), () -> userOrderMapper.countByState(state));
+    }
+
+    private Integer read(String key, String field, Supplier<Integer> fallback) {
+        try {
+            if (!isReady()) {
+                return fallback.get();
+            }
+            Object value = redisTemplate.opsForHash().get(key, field);
+            // 字段不存在表示没有订单；事件乱序时计数可能短暂为负，按0返回
+            return value instanceof Number number ? (int) Math.max(0, number.longValue()) : 0;
+        } catch (Exception e) {
+            log.warn("读取订单计数失败，回退到数据库统计: {}-{}", key, field, e);
+            return fallback.get();
+        }
+    }
+
+    private boolean isReady() {
+        long now = System.currentTimeMillis();
+        if (now - readyCheckedAt >= READY_CHECK_INTERVAL_MILLIS) {
+            ready = Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY));
+            readyCheckedAt = now;
+        }
+        return ready;
+    }
+
+    /**
+     * 按数据库校准全部计数，启动后执行一次，之后定期执行
+     * <p>
+     * 每个Hash先完整写入临时键再RENAME覆盖，统计与覆盖之间投递的事件可能被覆盖，偏差在下次校准时修正。
+     */
+    @Scheduled(initialDelayString = "${eleme.order.counter.reconcile-initial-delay-millis:15000}",
+            fixedDelayString = "${eleme.order.counter.reconcile-interval-millis:3600000}")
+    public void reconcile() {
+        DistributedLock.LockInfo lock = distributedLock.tryLock(RECONCILE_LOCK_KEY, 30, TimeUnit.MINUTES);
+        if (lock == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+
+            Map<String, Object> stateCounts = new LinkedHashMap<>();
+            for (OrderState state : OrderState.values()) {
+                stateCounts.put(String.valueOf(state.getCode()), 0L);
+            }
+            userOrderMapper.countGroupByState()
+                    .forEach(row -> stateCounts.put(row.getGroupKey(), row.getOrderCount()));
+            String stateRebuildKey = STATE_KEY + REBUILD_SUFFIX;
+            redisTemplate.delete(stateRebuildKey);
+            redisTemplate.opsForHash().putAll(stateRebuildKey, stateCounts);
+            redisTemplate.rename(stateRebuildKey, STATE_KEY);
+
+            int users = reconcilePaged(USER_KEY, after -> userOrderMapper.countGroupByUserPhone(after, reconcilePageSize));
+            int businesses = reconcilePaged(BUSINESS_KEY, after -> userOrderMapper.countGroupByBusinessId(
+                    after == null ? null : Integer.valueOf(after), reconcilePageSize));
+
+            redisTemplate.opsForValue().set(READY_KEY, "1");
+            ready = true;
+            log.info("订单计数校准完成: 用户 {}, 商家 {}, 耗时: {}ms", users, businesses, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("订单计数校准失败", e);
+        } finally {
+            distributedLock.unlock(lock);
+        }
+    }
+
+    /**
+     * 按分组键升序分页统计并写入临时Hash，每页一条HSET，全部写完后RENAME覆盖正式Hash
+     */
+    private int reconcilePaged(String key, Function<String, List<GroupCount>> pageLoader) {
+        String rebuildKey = key + REBUILD_SUFFIX;
+        // 清除上次校准中断时残留的临时Hash
+        redisTemplate.delete(rebuildKey);
+        int total = 0;
+        String after = null;
+        List<GroupCount> page;
+        do {
+            page = pageLoader.apply(after);
+            if (page.isEmpty()) {
+                break;
+            }
+            Map<String, Object> counts = new LinkedHashMap<>();
+            page.forEach(row -> counts.put(row.getGroupKey(), row.getOrderCount()));
+            redisTemplate.opsForHash().putAll(rebuildKey, counts);
+            total += page.size();
+            after = page.get(page.size() - 1).getGroupKey();
+        } while (page.size() == reconcilePageSize);
+        if (total == 0) {
+            // 没有任何分组时临时Hash不存在，直接删除正式Hash
+            redisTemplate.delete(key);
+        } else {
+            redisTemplate.rename(rebuildKey, key);
+        }
+        return total;
+    }
+}
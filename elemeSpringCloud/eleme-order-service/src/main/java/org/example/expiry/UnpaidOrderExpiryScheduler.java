@@ -0,0 +1,177 @@
+package org.example.expiry;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.UserOrder;
+import org.example.lock.DistributedLock;
+import org.example.mapper.UserOrderMapper;
+import org.example.state.OrderStateMachine;
+import org.example.utils.OrderCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 未支付订单超时取消
+ * <p>
+ * 未支付订单登记在Redis有序集合 {@link #QUEUE_KEY} 中，分值为订单创建时间（毫秒）：
+ * <ul>
+ *     <li>登记：发件箱投递新建订单事件时加入，订单离开未支付状态时移除（见OrderOutboxDispatcher）</li>
+ *     <li>到期：定时按分值取出创建时间早于 now - ttl 的一批订单（now取数据库时间，与created_at同一时钟），
+ *     通过OrderStateMachine在一个事务中条件取消，已支付或已取消的订单不受影响；
+ *     已取消、已离开未支付状态或已删除的订单从集合中移除，仍为未支付且尚未超时的订单保留</li>
+ *     <li>恢复：启动时及之后定期沿 (state, created_at, id) 索引分页读取未支付订单重新登记，
+ *     覆盖Redis数据丢失或登记失败的情况，不扫描全表</li>
+ * </ul>
+ * 分值记录创建时间而非到期时间，修改超时时长后立即对已登记的订单生效。
+ * 多个节点可同时处理，条件更新保证同一订单只被取消一次。
+ */
+@Slf4j
+@Component
+public class UnpaidOrderExpiryScheduler {
+
+    /**
+     * 未支付订单有序集合，成员为订单ID，分值为创建时间（毫秒）
+     */
+    public static final String QUEUE_KEY = "order:expiry:unpaid";
+
+    private static final String RECONCILE_LOCK_KEY = "order:expiry:reconcile";
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private UserOrderMapper userOrderMapper;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DistributedLock distributedLock;
+
+    @Value("${eleme.order.expiry.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 未支付订单超时时长（分钟）
+     */
+    @Value("${eleme.order.expiry.ttl-minutes:15}")
+    private long ttlMinutes;
+
+    /**
+     * 每批取消的订单数
+     */
+    @Value("${eleme.order.expiry.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 每次调度最多处理的批次数
+     */
+    @Value("${eleme.order.expiry.max-batches-per-run:10}")
+    private int maxBatchesPerRun;
+
+    /**
+     * 订单在集合中的分值，即创建时间（毫秒）
+     */
+    public static double score(LocalDateTime createdAt) {
+        return createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 取消已超时的未支付订单
+     */
+    @Scheduled(fixedDelayString = "${eleme.order.expiry.poll-interval-millis:5000}")
+    public void expireDueOrders() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                LocalDateTime createdBefore = userOrderMapper.selectNow().minusMinutes(ttlMinutes);
+                Set<Object> due = redisTemplate.opsForZSet()
+                        .rangeByScore(QUEUE_KEY, 0, score(createdBefore), 0, batchSize);
+                if (due == null || due.isEmpty()) {
+                    return;
+                }
+                List<Integer> orderIds = due.stream()
+                        .map(member -> Integer.valueOf(member.toString()))
+                        .collect(Collectors.toList());
+                OrderStateMachine.ExpiryResult result = transactionTemplate.execute(
+                        status -> orderStateMachine.expireUnpaid(orderIds, createdBefore));
+                if (result == null) {
+                    return;
+                }
+                // 仍为未支付但尚未超时的订单保留在集合中，其余订单已取消、已离开未支付状态或已删除
+                Set<Integer> pending = new HashSet<>(result.pendingIds());
+                Object[] settled = orderIds.stream()
+                        .filter(orderId -> !pending.contains(orderId))
+                        .toArray();
+                if (settled.length > 0) {
+                    redisTemplate.opsForZSet().remove(QUEUE_KEY, settled);
+                }
+                log.info("取消超时未支付订单: {} 个, 候选 {} 个, 未超时 {} 个", result.cancelledIds().size(),
+                        orderIds.size(), result.pendingIds().size());
+                // 整批都未超时说明分值与数据库创建时间不一致，等待下次调度，避免重复取出同一批
+                if (due.size() < batchSize || settled.length == 0) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("取消超时未支付订单失败", e);
+        }
+    }
+
+    /**
+     * 按数据库重新登记全部未支付订单，启动后立即执行一次
+     */
+    @Scheduled(initialDelayString = "${eleme.order.expiry.reconcile-initial-delay-millis:10000}",
+            fixedDelayString = "${eleme.order.expiry.reconcile-interval-millis:3600000}")
+    public void reconcile() {
+        if (!enabled) {
+            return;
+        }
+        DistributedLock.LockInfo lock = distributedLock.tryLock(RECONCILE_LOCK_KEY, 10, TimeUnit.MINUTES);
+        if (lock == null) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            int total = 0;
+            OrderCursor cursor = null;
+            List<UserOrder> page;
+            do {
+                page = userOrderMapper.findUnpaidAfter(cursor, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                Set<ZSetOperations.TypedTuple<Object>> tuples = page.stream()
+                        .map(order -> new DefaultTypedTuple<Object>(order.getId(), score(order.getCreatedAt())))
+                        .collect(Collectors.toSet());
+                redisTemplate.opsForZSet().add(QUEUE_KEY, tuples);
+                total += page.size();
+                UserOrder last = page.get(page.size() - 1);
+                cursor = new OrderCursor(last.getCreatedAt(), last.getId());
+            } while (page.size() == batchSize);
+            log.info("未支付订单超时队列恢复完成: {} 个, 耗时: {}ms", total, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("未支付订单超时队列恢复失败", e);
+        } finally {
+            distributedLock.unlock(lock);
+        }
+    }
+}
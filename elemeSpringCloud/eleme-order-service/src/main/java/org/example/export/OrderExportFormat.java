@@ -0,0 +1,45 @@
+package org.example.export;
+
+import lombok.Getter;
+
+import java.util.Locale;
+
+/**
+ * 订单导出格式
+ */
+@Getter
+public enum OrderExportFormat {
+
+    /**
+     * 每行一个JSON对象
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 带表头的CSV，UTF-8编码并带BOM，便于Excel直接打开
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+
+    private final String extension;
+
+    OrderExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * 按名称解析导出格式，不区分大小写
+     */
+    public static OrderExportFormat of(String name) {
+        if (name == null) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("不支持的导出格式: " + name);
+        }
+    }
+}
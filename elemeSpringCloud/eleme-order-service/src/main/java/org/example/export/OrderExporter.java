@@ -0,0 +1,156 @@
+package org.example.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.example.entity.UserOrder;
+import org.example.mapper.UserOrderMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 订单流式导出
+ * <p>
+ * 通过MyBatis Cursor逐行读取（MySQL驱动流式结果集），每读一行立即写入输出流，
+ * 内存中只保留当前行和输出缓冲区，占用与导出范围大小无关。
+ * 读取期间占用一个数据库连接，在只读事务中执行。
+ */
+@Slf4j
+@Component
+public class OrderExporter {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<String> COLUMNS = List.of("id", "businessId", "userPhone", "state", "price", "deliveryFee",
+            "createdAt", "paidAt", "completedAt", "receiverName", "receiverPhone", "deliveryAddress", "remark");
+
+    private static final byte[] UTF8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+
+    @Autowired
+    private UserOrderMapper userOrderMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    /**
+     * 每写出多少行刷新一次输出流，刷新后数据以分块传输发送给客户端
+     */
+    @Value("${eleme.order.export.flush-rows:500}")
+    private int flushRows;
+
+    public OrderExporter(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * 导出商家在时间范围内的订单，按创建时间升序
+     *
+     * @return 导出行数
+     */
+    public long exportByBusinessIdAndTimeRange(Integer businessId, LocalDateTime startTime, LocalDateTime endTime,
+                                               OrderExportFormat format, OutputStream out) {
+        long start = System.currentTimeMillis();
+        Long rows = readOnlyTransaction.execute(status -> {
+            try (Cursor<UserOrder> cursor = userOrderMapper.streamByBusinessIdAndTimeRange(businessId, startTime, endTime)) {
+                return write(cursor, format, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        log.info("导出商家订单完成: {}, {} ~ {}, 格式: {}, 行数: {}, 耗时: {}ms",
+                businessId, startTime, endTime, format, rows, System.currentTimeMillis() - start);
+        return rows == null ? 0 : rows;
+    }
+
+    private long write(Cursor<UserOrder> cursor, OrderExportFormat format, OutputStream out) throws IOException {
+        if (format == OrderExportFormat.CSV) {
+            out.write(UTF8_BOM);
+        }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == OrderExportFormat.CSV) {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+        long count = 0;
+        for (UserOrder order : cursor) {
+            if (format == OrderExportFormat.CSV) {
+                writeCsvRow(writer, order);
+            } else {
+                writer.write(objectMapper.writeValueAsString(toRow(order)));
+                writer.write('\n');
+            }
+            if (++count % flushRows == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return count;
+    }
+
+    private void writeCsvRow(Writer writer, UserOrder order) throws IOException {
+        boolean first = true;
+        for (Object value : toRow(order).values()) {
+            if (!first) {
+                writer.write(',');
+            }
+            writer.write(csvField(value));
+            first = false;
+        }
+        writer.write("\r\n");
+    }
+
+    private Map<String, Object> toRow(UserOrder order) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", order.getId());
+        row.put("businessId", order.getBusinessId());
+        row.put("userPhone", order.getUserPhone());
+        row.put("state", order.getState());
+        row.put("price", order.getPrice());
+        row.put("deliveryFee", order.getDeliveryFee());
+        row.put("createdAt", format(order.getCreatedAt()));
+        row.put("paidAt", format(order.getPaidAt()));
+        row.put("completedAt", format(order.getCompletedAt()));
+        row.put("receiverName", order.getReceiverName());
+        row.put("receiverPhone", order.getReceiverPhone());
+        row.put("deliveryAddress", order.getDeliveryAddress());
+        row.put("remark", order.getRemark());
+        return row;
+    }
+
+    private String format(LocalDateTime time) {
+        return time == null ? null : time.format(DATE_TIME_FORMATTER);
+    }
+
+    /**
+     * CSV字段转义：包含逗号、引号或换行时用双引号包裹，内部双引号加倍
+     */
+    private String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            return '"' + text.replace("\"", "\"\"") + '"';
+        }
+        return text;
+    }
+}
@@ -1,10 +1,16 @@
 package org.example.feign;
 
+import feign.Request;
 import org.example.dto.R;
 import org.example.entity.Business;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.List;
 
 @FeignClient(value = "eleme-business-service", fallback = BusinessClientFallback.class)
 public interface BusinessClient {
@@ -16,4 +22,26 @@ public interface BusinessClient {
      */
     @GetMapping("/business/{id}")
     R<Business> getBusinessById(@PathVariable("id") Integer id);
+
+    /**
+     * 根据ID列表批量查询商家信息
+     * @param ids 商家ID列表
+     * @param includeFoods 是否包含食物列表
+     * @return 商家信息列表
+     */
+    @PostMapping("/business/batch")
+    R<List<Business>> getBusinessesByIds(@RequestBody List<Integer> ids,
+                                         @RequestParam("includeFoods") Boolean includeFoods);
+
+    /**
+     * 根据ID列表批量查询商家信息，使用本次调用指定的连接和读取超时
+     * @param ids 商家ID列表
+     * @param includeFoods 是否包含食物列表
+     * @param options 本次调用的超时设置
+     * @return 商家信息列表
+     */
+    @PostMapping("/business/batch")
+    R<List<Business>> getBusinessesByIds(@RequestBody List<Integer> ids,
+                                         @RequestParam("includeFoods") Boolean includeFoods,
+                                         Request.Options options);
 } 
\ No newline at end of file
@@ -1,10 +1,13 @@
 package org.example.feign;
 
+import feign.Request;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.R;
 import org.example.entity.Business;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 @Slf4j
 public class BusinessClientFallback implements BusinessClient {
@@ -14,4 +17,15 @@ public class BusinessClientFallback implements BusinessClient {
         log.error("调用商家服务失败，商家ID: {}", id);
         return R.error("商家服务暂时不可用");
     }
+
+    @Override
+    public R<List<Business>> getBusinessesByIds(List<Integer> ids, Boolean includeFoods) {
+        log.error("批量调用商家服务失败，商家ID列表: {}", ids);
+        return R.error("商家服务暂时不可用");
+    }
+
+    @Override
+    public R<List<Business>> getBusinessesByIds(List<Integer> ids, Boolean includeFoods, Request.Options options) {
+        return getBusinessesByIds(ids, includeFoods);
+    }
 } 
\ No newline at end of file
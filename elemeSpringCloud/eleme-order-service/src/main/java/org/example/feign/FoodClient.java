@@ -1,5 +1,6 @@
 package org.example.feign;
 
+import feign.Request;
 import org.example.dto.R;
 import org.example.entity.Food;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -36,4 +37,13 @@ public interface FoodClient {
      */
     @GetMapping("/food/business/{businessId}/onsale")
     R<List<Food>> getOnSaleFoodsByBusinessId(@PathVariable("businessId") Integer businessId);
+
+    /**
+     * 根据商家ID查询上架食物，使用本次调用指定的连接和读取超时
+     * @param businessId 商家ID
+     * @param options 本次调用的超时设置
+     * @return 食物列表
+     */
+    @GetMapping("/food/business/{businessId}/onsale")
+    R<List<Food>> getOnSaleFoodsByBusinessId(@PathVariable("businessId") Integer businessId, Request.Options options);
 } 
\ No newline at end of file
@@ -1,5 +1,6 @@
 package org.example.feign;
 
+import feign.Request;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.R;
 import org.example.entity.Food;
@@ -28,4 +29,9 @@ public class FoodClientFallback implements FoodClient {
         log.error("调用食物服务失败，商家ID: {}", businessId);
         return R.error("食物服务暂时不可用");
     }
+
+    @Override
+    public R<List<Food>> getOnSaleFoodsByBusinessId(Integer businessId, Request.Options options) {
+        return getOnSaleFoodsByBusinessId(businessId);
+    }
 } 
\ No newline at end of file
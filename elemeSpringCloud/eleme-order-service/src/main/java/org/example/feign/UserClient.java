@@ -1,5 +1,6 @@
 package org.example.feign;
 
+import feign.Request;
 import org.example.dto.R;
 import org.example.entity.User;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -17,6 +18,15 @@ public interface UserClient {
     @GetMapping("/user/phone/{phone}")
     R<User> getUserByPhone(@PathVariable("phone") String phone);
 
+    /**
+     * 根据手机号查询用户信息，使用本次调用指定的连接和读取超时
+     * @param phone 手机号
+     * @param options 本次调用的超时设置
+     * @return 用户信息
+     */
+    @GetMapping("/user/phone/{phone}")
+    R<User> getUserByPhone(@PathVariable("phone") String phone, Request.Options options);
+
     /**
      * 根据ID查询用户信息
      * @param id 用户ID
@@ -1,5 +1,6 @@
 package org.example.feign;
 
+import feign.Request;
 import lombok.extern.slf4j.Slf4j;
 import org.example.dto.R;
 import org.example.entity.User;
@@ -15,6 +16,11 @@ public class UserClientFallback implements UserClient {
         return R.error("用户服务暂时不可用");
     }
 
+    @Override
+    public R<User> getUserByPhone(String phone, Request.Options options) {
+        return getUserByPhone(phone);
+    }
+
     @Override
     public R<User> getUserById(Integer id) {
         log.error("调用用户服务失败，用户ID: {}", id);
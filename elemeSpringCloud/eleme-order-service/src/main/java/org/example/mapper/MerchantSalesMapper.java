@@ -0,0 +1,101 @@
+package org.example.mapper;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.dto.MerchantSalesDTO;
+import org.example.dto.SalesSummaryDTO;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+@Repository
+public interface MerchantSalesMapper {
+
+    /**
+     * 一批发件箱事件中计入汇总的部分：新建订单按创建时间计入下单数，支付按支付时间计入支付数和成交额
+     * 订单在投递前被删除时按事件时间计入，金额为0
+     */
+    String SALES_EVENTS = "SELECT o.business_id, " +
+            "CASE WHEN o.event_type = 'CREATED' THEN COALESCE(u.created_at, o.created_at) " +
+            "ELSE COALESCE(u.paid_at, o.created_at) END AS event_time, " +
+            "CASE WHEN o.event_type = 'CREATED' THEN 1 ELSE 0 END AS order_count, " +
+            "CASE WHEN o.event_type = 'CREATED' THEN 0 ELSE 1 END AS paid_count, " +
+            "CASE WHEN o.event_type = 'CREATED' THEN 0 ELSE COALESCE(u.price, 0) END AS gmv " +
+            "FROM order_outbox o LEFT JOIN user_order u ON u.id = o.order_id " +
+            "WHERE o.business_id IS NOT NULL AND (o.event_type = 'CREATED' OR (o.event_type = 'STATE_CHANGED' AND o.to_state = 1)) " +
+            "AND o.id IN <foreach collection='eventIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>";
+
+    /**
+     * 将一批发件箱事件累加到小时汇总
+     * @param eventIds 发件箱事件ID
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO merchant_sales_hourly (business_id, bucket_start, order_count, paid_count, gmv) " +
+            "SELECT * FROM (SELECT e.business_id, DATE_FORMAT(e.event_time, '%Y-%m-%d %H:00:00') AS bucket_start, " +
+            "SUM(e.order_count) AS order_count, SUM(e.paid_count) AS paid_count, SUM(e.gmv) AS gmv " +
+            "FROM (" + SALES_EVENTS + ") e GROUP BY e.business_id, bucket_start) t " +
+            "ON DUPLICATE KEY UPDATE order_count = merchant_sales_hourly.order_count + t.order_count, " +
+            "paid_count = merchant_sales_hourly.paid_count + t.paid_count, gmv = merchant_sales_hourly.gmv + t.gmv" +
+            "</script>")
+    int accumulateHourly(@Param("eventIds") List<Long> eventIds);
+
+    /**
+     * 将一批发件箱事件累加到日汇总
+     * @param eventIds 发件箱事件ID
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO merchant_sales_daily (business_id, bucket_date, order_count, paid_count, gmv) " +
+            "SELECT * FROM (SELECT e.business_id, DATE(e.event_time) AS bucket_date, " +
+            "SUM(e.order_count) AS order_count, SUM(e.paid_count) AS paid_count, SUM(e.gmv) AS gmv " +
+            "FROM (" + SALES_EVENTS + ") e GROUP BY e.business_id, bucket_date) t " +
+            "ON DUPLICATE KEY UPDATE order_count = merchant_sales_daily.order_count + t.order_count, " +
+            "paid_count = merchant_sales_daily.paid_count + t.paid_count, gmv = merchant_sales_daily.gmv + t.gmv" +
+            "</script>")
+    int accumulateDaily(@Param("eventIds") List<Long> eventIds);
+
+    /**
+     * 查询商家按小时汇总
+     * @param businessId 商家ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 按时间升序的小时汇总
+     */
+    @Select("SELECT business_id, bucket_start, order_count, paid_count, gmv, " +
+            "IF(paid_count = 0, 0, ROUND(gmv / paid_count, 2)) AS average_ticket " +
+            "FROM merchant_sales_hourly WHERE business_id = #{businessId} " +
+            "AND bucket_start BETWEEN #{startTime} AND #{endTime} ORDER BY bucket_start")
+    List<MerchantSalesDTO> findHourly(@Param("businessId") Integer businessId,
+                                      @Param("startTime") LocalDateTime startTime,
+                                      @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 查询商家按天汇总
+     * @param businessId 商家ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 按日期升序的日汇总
+     */
+    @Select("SELECT business_id, TIMESTAMP(bucket_date) AS bucket_start, order_count, paid_count, gmv, " +
+            "IF(paid_count = 0, 0, ROUND(gmv / paid_count, 2)) AS average_ticket " +
+            "FROM merchant_sales_daily WHERE business_id = #{businessId} " +
+            "AND bucket_date BETWEEN #{startDate} AND #{endDate} ORDER BY bucket_date")
+    List<MerchantSalesDTO> findDaily(@Param("businessId") Integer businessId,
+                                     @Param("startDate") LocalDate startDate,
+                                     @Param("endDate") LocalDate endDate);
+
+    /**
+     * 汇总全部商家某一天的销售，走 bucket_date 索引
+     * @param date 日期
+     * @return 销售概况，totalOrders未填充
+     */
+    @Select("SELECT COALESCE(SUM(order_count), 0) AS today_orders, COALESCE(SUM(paid_count), 0) AS today_paid_orders, " +
+            "COALESCE(SUM(gmv), 0) AS today_gmv FROM merchant_sales_daily WHERE bucket_date = #{date}")
+    SalesSummaryDTO sumDaily(@Param("date") LocalDate date);
+}
@@ -0,0 +1,60 @@
+package org.example.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.example.entity.OrderItem;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Mapper
+@Repository
+public interface OrderItemMapper extends BaseMapper<OrderItem> {
+
+    /**
+     * 批量插入订单明细，一条INSERT语句写入整单
+     * @param items 订单明细列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO order_item (order_id, food_id, quantity, unit_price, created_at) VALUES " +
+            "<foreach collection='items' item='item' separator=','>" +
+            "(#{item.orderId}, #{item.foodId}, #{item.quantity}, #{item.unitPrice}, #{item.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("items") List<OrderItem> items);
+
+    /**
+     * 根据订单ID查询订单明细
+     * @param orderId 订单ID
+     * @return 订单明细列表
+     */
+    @Select("SELECT * FROM order_item WHERE order_id = #{orderId} ORDER BY id")
+    List<OrderItem> findByOrderId(Integer orderId);
+
+    /**
+     * 批量查询多个订单的明细
+     * @param orderIds 订单ID列表
+     * @return 订单明细列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM order_item WHERE order_id IN " +
+            "<foreach collection='orderIds' item='orderId' open='(' separator=',' close=')'>" +
+            "#{orderId}" +
+            "</foreach>" +
+            " ORDER BY order_id, id" +
+            "</script>")
+    List<OrderItem> findByOrderIds(@Param("orderIds") List<Integer> orderIds);
+
+    /**
+     * 删除订单的全部明细
+     * @param orderId 订单ID
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM order_item WHERE order_id = #{orderId}")
+    int deleteByOrderId(Integer orderId);
+}
@@ -0,0 +1,117 @@
+package org.example.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.example.entity.OrderOutbox;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+@Repository
+public interface OrderOutboxMapper extends BaseMapper<OrderOutbox> {
+
+    /**
+     * 按订单当前数据写入一条待投递事件，用户手机号和商家ID直接从user_order读取，无需先查询订单
+     * @param orderId 订单ID
+     * @param eventType 事件类型
+     * @param fromState 变更前状态
+     * @param toState 变更后状态
+     * @return 插入行数，订单不存在时为0
+     */
+    @Insert("INSERT INTO order_outbox (order_id, user_phone, business_id, event_type, from_state, to_state, status, attempts, created_at) " +
+            "SELECT id, user_phone, business_id, #{eventType}, #{fromState}, #{toState}, 0, 0, NOW() " +
+            "FROM user_order WHERE id = #{orderId}")
+    int insertFromOrder(@Param("orderId") Integer orderId,
+                        @Param("eventType") String eventType,
+                        @Param("fromState") Integer fromState,
+                        @Param("toState") Integer toState);
+
+    /**
+     * 批量写入待投递事件，一条INSERT语句写入全部事件
+     * @param events 事件列表
+     * @return 插入行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO order_outbox (order_id, user_phone, business_id, event_type, from_state, to_state, status, attempts, created_at) VALUES " +
+            "<foreach collection='events' item='event' separator=','>" +
+            "(#{event.orderId}, #{event.userPhone}, #{event.businessId}, #{event.eventType}, #{event.fromState}, #{event.toState}, 0, 0, NOW())" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("events") List<OrderOutbox> events);
+
+    /**
+     * 锁定一批到期的待投递事件，需在事务中调用，随后在同一事务中续租
+     * SKIP LOCKED 跳过其他节点正在领取的行，多个节点可以同时领取不同批次
+     * @param limit 批次大小
+     * @return 待投递事件列表
+     */
+    @Select("SELECT * FROM order_outbox WHERE status = 0 AND next_attempt_at <= NOW() " +
+            "ORDER BY id LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<OrderOutbox> lockDueBatch(@Param("limit") int limit);
+
+    /**
+     * 为已锁定的事件续租：把下次投递时间推迟到租约到期，提交后其他节点在租约内不会再取到这些事件
+     * @param ids 事件ID列表
+     * @param leaseSeconds 租约时长（秒）
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE order_outbox SET next_attempt_at = DATE_ADD(NOW(), INTERVAL #{leaseSeconds} SECOND) " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int lease(@Param("ids") List<Long> ids, @Param("leaseSeconds") long leaseSeconds);
+
+    /**
+     * 锁定仍为待投递的事件，需在事务中调用；租约过期后被其他节点投递完成的事件不再返回
+     * @param ids 事件ID列表
+     * @return 仍待投递的事件ID
+     */
+    @Select("<script>" +
+            "SELECT id FROM order_outbox WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " FOR UPDATE" +
+            "</script>")
+    List<Long> lockPending(@Param("ids") List<Long> ids);
+
+    /**
+     * 标记事件已投递
+     * @param ids 事件ID列表
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE order_outbox SET status = 1, dispatched_at = NOW() WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markDispatched(@Param("ids") List<Long> ids);
+
+    /**
+     * 记录投递失败，按失败次数指数退避，最长间隔为maxDelaySeconds
+     * @param ids 事件ID列表
+     * @param maxDelaySeconds 最长重试间隔（秒）
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE order_outbox SET attempts = attempts + 1, " +
+            "next_attempt_at = DATE_ADD(NOW(), INTERVAL LEAST(POW(2, attempts), #{maxDelaySeconds}) SECOND) " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int markFailed(@Param("ids") List<Long> ids, @Param("maxDelaySeconds") long maxDelaySeconds);
+
+    /**
+     * 分批删除早于指定时间投递的事件
+     * @param before 投递时间上限
+     * @param limit 单次删除条数
+     * @return 删除行数
+     */
+    @Delete("DELETE FROM order_outbox WHERE status = 1 AND dispatched_at < #{before} LIMIT #{limit}")
+    int deleteDispatchedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
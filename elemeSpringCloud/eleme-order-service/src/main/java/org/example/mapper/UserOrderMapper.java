@@ -2,18 +2,37 @@ package org.example.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.example.counter.GroupCount;
 import org.example.entity.UserOrder;
+import org.example.money.Money;
+import org.example.utils.OrderCursor;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
 @Repository
 public interface UserOrderMapper extends BaseMapper<UserOrder> {
 
+    /**
+     * 游标分页条件：取排在游标 (created_at, id) 之后的订单，配合 ORDER BY created_at DESC, id DESC 使用
+     */
+    String KEYSET_CONDITION = "<if test='cursor != null'>" +
+            " AND (created_at &lt; #{cursor.createdAt} OR (created_at = #{cursor.createdAt} AND id &lt; #{cursor.id}))" +
+            "</if>";
+
+    /**
+     * 游标分页排序和条数
+     */
+    String KEYSET_ORDER = " ORDER BY created_at DESC, id DESC LIMIT #{limit}";
+
     /**
      * 根据用户手机号查询订单
      * @param userPhone 用户手机号
@@ -39,21 +58,21 @@ public interface UserOrderMapper extends BaseMapper<UserOrder> {
     List<UserOrder> findAllByState(Integer state);
 
     /**
-     * 根据用户手机号和订单状态查询订单
+     * 根据用户手机号和订单状态查询订单，走 (user_phone, state, created_at, id) 索引，无需额外排序
      * @param userPhone 用户手机号
      * @param state 订单状态
      * @return 订单列表
      */
-    @Select("SELECT * FROM user_order WHERE user_phone = #{userPhone} AND state = #{state} ORDER BY created_at DESC")
+    @Select("SELECT * FROM user_order WHERE user_phone = #{userPhone} AND state = #{state} ORDER BY created_at DESC, id DESC")
     List<UserOrder> findAllByUserPhoneAndState(String userPhone, Integer state);
 
     /**
-     * 根据商家ID和订单状态查询订单
+     * 根据商家ID和订单状态查询订单，走 (business_id, state, created_at, id) 索引，无需额外排序
      * @param businessId 商家ID
      * @param state 订单状态
      * @return 订单列表
      */
-    @Select("SELECT * FROM user_order WHERE business_id = #{businessId} AND state = #{state} ORDER BY created_at DESC")
+    @Select("SELECT * FROM user_order WHERE business_id = #{businessId} AND state = #{state} ORDER BY created_at DESC, id DESC")
     List<UserOrder> findAllByBusinessIdAndState(Integer businessId, Integer state);
 
     /**
@@ -80,6 +99,39 @@ public interface UserOrderMapper extends BaseMapper<UserOrder> {
     @Select("SELECT COUNT(*) FROM user_order WHERE state = #{state}")
     Integer countByState(Integer state);
 
+    /**
+     * 按订单状态分组统计订单数量，用于校准计数器
+     * @return 各状态订单数量
+     */
+    @Select("SELECT CAST(state AS CHAR) AS group_key, COUNT(*) AS order_count FROM user_order GROUP BY state")
+    List<GroupCount> countGroupByState();
+
+    /**
+     * 按用户手机号升序分页分组统计订单数量，走 (user_phone, created_at, id) 索引
+     * @param after 上一页最后一个手机号，为null时从头开始
+     * @param limit 分组数
+     * @return 各用户订单数量
+     */
+    @Select("<script>" +
+            "SELECT user_phone AS group_key, COUNT(*) AS order_count FROM user_order" +
+            "<if test='after != null'> WHERE user_phone &gt; #{after}</if>" +
+            " GROUP BY user_phone ORDER BY user_phone LIMIT #{limit}" +
+            "</script>")
+    List<GroupCount> countGroupByUserPhone(@Param("after") String after, @Param("limit") Integer limit);
+
+    /**
+     * 按商家ID升序分页分组统计订单数量，走 (business_id, created_at, id) 索引
+     * @param after 上一页最后一个商家ID，为null时从头开始
+     * @param limit 分组数
+     * @return 各商家订单数量
+     */
+    @Select("<script>" +
+            "SELECT CAST(business_id AS CHAR) AS group_key, COUNT(*) AS order_count FROM user_order" +
+            "<if test='after != null'> WHERE business_id &gt; #{after}</if>" +
+            " GROUP BY business_id ORDER BY business_id LIMIT #{limit}" +
+            "</script>")
+    List<GroupCount> countGroupByBusinessId(@Param("after") Integer after, @Param("limit") Integer limit);
+
     /**
      * 更新订单状态
      * @param id 订单ID
@@ -90,24 +142,102 @@ public interface UserOrderMapper extends BaseMapper<UserOrder> {
     int updateStateById(@Param("id") Integer id, @Param("state") Integer state);
 
     /**
-     * 根据用户手机号和时间范围查询订单
+     * 查询数据库当前时间，超时判断与created_at使用同一时钟
+     * @return 数据库当前时间
+     */
+    @Select("SELECT NOW()")
+    LocalDateTime selectNow();
+
+    /**
+     * 锁定一批订单并读取其当前状态，需在事务中调用；只读取状态迁移和缓存失效所需的列
+     * @param ids 订单ID列表，按ID升序加锁以减少死锁
+     * @return 存在的订单
+     */
+    @Select("<script>" +
+            "SELECT id, user_phone, business_id, state, created_at FROM user_order WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<UserOrder> lockStatesByIds(@Param("ids") List<Integer> ids);
+
+    /**
+     * 按 (created_at, id) 升序游标分页查询未支付订单，走 (state, created_at, id) 索引，只读索引不回表
+     * @param cursor 上一页最后一条订单，为null时从头开始
+     * @param limit 查询条数
+     * @return 订单列表，只包含ID和创建时间
+     */
+    @Select("<script>" +
+            "SELECT id, created_at FROM user_order WHERE state = 0 AND created_at IS NOT NULL" +
+            "<if test='cursor != null'>" +
+            " AND (created_at &gt; #{cursor.createdAt} OR (created_at = #{cursor.createdAt} AND id &gt; #{cursor.id}))" +
+            "</if>" +
+            " ORDER BY created_at, id LIMIT #{limit}" +
+            "</script>")
+    List<UserOrder> findUnpaidAfter(@Param("cursor") OrderCursor cursor, @Param("limit") Integer limit);
+
+    /**
+     * 批量条件更新订单状态：仅更新当前状态属于fromStates的订单
+     * @param ids 订单ID列表
+     * @param fromStates 允许的源状态
+     * @param toState 目标状态
+     * @param markPaid 是否记录支付时间
+     * @param markCompleted 是否记录完成时间
+     * @return 更新行数
+     */
+    @Update("<script>" +
+            "UPDATE user_order SET state = #{toState}" +
+            "<if test='markPaid'>, paid_at = NOW()</if>" +
+            "<if test='markCompleted'>, completed_at = NOW()</if>" +
+            " WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            " AND state IN " +
+            "<foreach collection='fromStates' item='fromState' open='(' separator=',' close=')'>#{fromState}</foreach>" +
+            "</script>")
+    int compareAndSetStates(@Param("ids") List<Integer> ids,
+                            @Param("fromStates") List<Integer> fromStates,
+                            @Param("toState") Integer toState,
+                            @Param("markPaid") boolean markPaid,
+                            @Param("markCompleted") boolean markCompleted);
+
+    /**
+     * 根据用户手机号和时间范围查询订单，走 (user_phone, created_at, id) 索引做范围扫描
      * @param userPhone 用户手机号
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @return 订单列表
      */
-    @Select("SELECT * FROM user_order WHERE user_phone = #{userPhone} AND created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at DESC")
-    List<UserOrder> findOrdersByUserPhoneAndTimeRange(String userPhone, String startTime, String endTime);
+    @Select("SELECT * FROM user_order WHERE user_phone = #{userPhone} AND created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at DESC, id DESC")
+    List<UserOrder> findOrdersByUserPhoneAndTimeRange(@Param("userPhone") String userPhone,
+                                                      @Param("startTime") LocalDateTime startTime,
+                                                      @Param("endTime") LocalDateTime endTime);
 
     /**
-     * 根据商家ID和时间范围查询订单
+     * 根据商家ID和时间范围查询订单，走 (business_id, created_at, id) 索引做范围扫描
      * @param businessId 商家ID
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @return 订单列表
      */
-    @Select("SELECT * FROM user_order WHERE business_id = #{businessId} AND created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at DESC")
-    List<UserOrder> findOrdersByBusinessIdAndTimeRange(Integer businessId, String startTime, String endTime);
+    @Select("SELECT * FROM user_order WHERE business_id = #{businessId} AND created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at DESC, id DESC")
+    List<UserOrder> findOrdersByBusinessIdAndTimeRange(@Param("businessId") Integer businessId,
+                                                       @Param("startTime") LocalDateTime startTime,
+                                                       @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 流式读取商家在时间范围内的订单，按创建时间升序，走 (business_id, created_at, id) 索引
+     * fetchSize 为 Integer.MIN_VALUE 时MySQL驱动逐行返回结果，不在内存中缓存整个结果集；需在事务中遍历
+     * @param businessId 商家ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 订单游标
+     */
+    @Select("SELECT id, business_id, user_phone, state, price, delivery_fee, created_at, paid_at, completed_at, " +
+            "receiver_name, receiver_phone, delivery_address, remark FROM user_order " +
+            "WHERE business_id = #{businessId} AND created_at BETWEEN #{startTime} AND #{endTime} ORDER BY created_at, id")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserOrder> streamByBusinessIdAndTimeRange(@Param("businessId") Integer businessId,
+                                                     @Param("startTime") LocalDateTime startTime,
+                                                     @Param("endTime") LocalDateTime endTime);
 
     /**
      * 根据价格范围查询订单
@@ -116,7 +246,7 @@ public interface UserOrderMapper extends BaseMapper<UserOrder> {
      * @return 订单列表
      */
     @Select("SELECT * FROM user_order WHERE price >= #{minPrice} AND price <= #{maxPrice} ORDER BY created_at DESC")
-    List<UserOrder> findOrdersByPriceRange(Double minPrice, Double maxPrice);
+    List<UserOrder> findOrdersByPriceRange(Money minPrice, Money maxPrice);
 
     /**
      * 查询热门订单（按创建时间最近）
@@ -125,4 +255,102 @@ public interface UserOrderMapper extends BaseMapper<UserOrder> {
      */
     @Select("SELECT * FROM user_order ORDER BY created_at DESC LIMIT #{limit}")
     List<UserOrder> findRecentOrders(Integer limit);
-} 
\ No newline at end of file
+
+    /**
+     * 查询全部订单ID，用于构建存在性过滤器
+     * @return 订单ID列表
+     */
+    @Select("SELECT id FROM user_order")
+    List<Integer> findAllIds();
+
+    /**
+     * 查询最大订单ID，用于存在性过滤器放行新增订单
+     * @return 最大ID，表为空时为null
+     */
+    @Select("SELECT MAX(id) FROM user_order")
+    Long findMaxId();
+
+    /**
+     * 游标分页查询用户订单，走 (user_phone, created_at, id) 索引
+     * @param userPhone 用户手机号
+     * @param state 订单状态，为null时不过滤
+     * @param startTime 开始时间，为null时不过滤
+     * @param endTime 结束时间，为null时不过滤
+     * @param cursor 游标，为null时查询第一页
+     * @param limit 查询条数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM user_order WHERE user_phone = #{userPhone}" +
+            "<if test='state != null'> AND state = #{state}</if>" +
+            "<if test='startTime != null'> AND created_at &gt;= #{startTime}</if>" +
+            "<if test='endTime != null'> AND created_at &lt;= #{endTime}</if>" +
+            KEYSET_CONDITION +
+            KEYSET_ORDER +
+            "</script>")
+    List<UserOrder> findPageByUserPhone(@Param("userPhone") String userPhone,
+                                        @Param("state") Integer state,
+                                        @Param("startTime") LocalDateTime startTime,
+                                        @Param("endTime") LocalDateTime endTime,
+                                        @Param("cursor") OrderCursor cursor,
+                                        @Param("limit") Integer limit);
+
+    /**
+     * 游标分页查询商家订单，走 (business_id, created_at, id) 索引
+     * @param businessId 商家ID
+     * @param state 订单状态，为null时不过滤
+     * @param startTime 开始时间，为null时不过滤
+     * @param endTime 结束时间，为null时不过滤
+     * @param cursor 游标，为null时查询第一页
+     * @param limit 查询条数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM user_order WHERE business_id = #{businessId}" +
+            "<if test='state != null'> AND state = #{state}</if>" +
+            "<if test='startTime != null'> AND created_at &gt;= #{startTime}</if>" +
+            "<if test='endTime != null'> AND created_at &lt;= #{endTime}</if>" +
+            KEYSET_CONDITION +
+            KEYSET_ORDER +
+            "</script>")
+    List<UserOrder> findPageByBusinessId(@Param("businessId") Integer businessId,
+                                         @Param("state") Integer state,
+                                         @Param("startTime") LocalDateTime startTime,
+                                         @Param("endTime") LocalDateTime endTime,
+                                         @Param("cursor") OrderCursor cursor,
+                                         @Param("limit") Integer limit);
+
+    /**
+     * 游标分页查询特定状态的订单，走 (state, created_at, id) 索引
+     * @param state 订单状态
+     * @param cursor 游标，为null时查询第一页
+     * @param limit 查询条数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM user_order WHERE state = #{state}" +
+            KEYSET_CONDITION +
+            KEYSET_ORDER +
+            "</script>")
+    List<UserOrder> findPageByState(@Param("state") Integer state,
+                                    @Param("cursor") OrderCursor cursor,
+                                    @Param("limit") Integer limit);
+
+    /**
+     * 游标分页按价格范围查询订单
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param cursor 游标，为null时查询第一页
+     * @param limit 查询条数
+     * @return 订单列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM user_order WHERE price &gt;= #{minPrice} AND price &lt;= #{maxPrice}" +
+            KEYSET_CONDITION +
+            KEYSET_ORDER +
+            "</script>")
+    List<UserOrder> findPageByPriceRange(@Param("minPrice") Money minPrice,
+                                         @Param("maxPrice") Money maxPrice,
+                                         @Param("cursor") OrderCursor cursor,
+                                         @Param("limit") Integer limit);
+}
@@ -0,0 +1,244 @@
+package org.example.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.cache.CacheService;
+import org.example.cache.ExistenceFilter;
+import org.example.constants.CommonConstants;
+import org.example.counter.OrderCounters;
+import org.example.dto.OrderChangeEvent;
+import org.example.entity.OrderOutbox;
+import org.example.expiry.UnpaidOrderExpiryScheduler;
+import org.example.mapper.MerchantSalesMapper;
+import org.example.mapper.OrderOutboxMapper;
+import org.example.state.OrderState;
+import org.example.utils.OrderCacheKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 订单事件发件箱投递
+ * <p>
+ * 定时从order_outbox取一批待投递事件，按批次执行：
+ * <ul>
+ *     <li>合并整批事件涉及的缓存键，一条DEL命令删除</li>
+ *     <li>通过管道一次性广播整批OrderChangeEvent，同时更新未支付订单超时队列和订单计数</li>
+ *     <li>新建订单加入存在性过滤器</li>
+ * </ul>
+ * 每批分三步，数据库行锁只在两个短事务内持有，访问Redis时不持有任何行锁：
+ * <ol>
+ *     <li>领取：FOR UPDATE SKIP LOCKED 锁定一批到期事件，把下次投递时间推迟一个租约时长后立即提交，
+ *     租约内其他节点不会再取到这些事件</li>
+ *     <li>投递：在事务外删除缓存并广播事件</li>
+ *     <li>完成：重新锁定仍为待投递的事件，累加商家销售汇总并标记为已投递，汇总与事件一一对应，不会重复计入</li>
+ * </ol>
+ * 投递失败则按失败次数退避后重试；节点在租约内宕机或投递超过租约时长，租约到期后事件由其他节点重新投递。
+ * 投递语义为至少一次，事件可能重复，订单计数按事件ID去重（见OrderCounters）。
+ */
+@Slf4j
+@Component
+public class OrderOutboxDispatcher {
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private OrderOutboxMapper orderOutboxMapper;
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ExistenceFilter orderExistenceFilter;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private OrderCounters orderCounters;
+
+    @Autowired
+    private MerchantSalesMapper merchantSalesMapper;
+
+    /**
+     * 每批投递的事件数
+     */
+    @Value("${eleme.order.outbox.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 每次调度最多投递的批次数，积压时连续投递，避免单次调度占用过久
+     */
+    @Value("${eleme.order.outbox.max-batches-per-run:20}")
+    private int maxBatchesPerRun;
+
+    /**
+     * 投递失败后的最长重试间隔（秒）
+     */
+    @Value("${eleme.order.outbox.max-retry-delay-seconds:300}")
+    private long maxRetryDelaySeconds;
+
+    /**
+     * 领取事件的租约时长（秒），应大于一批事件的投递耗时
+     */
+    @Value("${eleme.order.outbox.lease-seconds:30}")
+    private long leaseSeconds;
+
+    /**
+     * 已投递事件保留时长（小时），商品服务的热销榜从发件箱拉取支付事件，停机超过该时长的销量不再补计
+     */
+    @Value("${eleme.order.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    /**
+     * 投递待投递事件，轮询间隔即缓存失效的最大延迟
+     */
+    @Scheduled(fixedDelayString = "${eleme.order.outbox.poll-interval-millis:200}")
+    public void dispatch() {
+        try {
+            for (int i = 0; i < maxBatchesPerRun; i++) {
+                if (dispatchBatch() < batchSize) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.error("订单事件投递失败", e);
+        }
+    }
+
+    /**
+     * 领取并投递一批事件，返回成功投递的数量
+     */
+    private int dispatchBatch() {
+        List<OrderOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = batch.stream().map(OrderOutbox::getId).collect(Collectors.toList());
+        try {
+            publish(batch);
+        } catch (Exception e) {
+            // 失败的事件退避后重试，本次调度不再继续
+            orderOutboxMapper.markFailed(ids, maxRetryDelaySeconds);
+            log.warn("订单事件投递失败，稍后重试: {} 条, 首个事件ID: {}", batch.size(), ids.get(0), e);
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> complete(ids));
+        log.debug("订单事件投递完成: {} 条", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * 锁定一批到期事件并续租，事务提交后释放行锁
+     */
+    private List<OrderOutbox> claimBatch() {
+        List<OrderOutbox> batch = orderOutboxMapper.lockDueBatch(batchSize);
+        if (!batch.isEmpty()) {
+            orderOutboxMapper.lease(batch.stream().map(OrderOutbox::getId).collect(Collectors.toList()), leaseSeconds);
+        }
+        return batch;
+    }
+
+    /**
+     * 累加商家销售汇总并标记已投递；租约过期后已被其他节点完成的事件跳过
+     */
+    private void complete(List<Long> ids) {
+        List<Long> pending = orderOutboxMapper.lockPending(ids);
+        if (pending.isEmpty()) {
+            return;
+        }
+        merchantSalesMapper.accumulateHourly(pending);
+        merchantSalesMapper.accumulateDaily(pending);
+        orderOutboxMapper.markDispatched(pending);
+    }
+
+    private void publish(List<OrderOutbox> batch) {
+        // 先加入存在性过滤器，再删除可能存在的空结果缓存
+        batch.stream()
+                .filter(event -> OrderChangeEvent.TYPE_CREATED.equals(event.getEventType()))
+                .forEach(event -> orderExistenceFilter.add(event.getOrderId()));
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (OrderOutbox event : batch) {
+            keys.addAll(OrderCacheKeys.affectedBy(event.getOrderId(), event.getUserPhone(), event.getBusinessId()));
+        }
+        cacheService.deleteOrThrow(keys);
+
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) {
+                RedisOperations<String, Object> redisOperations = (RedisOperations<String, Object>) operations;
+                ZSetOperations<String, Object> expiryQueue = redisOperations.opsForZSet();
+                for (OrderOutbox event : batch) {
+                    updateExpiryQueue(expiryQueue, event);
+                    orderCounters.apply(redisOperations, event);
+                    operations.convertAndSend(CommonConstants.ORDER_CHANGE_CHANNEL, toEvent(event));
+                }
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 新建的未支付订单登记到超时队列，订单离开未支付状态或被删除时移出
+     */
+    private void updateExpiryQueue(ZSetOperations<String, Object> expiryQueue, OrderOutbox event) {
+        int unpaid = OrderState.UNPAID.getCode();
+        if (OrderChangeEvent.TYPE_CREATED.equals(event.getEventType())) {
+            if (event.getToState() != null && event.getToState() == unpaid && event.getCreatedAt() != null) {
+                expiryQueue.add(UnpaidOrderExpiryScheduler.QUEUE_KEY, event.getOrderId(),
+                        UnpaidOrderExpiryScheduler.score(event.getCreatedAt()));
+            }
+        } else if (event.getFromState() != null && event.getFromState() == unpaid) {
+            expiryQueue.remove(UnpaidOrderExpiryScheduler.QUEUE_KEY, event.getOrderId());
+        }
+    }
+
+    private OrderChangeEvent toEvent(OrderOutbox outbox) {
+        return new OrderChangeEvent(outbox.getId(), outbox.getOrderId(), outbox.getUserPhone(), outbox.getBusinessId(),
+                outbox.getEventType(), outbox.getFromState(), outbox.getToState(), timestamp(outbox));
+    }
+
+    private static long timestamp(OrderOutbox outbox) {
+        return outbox.getCreatedAt() != null
+                ? outbox.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+
+    /**
+     * 清理超过保留时长的已投递事件
+     */
+    @Scheduled(fixedDelayString = "${eleme.order.outbox.purge-interval-millis:600000}")
+    public void purge() {
+        try {
+            LocalDateTime before = LocalDateTime.now().minusHours(retentionHours);
+            int total = 0;
+            int deleted;
+            do {
+                deleted = orderOutboxMapper.deleteDispatchedBefore(before, PURGE_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == PURGE_BATCH_SIZE);
+            if (total > 0) {
+                log.info("清理已投递订单事件: {} 条", total);
+            }
+        } catch (Exception e) {
+            log.error("清理已投递订单事件失败", e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.outbox;
+
+import org.example.dto.OrderChangeEvent;
+import org.example.entity.OrderOutbox;
+import org.example.entity.UserOrder;
+import org.example.mapper.OrderOutboxMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 订单事件发件箱写入
+ * <p>
+ * 必须在订单写操作所在的事务中调用：事务提交则事件一定会被投递，事务回滚则事件一并消失。
+ * 缓存清理和事件广播由OrderOutboxDispatcher在提交后异步完成，不计入写操作耗时。
+ */
+@Component
+public class OrderOutboxWriter {
+
+    @Autowired
+    private OrderOutboxMapper orderOutboxMapper;
+
+    /**
+     * 写入一条订单变更事件
+     *
+     * @param order     变更的订单，需包含ID、用户手机号和商家ID
+     * @param type      事件类型，取值见OrderChangeEvent
+     * @param fromState 变更前状态
+     * @param toState   变更后状态
+     */
+    public void append(UserOrder order, String type, Integer fromState, Integer toState) {
+        requireTransaction();
+        // created_at、next_attempt_at 取数据库默认值 CURRENT_TIMESTAMP，与投递查询中的 NOW() 使用同一时钟
+        OrderOutbox outbox = new OrderOutbox()
+                .setOrderId(order.getId())
+                .setUserPhone(order.getUserPhone())
+                .setBusinessId(order.getBusinessId())
+                .setEventType(type)
+                .setFromState(fromState)
+                .setToState(toState)
+                .setStatus(OrderOutbox.STATUS_PENDING)
+                .setAttempts(0);
+        if (orderOutboxMapper.insert(outbox) <= 0) {
+            throw new IllegalStateException("写入订单事件失败: " + order.getId());
+        }
+    }
+
+    /**
+     * 按订单ID写入一条订单变更事件，订单的用户手机号和商家ID由数据库在同一条语句中读取
+     *
+     * @param orderId   订单ID
+     * @param type      事件类型，取值见OrderChangeEvent
+     * @param fromState 变更前状态
+     * @param toState   变更后状态
+     */
+    public void appendForOrder(Integer orderId, String type, Integer fromState, Integer toState) {
+        requireTransaction();
+        if (orderOutboxMapper.insertFromOrder(orderId, type, fromState, toState) <= 0) {
+            throw new IllegalStateException("写入订单事件失败: " + orderId);
+        }
+    }
+
+    /**
+     * 批量写入订单状态变更事件，一条INSERT语句写入全部事件
+     *
+     * @param orders  变更的订单，state为变更前状态，需包含ID、用户手机号和商家ID
+     * @param toState 变更后状态
+     */
+    public void appendStateChanges(List<UserOrder> orders, Integer toState) {
+        requireTransaction();
+        if (orders.isEmpty()) {
+            return;
+        }
+        List<OrderOutbox> events = orders.stream()
+                .map(order -> new OrderOutbox()
+                        .setOrderId(order.getId())
+                        .setUserPhone(order.getUserPhone())
+                        .setBusinessId(order.getBusinessId())
+                        .setEventType(OrderChangeEvent.TYPE_STATE_CHANGED)
+                        .setFromState(order.getState())
+                        .setToState(toState))
+                .collect(Collectors.toList());
+        if (orderOutboxMapper.insertBatch(events) != events.size()) {
+            throw new IllegalStateException("批量写入订单事件失败: " + events.size());
+        }
+    }
+
+    private void requireTransaction() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("订单事件必须在事务中写入");
+        }
+    }
+}
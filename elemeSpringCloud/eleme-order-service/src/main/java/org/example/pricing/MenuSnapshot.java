@@ -0,0 +1,39 @@
+package org.example.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.entity.Food;
+
+import java.util.Map;
+
+/**
+ * 商家菜单快照，只包含在售商品，创建后不可变
+ */
+@Getter
+@AllArgsConstructor
+public class MenuSnapshot {
+
+    /**
+     * 商家ID
+     */
+    private final Integer businessId;
+
+    /**
+     * 快照版本，商家菜单每次变更加一
+     */
+    private final long version;
+
+    /**
+     * 在售商品，按商品ID索引
+     */
+    private final Map<Integer, Food> foods;
+
+    /**
+     * 加载时间戳（毫秒）
+     */
+    private final long loadedAtMillis;
+
+    public Food getFood(Integer foodId) {
+        return foods.get(foodId);
+    }
+}
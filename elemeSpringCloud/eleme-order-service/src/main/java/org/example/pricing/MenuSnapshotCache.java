@@ -0,0 +1,161 @@
+package org.example.pricing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import feign.Request;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.constants.CommonConstants;
+import org.example.dto.FoodChangeEvent;
+import org.example.dto.R;
+import org.example.entity.Food;
+import org.example.feign.FoodClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 商家菜单快照缓存
+ * 在本地内存中按商家缓存在售商品，下单计价直接读取快照，不再逐单调用食物服务。
+ * <ul>
+ *     <li>食物服务变更商品后通过Redis频道广播FoodChangeEvent，收到后对应商家的版本号加一并丢弃快照</li>
+ *     <li>加载前后版本号不一致说明加载期间菜单发生了变更，本次结果只用于当前请求，不写入缓存</li>
+ *     <li>快照设有最长存活时间，广播消息丢失时也能自动刷新</li>
+ *     <li>商家版本号同样有容量上限，并在快照最长存活时间之后过期；过期后版本号回落只会使快照判定为过期并重新加载，
+ *     因容量不足被淘汰时全局版本号加一，保证加载中的旧结果不会因版本号回落而被误缓存</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class MenuSnapshotCache implements MessageListener {
+
+    @Autowired
+    private FoodClient foodClient;
+
+    @Autowired
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${eleme.order.menu-snapshot.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${eleme.order.menu-snapshot.expire-minutes:10}")
+    private long expireMinutes;
+
+    /**
+     * 商家版本号，收到变更时加一
+     */
+    private Cache<Integer, Long> versions;
+
+    /**
+     * 全局版本号，无法确定变更商家时加一，使全部快照失效
+     */
+    private final AtomicLong globalVersion = new AtomicLong();
+
+    private Cache<Integer, MenuSnapshot> snapshots;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes + 1))
+                .executor(Runnable::run)
+                .removalListener((Integer businessId, Long version, RemovalCause cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        globalVersion.incrementAndGet();
+                    }
+                })
+                .build();
+        snapshots = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMinutes(expireMinutes))
+                .build();
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CommonConstants.FOOD_CHANGE_CHANNEL));
+        log.info("已订阅商品变更频道，用于刷新菜单快照");
+    }
+
+    /**
+     * 获取商家菜单快照，本地没有有效快照时从食物服务加载
+     * @param businessId 商家ID
+     * @param options 加载时调用食物服务的超时设置
+     * @return 菜单快照，食物服务不可用时返回null
+     */
+    public MenuSnapshot get(Integer businessId, Request.Options options) {
+        MenuSnapshot snapshot = snapshots.getIfPresent(businessId);
+        if (snapshot != null && snapshot.getVersion() == currentVersion(businessId)) {
+            return snapshot;
+        }
+        return load(businessId, options);
+    }
+
+    private MenuSnapshot load(Integer businessId, Request.Options options) {
+        long version = currentVersion(businessId);
+        R<List<Food>> foodResult = foodClient.getOnSaleFoodsByBusinessId(businessId, options);
+        if (!foodResult.isSuccess() || foodResult.getData() == null) {
+            log.error("加载商家菜单失败: {}", businessId);
+            return null;
+        }
+
+        Map<Integer, Food> foods = new HashMap<>();
+        for (Food food : foodResult.getData()) {
+            foods.put(food.getId(), food);
+        }
+        MenuSnapshot snapshot = new MenuSnapshot(businessId, version, Map.copyOf(foods), System.currentTimeMillis());
+
+        // 加载期间收到变更时不缓存，下次请求重新加载
+        if (currentVersion(businessId) == version) {
+            snapshots.asMap().merge(businessId, snapshot,
+                    (existing, loaded) -> existing.getVersion() > loaded.getVersion() ? existing : loaded);
+        }
+        log.debug("加载商家菜单快照: {}, 版本: {}, 商品数量: {}", businessId, version, foods.size());
+        return snapshot;
+    }
+
+    /**
+     * 商家当前版本号，两部分都只增不减，任一变更都会使其增大
+     */
+    private long currentVersion(Integer businessId) {
+        Long version = versions.getIfPresent(businessId);
+        return globalVersion.get() + (version != null ? version : 0L);
+    }
+
+    /**
+     * 商家菜单变更，版本号加一并丢弃快照
+     */
+    public void invalidate(Integer businessId) {
+        versions.asMap().merge(businessId, 1L, Long::sum);
+        snapshots.invalidate(businessId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof FoodChangeEvent event && event.getBusinessId() != null) {
+                invalidate(event.getBusinessId());
+                log.debug("商家菜单快照已失效: {}, 变更类型: {}", event.getBusinessId(), event.getType());
+            } else {
+                // 无法确定商家时清空全部快照
+                globalVersion.incrementAndGet();
+                snapshots.invalidateAll();
+                log.warn("无法识别的商品变更消息，已清空全部菜单快照: {}", payload);
+            }
+        } catch (Exception e) {
+            log.error("处理商品变更消息失败", e);
+        }
+    }
+}
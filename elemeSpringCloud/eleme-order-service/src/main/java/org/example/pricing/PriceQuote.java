@@ -0,0 +1,67 @@
+package org.example.pricing;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.example.money.Money;
+
+import java.util.List;
+
+/**
+ * 订单计价结果
+ */
+@Getter
+@AllArgsConstructor
+public class PriceQuote {
+
+    /**
+     * 计价明细，每种商品一行
+     */
+    private final List<Line> lines;
+
+    /**
+     * 商品合计（已扣除商品折扣）
+     */
+    private final Money itemsTotal;
+
+    /**
+     * 配送费
+     */
+    private final Money deliveryFee;
+
+    /**
+     * 应付总价
+     */
+    private final Money total;
+
+    /**
+     * 计价所用菜单快照版本
+     */
+    private final long menuVersion;
+
+    /**
+     * 计价明细行
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Line {
+
+        private final Integer foodId;
+
+        private final int quantity;
+
+        /**
+         * 商品现价
+         */
+        private final Money unitPrice;
+
+        /**
+         * 本行折扣优惠金额
+         */
+        private final Money discountAmount;
+
+        /**
+         * 本行小计（已扣除折扣）
+         */
+        private final Money lineTotal;
+    }
+}
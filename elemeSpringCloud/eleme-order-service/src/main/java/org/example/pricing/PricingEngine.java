@@ -0,0 +1,141 @@
+package org.example.pricing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.money.Money;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 订单计价引擎
+ * 根据菜单快照在服务端计算订单总价，不信任客户端传入的价格：
+ * <ul>
+ *     <li>单价取商品现价 redPrice，重复的商品ID累加数量</li>
+ *     <li>商品折扣取 discount 中可识别的规则：「N折」按比例打折，「满X减Y」为本行小计满X元减Y元，多条规则取优惠最大的一条，无法识别的规则忽略</li>
+ *     <li>配送费取商家 delivery 中标注为配送费的金额（如「起送¥20 配送¥3」取3元）；没有标注时忽略起送金额后取第一个金额，
+ *     「免配送费」或没有金额时为0</li>
+ * </ul>
+ * 金额以分为单位的整数计算，规则中的金额和按比例打折的优惠按分四舍五入
+ */
+@Slf4j
+@Component
+public class PricingEngine {
+
+    private static final Pattern RATE_PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?)折");
+
+    private static final Pattern FULL_REDUCTION_PATTERN = Pattern.compile("满(\\d+(?:\\.\\d+)?)减(\\d+(?:\\.\\d+)?)");
+
+    private static final Pattern DELIVERY_FEE_PATTERN = Pattern.compile("(?:配送费?|运费)[:：\\s约¥￥]*(\\d+(?:\\.\\d+)?)");
+
+    private static final Pattern MIN_ORDER_PATTERN =
+            Pattern.compile("起送[:：\\s¥￥]*\\d+(?:\\.\\d+)?元?|[¥￥]?\\d+(?:\\.\\d+)?元?\\s*起送");
+
+    private static final Pattern FREE_DELIVERY_PATTERN = Pattern.compile("免(?:配送费?|运费)");
+
+    private static final Pattern AMOUNT_PATTERN = Pattern.compile("(\\d+(?:\\.\\d+)?)");
+
+    /**
+     * 计算订单价格
+     * @param business 商家
+     * @param menu 商家菜单快照
+     * @param foodIds 下单商品ID列表，重复表示多份
+     * @return 计价结果
+     * @throws IllegalArgumentException 商品不在菜单中或没有价格
+     */
+    public PriceQuote quote(Business business, MenuSnapshot menu, List<Integer> foodIds) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Integer foodId : foodIds) {
+            quantities.merge(foodId, 1, Integer::sum);
+        }
+
+        List<PriceQuote.Line> lines = new ArrayList<>(quantities.size());
+        long itemsTotal = 0;
+        for (Map.Entry<Integer, Integer> entry : quantities.entrySet()) {
+            Food food = menu.getFood(entry.getKey());
+            if (food == null || food.getRedPrice() == null) {
+                throw new IllegalArgumentException("商品不存在或不可用: " + entry.getKey());
+            }
+            long unitPrice = food.getRedPrice().cents();
+            long subtotal = Math.multiplyExact(unitPrice, entry.getValue());
+            long discount = bestDiscount(food.getDiscountList(), subtotal);
+            long lineTotal = subtotal - discount;
+
+            lines.add(new PriceQuote.Line(food.getId(), entry.getValue(), Money.ofCents(unitPrice),
+                    Money.ofCents(discount), Money.ofCents(lineTotal)));
+            itemsTotal += lineTotal;
+        }
+
+        long deliveryFee = parseDeliveryFee(business);
+        return new PriceQuote(lines, Money.ofCents(itemsTotal), Money.ofCents(deliveryFee),
+                Money.ofCents(itemsTotal + deliveryFee), menu.getVersion());
+    }
+
+    /**
+     * 计算本行可享受的最大优惠（分），不超过本行小计
+     */
+    private long bestDiscount(List<String> discountList, long subtotal) {
+        long best = 0;
+        if (discountList == null) {
+            return best;
+        }
+        for (String rule : discountList) {
+            long discount = 0;
+            Matcher fullReduction = FULL_REDUCTION_PATTERN.matcher(rule);
+            Matcher rate = RATE_PATTERN.matcher(rule);
+            if (fullReduction.find()) {
+                long threshold = cents(fullReduction.group(1));
+                if (subtotal >= threshold) {
+                    discount = cents(fullReduction.group(2));
+                }
+            } else if (rate.find()) {
+                BigDecimal value = new BigDecimal(rate.group(1));
+                // 「8折」「8.5折」「85折」均表示原价的对应比例
+                BigDecimal ratio = value.compareTo(BigDecimal.TEN) < 0
+                        ? value.divide(BigDecimal.TEN)
+                        : value.divide(BigDecimal.valueOf(100));
+                if (ratio.compareTo(BigDecimal.ZERO) > 0 && ratio.compareTo(BigDecimal.ONE) < 0) {
+                    discount = BigDecimal.valueOf(subtotal).multiply(BigDecimal.ONE.subtract(ratio))
+                            .setScale(0, RoundingMode.HALF_UP).longValue();
+                }
+            }
+            best = Math.max(best, discount);
+        }
+        return Math.min(best, subtotal);
+    }
+
+    /**
+     * 解析商家配送费（分），如「配送费¥5」「起送¥20 配送¥3」「约3.5元」
+     */
+    private long parseDeliveryFee(Business business) {
+        if (business == null || business.getDelivery() == null) {
+            return 0;
+        }
+        String delivery = business.getDelivery();
+        Matcher labelled = DELIVERY_FEE_PATTERN.matcher(delivery);
+        if (labelled.find()) {
+            return cents(labelled.group(1));
+        }
+        if (FREE_DELIVERY_PATTERN.matcher(delivery).find()) {
+            return 0;
+        }
+        // 没有标注时去掉起送金额，剩余的第一个金额视为配送费
+        Matcher matcher = AMOUNT_PATTERN.matcher(MIN_ORDER_PATTERN.matcher(delivery).replaceAll(""));
+        return matcher.find() ? cents(matcher.group(1)) : 0;
+    }
+
+    /**
+     * 规则中的金额（元）按分四舍五入
+     */
+    private long cents(String yuan) {
+        return Money.valueOf(yuan).cents();
+    }
+}
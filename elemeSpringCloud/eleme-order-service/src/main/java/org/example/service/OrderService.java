@@ -1,9 +1,19 @@
 package org.example.service;
 
+import org.example.dto.CursorPage;
+import org.example.dto.MerchantSalesDTO;
+import org.example.dto.OrderBatchStateRequestDTO;
+import org.example.dto.OrderBatchStateResultDTO;
 import org.example.dto.OrderDetailDTO;
 import org.example.dto.OrderRequestDTO;
+import org.example.dto.SalesSummaryDTO;
 import org.example.entity.UserOrder;
+import org.example.export.OrderExportFormat;
+import org.example.money.Money;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface OrderService {
@@ -109,6 +119,13 @@ public interface OrderService {
      */
     Boolean completeOrder(Integer id);
 
+    /**
+     * 批量更新订单状态，按状态机规则逐个判断，可迁移的订单在同一事务中一次性更新
+     * @param request 订单ID列表、目标状态和可选的商家ID
+     * @return 每个订单的处理结果
+     */
+    OrderBatchStateResultDTO batchUpdateOrderState(OrderBatchStateRequestDTO request);
+
     /**
      * 统计用户订单数量
      * @param userPhone 用户手机号
@@ -137,7 +154,7 @@ public interface OrderService {
      * @param endTime 结束时间
      * @return 订单列表
      */
-    List<UserOrder> getOrdersByUserPhoneAndTimeRange(String userPhone, String startTime, String endTime);
+    List<UserOrder> getOrdersByUserPhoneAndTimeRange(String userPhone, LocalDateTime startTime, LocalDateTime endTime);
 
     /**
      * 根据商家ID和时间范围查询订单
@@ -146,7 +163,19 @@ public interface OrderService {
      * @param endTime 结束时间
      * @return 订单列表
      */
-    List<UserOrder> getOrdersByBusinessIdAndTimeRange(Integer businessId, String startTime, String endTime);
+    List<UserOrder> getOrdersByBusinessIdAndTimeRange(Integer businessId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 流式导出商家在时间范围内的订单，边读边写入输出流
+     * @param businessId 商家ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @param format 导出格式
+     * @param out 输出流
+     * @return 导出行数
+     */
+    long exportOrdersByBusinessIdAndTimeRange(Integer businessId, LocalDateTime startTime, LocalDateTime endTime,
+                                              OrderExportFormat format, OutputStream out);
 
     /**
      * 根据价格范围查询订单
@@ -154,7 +183,7 @@ public interface OrderService {
      * @param maxPrice 最高价格
      * @return 订单列表
      */
-    List<UserOrder> getOrdersByPriceRange(Double minPrice, Double maxPrice);
+    List<UserOrder> getOrdersByPriceRange(Money minPrice, Money maxPrice);
 
     /**
      * 查询最近订单
@@ -169,4 +198,82 @@ public interface OrderService {
      * @return 是否成功
      */
     Boolean deleteOrder(Integer id);
-} 
\ No newline at end of file
+
+    /**
+     * 游标分页查询用户订单
+     * @param userPhone 用户手机号
+     * @param state 订单状态，为null时不过滤
+     * @param startTime 开始时间，为null时不过滤
+     * @param endTime 结束时间，为null时不过滤
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页条数
+     * @return 订单分页
+     */
+    CursorPage<UserOrder> getOrderPageByUserPhone(String userPhone, Integer state, LocalDateTime startTime,
+                                                  LocalDateTime endTime, String cursor, Integer size);
+
+    /**
+     * 游标分页查询用户订单详情（包含商家和食物信息）
+     * @param userPhone 用户手机号
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页条数
+     * @return 订单详情分页
+     */
+    CursorPage<OrderDetailDTO> getOrderDetailPageByUserPhone(String userPhone, String cursor, Integer size);
+
+    /**
+     * 游标分页查询商家订单
+     * @param businessId 商家ID
+     * @param state 订单状态，为null时不过滤
+     * @param startTime 开始时间，为null时不过滤
+     * @param endTime 结束时间，为null时不过滤
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页条数
+     * @return 订单分页
+     */
+    CursorPage<UserOrder> getOrderPageByBusinessId(Integer businessId, Integer state, LocalDateTime startTime,
+                                                   LocalDateTime endTime, String cursor, Integer size);
+
+    /**
+     * 游标分页查询特定状态的订单
+     * @param state 订单状态
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页条数
+     * @return 订单分页
+     */
+    CursorPage<UserOrder> getOrderPageByState(Integer state, String cursor, Integer size);
+
+    /**
+     * 游标分页按价格范围查询订单
+     * @param minPrice 最低价格
+     * @param maxPrice 最高价格
+     * @param cursor 上一页返回的游标，为空时查询第一页
+     * @param size 每页条数
+     * @return 订单分页
+     */
+    CursorPage<UserOrder> getOrderPageByPriceRange(Money minPrice, Money maxPrice, String cursor, Integer size);
+
+    /**
+     * 查询商家按小时的销售汇总
+     * @param businessId 商家ID
+     * @param startTime 开始时间
+     * @param endTime 结束时间
+     * @return 按时间升序的小时汇总，没有订单的小时不返回
+     */
+    List<MerchantSalesDTO> getHourlySales(Integer businessId, LocalDateTime startTime, LocalDateTime endTime);
+
+    /**
+     * 查询商家按天的销售汇总
+     * @param businessId 商家ID
+     * @param startDate 开始日期
+     * @param endDate 结束日期
+     * @return 按日期升序的日汇总，没有订单的日期不返回
+     */
+    List<MerchantSalesDTO> getDailySales(Integer businessId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * 获取全平台销售概况
+     * @return 订单总数和今日下单数、支付数、成交额
+     */
+    SalesSummaryDTO getSalesSummary();
+}
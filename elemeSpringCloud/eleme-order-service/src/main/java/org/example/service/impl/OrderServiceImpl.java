@@ -2,28 +2,49 @@ package org.example.service.impl;
 
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.assembler.OrderDetailAssembler;
+import org.example.cache.ExistenceFilter;
+import org.example.cache.ReadThroughCache;
+import org.example.constants.CommonConstants;
+import org.example.counter.OrderCounters;
+import org.example.dto.CursorPage;
+import org.example.dto.MerchantSalesDTO;
+import org.example.dto.OrderBatchStateRequestDTO;
+import org.example.dto.OrderBatchStateResultDTO;
+import org.example.dto.OrderChangeEvent;
 import org.example.dto.OrderDetailDTO;
 import org.example.dto.OrderRequestDTO;
-import org.example.dto.R;
-import org.example.entity.Business;
-import org.example.entity.Food;
-import org.example.entity.User;
+import org.example.dto.SalesSummaryDTO;
+import org.example.entity.OrderItem;
 import org.example.entity.UserOrder;
-import org.example.feign.BusinessClient;
-import org.example.feign.FoodClient;
-import org.example.feign.UserClient;
+import org.example.export.OrderExportFormat;
+import org.example.export.OrderExporter;
+import org.example.mapper.MerchantSalesMapper;
+import org.example.money.Money;
+import org.example.mapper.OrderItemMapper;
 import org.example.mapper.UserOrderMapper;
+import org.example.outbox.OrderOutboxWriter;
+import org.example.pricing.PriceQuote;
+import org.example.pricing.PricingEngine;
 import org.example.service.OrderService;
+import org.example.state.OrderState;
+import org.example.state.OrderStateMachine;
+import org.example.utils.OrderCacheKeys;
+import org.example.utils.OrderCursor;
+import org.example.validator.OrderCheckoutValidator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,21 +55,47 @@ public class OrderServiceImpl implements OrderService {
     private UserOrderMapper userOrderMapper;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private OrderItemMapper orderItemMapper;
 
     @Autowired
-    private UserClient userClient;
+    private ReadThroughCache readThroughCache;
 
     @Autowired
-    private BusinessClient businessClient;
+    private ExistenceFilter orderExistenceFilter;
 
     @Autowired
-    private FoodClient foodClient;
+    private OrderDetailAssembler orderDetailAssembler;
+
+    @Autowired
+    private OrderCheckoutValidator orderCheckoutValidator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PricingEngine pricingEngine;
+
+    @Autowired
+    private OrderOutboxWriter orderOutboxWriter;
+
+    @Autowired
+    private OrderStateMachine orderStateMachine;
+
+    @Autowired
+    private OrderCounters orderCounters;
+
+    @Autowired
+    private MerchantSalesMapper merchantSalesMapper;
+
+    @Autowired
+    private OrderExporter orderExporter;
+
+    /**
+     * 客户端价格与服务端计价不一致时是否拒绝下单，默认拒绝；为false时以服务端计价为准并记录告警
+     */
+    @Value("${eleme.order.pricing.reject-mismatch:true}")
+    private boolean rejectPriceMismatch;
 
-    private static final String ORDER_CACHE_KEY = "order:";
-    private static final String USER_ORDERS_CACHE_KEY = "user:orders:";
-    private static final String BUSINESS_ORDERS_CACHE_KEY = "business:orders:";
-    private static final String ORDER_DETAIL_CACHE_KEY = "order:detail:";
     private static final long CACHE_EXPIRE_TIME = 30; // 30分钟
 
     @Override
@@ -58,72 +105,62 @@ public class OrderServiceImpl implements OrderService {
             return null;
         }
 
-        // 先从缓存中获取
-        String cacheKey = ORDER_CACHE_KEY + id;
-        UserOrder order = (UserOrder) redisTemplate.opsForValue().get(cacheKey);
-        if (order != null) {
-            log.debug("从缓存中获取订单信息: {}", id);
-            return order;
+        // 布隆过滤器判定一定不存在的订单直接返回
+        if (!orderExistenceFilter.mightExist(id)) {
+            log.debug("订单不存在，被存在性过滤器拦截: {}", id);
+            return null;
         }
 
-        // 从数据库查询
-        order = userOrderMapper.selectById(id);
-        if (order != null) {
-            // 存入缓存
-            redisTemplate.opsForValue().set(cacheKey, order, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-            log.debug("从数据库获取订单信息并缓存: {}", id);
-        }
-        return order;
+        // 读穿透缓存，未命中时从数据库查询，不存在的订单短时间缓存空结果
+        return readThroughCache.get(OrderCacheKeys.ORDER + id, CACHE_EXPIRE_TIME, TimeUnit.MINUTES,
+                CommonConstants.NEGATIVE_CACHE_EXPIRE, () -> {
+            UserOrder order = userOrderMapper.selectById(id);
+            if (order != null) {
+                log.debug("从数据库获取订单信息并缓存: {}", id);
+            }
+            return order;
+        });
     }
 
     @Override
-    @Transactional
     @SentinelResource(value = "createOrder", fallback = "createOrderFallback")
     public Integer createOrder(OrderRequestDTO orderRequestDTO) {
         if (orderRequestDTO == null || orderRequestDTO.getUserPhone() == null 
-            || orderRequestDTO.getBusinessID() == null || orderRequestDTO.getOrderList() == null 
-            || orderRequestDTO.getPrice() == null) {
+            || orderRequestDTO.getBusinessID() == null || orderRequestDTO.getOrderList() == null) {
             log.error("创建订单失败，参数不完整: {}", orderRequestDTO);
             return null;
         }
 
         try {
-            // 1. 验证用户是否存在
-            R<User> userResult = userClient.getUserByPhone(orderRequestDTO.getUserPhone());
-            if (!userResult.isSuccess() || userResult.getData() == null) {
-                log.error("用户不存在: {}", orderRequestDTO.getUserPhone());
+            // 1. 并行校验用户、商家和商品，全部通过后才开启事务写库，远程调用期间不占用数据库连接
+            OrderCheckoutValidator.Result validation = orderCheckoutValidator.validate(orderRequestDTO);
+            if (!validation.isPassed()) {
+                log.error("创建订单失败，{}", validation.getFailureReason());
                 return null;
             }
 
-            // 2. 验证商家是否存在
-            R<Business> businessResult = businessClient.getBusinessById(orderRequestDTO.getBusinessID());
-            if (!businessResult.isSuccess() || businessResult.getData() == null) {
-                log.error("商家不存在: {}", orderRequestDTO.getBusinessID());
-                return null;
-            }
-
-            // 3. 验证商品是否存在且可用
-            R<List<Food>> foodResult = foodClient.getFoodsByIds(orderRequestDTO.getOrderList());
-            if (!foodResult.isSuccess() || foodResult.getData() == null || foodResult.getData().isEmpty()) {
-                log.error("商品不存在或不可用: {}", orderRequestDTO.getOrderList());
-                return null;
+            // 2. 按菜单快照在服务端计价，客户端价格仅用于核对
+            PriceQuote quote = pricingEngine.quote(validation.getBusiness(), validation.getMenu(),
+                    orderRequestDTO.getOrderList());
+            if (!priceMatches(orderRequestDTO.getPrice(), quote.getTotal())) {
+                log.warn("客户端价格与服务端计价不一致: 客户端 {}, 服务端 {}, 商家 {}, 菜单版本 {}",
+                        orderRequestDTO.getPrice(), quote.getTotal(), orderRequestDTO.getBusinessID(), quote.getMenuVersion());
+                if (rejectPriceMismatch) {
+                    return null;
+                }
             }
 
-            // 4. 获取食物信息（用于订单详情，不进行价格验证）
-            List<Food> foods = foodResult.getData();
-            log.info("获取食物信息成功，食物数量: {}, 使用前端传入价格: {}", foods.size(), orderRequestDTO.getPrice());
-
-            // 5. 创建订单
+            // 3. 创建订单
             UserOrder order = new UserOrder();
             order.setUserPhone(orderRequestDTO.getUserPhone());
             order.setBusinessId(orderRequestDTO.getBusinessID());
-            order.setPrice(orderRequestDTO.getPrice());
-            order.setDeliveryFee(orderRequestDTO.getDeliveryFee());
+            order.setPrice(quote.getTotal());
+            order.setDeliveryFee(quote.getDeliveryFee());
             order.setDeliveryAddress(orderRequestDTO.getDeliveryAddress());
             order.setReceiverName(orderRequestDTO.getReceiverName());
             order.setReceiverPhone(orderRequestDTO.getReceiverPhone());
             order.setRemark(orderRequestDTO.getRemark());
-            order.setState(0); // 0: 未支付
+            order.setState(OrderState.UNPAID.getCode());
             order.setCreatedAt(LocalDateTime.now());
             
             // 将订单列表转换为字符串
@@ -132,14 +169,20 @@ public class OrderServiceImpl implements OrderService {
                     .collect(Collectors.joining("-"));
             order.setOrderList(orderListStr);
 
-            // 保存到数据库
-            int result = userOrderMapper.insert(order);
-            if (result > 0) {
-                // 清理相关缓存
-                clearUserOrdersCache(orderRequestDTO.getUserPhone());
-                clearBusinessOrdersCache(orderRequestDTO.getBusinessID());
-                log.info("创建订单成功: {}", order.getId());
+            // 4. 在同一事务中写订单主表、订单明细和发件箱事件，任一失败整体回滚
+            // 存在性过滤器和缓存（包括可能存在的空结果缓存）由发件箱投递时处理
+            Integer orderId = transactionTemplate.execute(status -> {
+                if (userOrderMapper.insert(order) <= 0) {
+                    status.setRollbackOnly();
+                    return null;
+                }
+                orderItemMapper.insertBatch(buildOrderItems(order, quote));
+                orderOutboxWriter.append(order, OrderChangeEvent.TYPE_CREATED, null, order.getState());
                 return order.getId();
+            });
+            if (orderId != null) {
+                log.info("创建订单成功: {}", orderId);
+                return orderId;
             }
         } catch (Exception e) {
             log.error("创建订单失败", e);
@@ -147,6 +190,27 @@ public class OrderServiceImpl implements OrderService {
         return null;
     }
 
+    /**
+     * 按计价明细生成订单明细，单价为下单时的商品现价
+     */
+    private List<OrderItem> buildOrderItems(UserOrder order, PriceQuote quote) {
+        return quote.getLines().stream()
+                .map(line -> new OrderItem()
+                        .setOrderId(order.getId())
+                        .setFoodId(line.getFoodId())
+                        .setQuantity(line.getQuantity())
+                        .setUnitPrice(line.getUnitPrice())
+                        .setCreatedAt(order.getCreatedAt()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 客户端价格与服务端计价是否一致（精确到分），客户端未传价格时视为一致
+     */
+    private boolean priceMatches(Money clientPrice, Money serverPrice) {
+        return clientPrice == null || clientPrice.cents() == serverPrice.cents();
+    }
+
     @Override
     @Transactional
     @SentinelResource(value = "payOrder", fallback = "payOrderFallback")
@@ -156,28 +220,14 @@ public class OrderServiceImpl implements OrderService {
         }
 
         try {
-            UserOrder order = userOrderMapper.selectById(id);
-            if (order == null) {
-                log.error("订单不存在: {}", id);
-                return false;
-            }
-
-            if (order.getState() != 0) {
-                log.error("订单状态不正确，无法支付: {}, 当前状态: {}", id, order.getState());
-                return false;
-            }
-
-            // 更新订单状态为已支付
-            int result = userOrderMapper.updateStateById(id, 1);
-            if (result > 0) {
-                // 清理相关缓存
-                clearOrderCache(id);
-                clearUserOrdersCache(order.getUserPhone());
-                clearBusinessOrdersCache(order.getBusinessId());
+            // 仅未支付订单可以支付，并发支付时只有一个请求成功
+            if (orderStateMachine.transition(id, OrderState.PAID)) {
                 log.info("订单支付成功: {}", id);
                 return true;
             }
+            log.error("订单不存在或状态不正确，无法支付: {}", id);
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("订单支付失败", e);
         }
         return false;
@@ -190,20 +240,12 @@ public class OrderServiceImpl implements OrderService {
             return List.of();
         }
 
-        // 先从缓存中获取
-        String cacheKey = USER_ORDERS_CACHE_KEY + userPhone;
-        List<UserOrder> orders = (List<UserOrder>) redisTemplate.opsForValue().get(cacheKey);
-        if (orders != null) {
-            log.debug("从缓存中获取用户订单列表: {}", userPhone);
+        // 读穿透缓存，未命中时从数据库查询
+        return readThroughCache.get(OrderCacheKeys.USER_ORDERS + userPhone, CACHE_EXPIRE_TIME, TimeUnit.MINUTES, () -> {
+            List<UserOrder> orders = userOrderMapper.findAllByUserPhone(userPhone);
+            log.debug("从数据库获取用户订单列表并缓存: {}", userPhone);
             return orders;
-        }
-
-        // 从数据库查询
-        orders = userOrderMapper.findAllByUserPhone(userPhone);
-        // 存入缓存
-        redisTemplate.opsForValue().set(cacheKey, orders, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        log.debug("从数据库获取用户订单列表并缓存: {}", userPhone);
-        return orders;
+        });
     }
 
     @Override
@@ -220,45 +262,8 @@ public class OrderServiceImpl implements OrderService {
                 return List.of();
             }
 
-            // 为每个订单构建详情
-            List<OrderDetailDTO> orderDetails = new ArrayList<>();
-            for (UserOrder order : orders) {
-                try {
-                    OrderDetailDTO orderDetail = new OrderDetailDTO();
-                    orderDetail.setId(order.getId());
-                    orderDetail.setBusinessID(order.getBusinessId());
-                    orderDetail.setUserPhone(order.getUserPhone());
-                    orderDetail.setOrderList(order.getOrderList());
-                    orderDetail.setPrice(order.getPrice());
-                    orderDetail.setState(order.getState());
-                    orderDetail.setCreatedAt(order.getCreatedAt());
-                    orderDetail.setPaidAt(order.getPaidAt());
-                    orderDetail.setCompletedAt(order.getCompletedAt());
-
-                    // 获取商家信息
-                    R<Business> businessResult = businessClient.getBusinessById(order.getBusinessId());
-                    if (businessResult.isSuccess() && businessResult.getData() != null) {
-                        orderDetail.setBusiness(businessResult.getData());
-                    }
-
-                    // 获取商品信息
-                    if (order.getOrderList() != null && !order.getOrderList().isEmpty()) {
-                        List<Integer> foodIds = Arrays.stream(order.getOrderList().split("-"))
-                                .map(Integer::parseInt)
-                                .collect(Collectors.toList());
-                        
-                        R<List<Food>> foodResult = foodClient.getFoodsByIds(foodIds);
-                        if (foodResult.isSuccess() && foodResult.getData() != null) {
-                            orderDetail.setOrderItems(foodResult.getData());
-                        }
-                    }
-
-                    orderDetails.add(orderDetail);
-                } catch (Exception e) {
-                    log.error("获取订单{}详情失败，跳过此订单", order.getId(), e);
-                    // 即使某个订单详情获取失败，也不影响其他订单
-                }
-            }
+            // 批量组装订单详情：商家和商品按去重后的ID集合统一拉取
+            List<OrderDetailDTO> orderDetails = orderDetailAssembler.assemble(orders);
 
             log.debug("获取用户订单详情列表成功: {}, 订单数量: {}", userPhone, orderDetails.size());
             return orderDetails;
@@ -275,20 +280,12 @@ public class OrderServiceImpl implements OrderService {
             return List.of();
         }
 
-        // 先从缓存中获取
-        String cacheKey = BUSINESS_ORDERS_CACHE_KEY + businessId;
-        List<UserOrder> orders = (List<UserOrder>) redisTemplate.opsForValue().get(cacheKey);
-        if (orders != null) {
-            log.debug("从缓存中获取商家订单列表: {}", businessId);
+        // 读穿透缓存，未命中时从数据库查询
+        return readThroughCache.get(OrderCacheKeys.BUSINESS_ORDERS + businessId, CACHE_EXPIRE_TIME, TimeUnit.MINUTES, () -> {
+            List<UserOrder> orders = userOrderMapper.findAllByBusinessId(businessId);
+            log.debug("从数据库获取商家订单列表并缓存: {}", businessId);
             return orders;
-        }
-
-        // 从数据库查询
-        orders = userOrderMapper.findAllByBusinessId(businessId);
-        // 存入缓存
-        redisTemplate.opsForValue().set(cacheKey, orders, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-        log.debug("从数据库获取商家订单列表并缓存: {}", businessId);
-        return orders;
+        });
     }
 
     @Override
@@ -325,53 +322,22 @@ public class OrderServiceImpl implements OrderService {
             return null;
         }
 
-        // 先从缓存中获取
-        String cacheKey = ORDER_DETAIL_CACHE_KEY + id;
-        OrderDetailDTO orderDetail = (OrderDetailDTO) redisTemplate.opsForValue().get(cacheKey);
-        if (orderDetail != null) {
-            log.debug("从缓存中获取订单详情: {}", id);
-            return orderDetail;
+        if (!orderExistenceFilter.mightExist(id)) {
+            log.debug("订单不存在，被存在性过滤器拦截: {}", id);
+            return null;
         }
 
         try {
-            // 从数据库查询订单
-            UserOrder order = userOrderMapper.selectById(id);
-            if (order == null) {
-                return null;
-            }
-
-            // 构建订单详情
-            orderDetail = new OrderDetailDTO();
-            orderDetail.setId(order.getId());
-            orderDetail.setBusinessID(order.getBusinessId());
-            orderDetail.setUserPhone(order.getUserPhone());
-            orderDetail.setOrderList(order.getOrderList());
-            orderDetail.setPrice(order.getPrice());
-            orderDetail.setState(order.getState());
-            orderDetail.setCreatedAt(order.getCreatedAt());
-
-            // 获取商家信息
-            R<Business> businessResult = businessClient.getBusinessById(order.getBusinessId());
-            if (businessResult.isSuccess() && businessResult.getData() != null) {
-                orderDetail.setBusiness(businessResult.getData());
-            }
-
-            // 获取商品信息
-            if (order.getOrderList() != null && !order.getOrderList().isEmpty()) {
-                List<Integer> foodIds = Arrays.stream(order.getOrderList().split("-"))
-                        .map(Integer::parseInt)
-                        .collect(Collectors.toList());
-                
-                R<List<Food>> foodResult = foodClient.getFoodsByIds(foodIds);
-                if (foodResult.isSuccess() && foodResult.getData() != null) {
-                    orderDetail.setOrderItems(foodResult.getData());
+            // 读穿透缓存，未命中时从数据库查询订单并组装详情
+            return readThroughCache.get(OrderCacheKeys.ORDER_DETAIL + id, CACHE_EXPIRE_TIME, TimeUnit.MINUTES, () -> {
+                UserOrder order = userOrderMapper.selectById(id);
+                if (order == null) {
+                    return null;
                 }
-            }
-
-            // 存入缓存
-            redisTemplate.opsForValue().set(cacheKey, orderDetail, CACHE_EXPIRE_TIME, TimeUnit.MINUTES);
-            log.debug("从数据库获取订单详情并缓存: {}", id);
-            return orderDetail;
+                OrderDetailDTO orderDetail = orderDetailAssembler.assemble(order);
+                log.debug("从数据库获取订单详情并缓存: {}", id);
+                return orderDetail;
+            });
         } catch (Exception e) {
             log.error("获取订单详情失败", e);
             return null;
@@ -386,24 +352,20 @@ public class OrderServiceImpl implements OrderService {
             return false;
         }
 
-        try {
-            UserOrder order = userOrderMapper.selectById(id);
-            if (order == null) {
-                log.error("订单不存在: {}", id);
-                return false;
-            }
+        OrderState target = OrderState.fromCode(state);
+        if (target == null) {
+            log.error("未知的订单状态: {}", state);
+            return false;
+        }
 
-            int result = userOrderMapper.updateStateById(id, state);
-            if (result > 0) {
-                // 清理相关缓存
-                clearOrderCache(id);
-                clearOrderDetailCache(id);
-                clearUserOrdersCache(order.getUserPhone());
-                clearBusinessOrdersCache(order.getBusinessId());
+        try {
+            if (orderStateMachine.transition(id, target)) {
                 log.info("更新订单状态成功: {}, 新状态: {}", id, state);
                 return true;
             }
+            log.error("订单不存在或当前状态不允许变更为{}: {}", target.getDescription(), id);
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("更新订单状态失败", e);
         }
         return false;
@@ -413,21 +375,44 @@ public class OrderServiceImpl implements OrderService {
     @Transactional
     @SentinelResource(value = "cancelOrder", fallback = "cancelOrderFallback")
     public Boolean cancelOrder(Integer id) {
-        return updateOrderState(id, -1); // -1: 已取消
+        return updateOrderState(id, OrderState.CANCELLED.getCode());
     }
 
     @Override
     @Transactional
     @SentinelResource(value = "confirmOrder", fallback = "confirmOrderFallback")
     public Boolean confirmOrder(Integer id) {
-        return updateOrderState(id, 2); // 2: 已确认
+        return updateOrderState(id, OrderState.CONFIRMED.getCode());
     }
 
     @Override
     @Transactional
     @SentinelResource(value = "completeOrder", fallback = "completeOrderFallback")
     public Boolean completeOrder(Integer id) {
-        return updateOrderState(id, 3); // 3: 已完成
+        return updateOrderState(id, OrderState.COMPLETED.getCode());
+    }
+
+    @Override
+    @Transactional
+    @SentinelResource(value = "batchUpdateOrderState", fallback = "batchUpdateOrderStateFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public OrderBatchStateResultDTO batchUpdateOrderState(OrderBatchStateRequestDTO request) {
+        OrderState target = OrderState.fromCode(request.getState());
+        if (target == null) {
+            throw new IllegalArgumentException("未知的订单状态: " + request.getState());
+        }
+
+        try {
+            OrderBatchStateResultDTO result = orderStateMachine.transitionAll(request.getOrderIds(), target,
+                    request.getBusinessId());
+            log.info("批量更新订单状态: 目标 {}, 成功 {}, 失败 {}", request.getState(),
+                    result.getSuccessCount(), result.getFailureCount());
+            return result;
+        } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            log.error("批量更新订单状态失败", e);
+        }
+        return null;
     }
 
     @Override
@@ -436,7 +421,7 @@ public class OrderServiceImpl implements OrderService {
         if (userPhone == null || userPhone.trim().isEmpty()) {
             return 0;
         }
-        return userOrderMapper.countByUserPhone(userPhone);
+        return orderCounters.countByUserPhone(userPhone);
     }
 
     @Override
@@ -445,7 +430,7 @@ public class OrderServiceImpl implements OrderService {
         if (businessId == null) {
             return 0;
         }
-        return userOrderMapper.countByBusinessId(businessId);
+        return orderCounters.countByBusinessId(businessId);
     }
 
     @Override
@@ -454,13 +439,14 @@ public class OrderServiceImpl implements OrderService {
         if (state == null) {
             return 0;
         }
-        return userOrderMapper.countByState(state);
+        return orderCounters.countByState(state);
     }
 
     @Override
     @SentinelResource(value = "getOrdersByUserPhoneAndTimeRange", fallback = "getOrdersByUserPhoneAndTimeRangeFallback")
-    public List<UserOrder> getOrdersByUserPhoneAndTimeRange(String userPhone, String startTime, String endTime) {
-        if (userPhone == null || userPhone.trim().isEmpty() || startTime == null || endTime == null) {
+    public List<UserOrder> getOrdersByUserPhoneAndTimeRange(String userPhone, LocalDateTime startTime, LocalDateTime endTime) {
+        if (userPhone == null || userPhone.trim().isEmpty() || startTime == null || endTime == null
+            || startTime.isAfter(endTime)) {
             return List.of();
         }
         return userOrderMapper.findOrdersByUserPhoneAndTimeRange(userPhone, startTime, endTime);
@@ -468,17 +454,57 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     @SentinelResource(value = "getOrdersByBusinessIdAndTimeRange", fallback = "getOrdersByBusinessIdAndTimeRangeFallback")
-    public List<UserOrder> getOrdersByBusinessIdAndTimeRange(Integer businessId, String startTime, String endTime) {
-        if (businessId == null || startTime == null || endTime == null) {
+    public List<UserOrder> getOrdersByBusinessIdAndTimeRange(Integer businessId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (businessId == null || startTime == null || endTime == null || startTime.isAfter(endTime)) {
             return List.of();
         }
         return userOrderMapper.findOrdersByBusinessIdAndTimeRange(businessId, startTime, endTime);
     }
 
+    @Override
+    public long exportOrdersByBusinessIdAndTimeRange(Integer businessId, LocalDateTime startTime, LocalDateTime endTime,
+                                                     OrderExportFormat format, OutputStream out) {
+        if (businessId == null || startTime == null || endTime == null || startTime.isAfter(endTime)) {
+            throw new IllegalArgumentException("导出参数不正确");
+        }
+        // 导出过程中已经开始写响应，出错时不走降级方法，直接中断输出
+        return orderExporter.exportByBusinessIdAndTimeRange(businessId, startTime, endTime, format, out);
+    }
+
+    @Override
+    @SentinelResource(value = "getHourlySales", fallback = "getHourlySalesFallback")
+    public List<MerchantSalesDTO> getHourlySales(Integer businessId, LocalDateTime startTime, LocalDateTime endTime) {
+        if (businessId == null || startTime == null || endTime == null || startTime.isAfter(endTime)) {
+            return List.of();
+        }
+        return merchantSalesMapper.findHourly(businessId, startTime, endTime);
+    }
+
+    @Override
+    @SentinelResource(value = "getDailySales", fallback = "getDailySalesFallback")
+    public List<MerchantSalesDTO> getDailySales(Integer businessId, LocalDate startDate, LocalDate endDate) {
+        if (businessId == null || startDate == null || endDate == null || startDate.isAfter(endDate)) {
+            return List.of();
+        }
+        return merchantSalesMapper.findDaily(businessId, startDate, endDate);
+    }
+
+    @Override
+    @SentinelResource(value = "getSalesSummary", fallback = "getSalesSummaryFallback")
+    public SalesSummaryDTO getSalesSummary() {
+        SalesSummaryDTO summary = merchantSalesMapper.sumDaily(LocalDate.now());
+        long total = 0;
+        for (OrderState state : OrderState.values()) {
+            total += orderCounters.countByState(state.getCode());
+        }
+        summary.setTotalOrders(total);
+        return summary;
+    }
+
     @Override
     @SentinelResource(value = "getOrdersByPriceRange", fallback = "getOrdersByPriceRangeFallback")
-    public List<UserOrder> getOrdersByPriceRange(Double minPrice, Double maxPrice) {
-        if (minPrice == null || maxPrice == null || minPrice > maxPrice) {
+    public List<UserOrder> getOrdersByPriceRange(Money minPrice, Money maxPrice) {
+        if (minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) > 0) {
             return List.of();
         }
         return userOrderMapper.findOrdersByPriceRange(minPrice, maxPrice);
@@ -509,61 +535,108 @@ public class OrderServiceImpl implements OrderService {
             }
 
             // 只允许取消状态的订单被删除
-            if (order.getState() != -1) {
+            if (order.getState() != OrderState.CANCELLED.getCode()) {
                 log.error("订单状态不允许删除: {}, 当前状态: {}", id, order.getState());
                 return false;
             }
 
             int result = userOrderMapper.deleteById(id);
             if (result > 0) {
-                // 清理相关缓存
-                clearOrderCache(id);
-                clearOrderDetailCache(id);
-                clearUserOrdersCache(order.getUserPhone());
-                clearBusinessOrdersCache(order.getBusinessId());
+                orderItemMapper.deleteByOrderId(id);
+                // 缓存由发件箱投递时清理
+                orderOutboxWriter.append(order, OrderChangeEvent.TYPE_DELETED, order.getState(), null);
                 log.info("删除订单成功: {}", id);
                 return true;
             }
         } catch (Exception e) {
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             log.error("删除订单失败", e);
         }
         return false;
     }
 
-    /**
-     * 清理订单缓存
-     */
-    private void clearOrderCache(Integer id) {
-        if (id != null) {
-            redisTemplate.delete(ORDER_CACHE_KEY + id);
+    @Override
+    @SentinelResource(value = "getOrderPageByUserPhone", fallback = "getOrderPageByUserPhoneFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public CursorPage<UserOrder> getOrderPageByUserPhone(String userPhone, Integer state, LocalDateTime startTime,
+                                                         LocalDateTime endTime, String cursor, Integer size) {
+        if (userPhone == null || userPhone.trim().isEmpty()) {
+            return CursorPage.empty();
         }
+        return queryPage(cursor, size, (c, limit) -> userOrderMapper.findPageByUserPhone(userPhone, state,
+                startTime, endTime, c, limit));
     }
 
-    /**
-     * 清理订单详情缓存
-     */
-    private void clearOrderDetailCache(Integer id) {
-        if (id != null) {
-            redisTemplate.delete(ORDER_DETAIL_CACHE_KEY + id);
+    @Override
+    @SentinelResource(value = "getOrderDetailPageByUserPhone", fallback = "getOrderDetailPageByUserPhoneFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public CursorPage<OrderDetailDTO> getOrderDetailPageByUserPhone(String userPhone, String cursor, Integer size) {
+        if (userPhone == null || userPhone.trim().isEmpty()) {
+            return CursorPage.empty();
         }
+        CursorPage<UserOrder> page = getOrderPageByUserPhone(userPhone, null, null, null, cursor, size);
+        // 只为当前页的订单批量组装详情
+        List<OrderDetailDTO> details = page.getRecords().isEmpty()
+                ? List.of() : orderDetailAssembler.assemble(page.getRecords());
+        return new CursorPage<>(details, page.getNextCursor(), page.getHasMore());
+    }
+
+    @Override
+    @SentinelResource(value = "getOrderPageByBusinessId", fallback = "getOrderPageByBusinessIdFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public CursorPage<UserOrder> getOrderPageByBusinessId(Integer businessId, Integer state, LocalDateTime startTime,
+                                                          LocalDateTime endTime, String cursor, Integer size) {
+        if (businessId == null) {
+            return CursorPage.empty();
+        }
+        return queryPage(cursor, size, (c, limit) -> userOrderMapper.findPageByBusinessId(businessId, state,
+                startTime, endTime, c, limit));
+    }
+
+    @Override
+    @SentinelResource(value = "getOrderPageByState", fallback = "getOrderPageByStateFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public CursorPage<UserOrder> getOrderPageByState(Integer state, String cursor, Integer size) {
+        if (state == null) {
+            return CursorPage.empty();
+        }
+        return queryPage(cursor, size, (c, limit) -> userOrderMapper.findPageByState(state, c, limit));
+    }
+
+    @Override
+    @SentinelResource(value = "getOrderPageByPriceRange", fallback = "getOrderPageByPriceRangeFallback",
+            exceptionsToIgnore = IllegalArgumentException.class)
+    public CursorPage<UserOrder> getOrderPageByPriceRange(Money minPrice, Money maxPrice, String cursor, Integer size) {
+        if (minPrice == null || maxPrice == null || minPrice.compareTo(maxPrice) > 0) {
+            return CursorPage.empty();
+        }
+        return queryPage(cursor, size, (c, limit) ->
+                userOrderMapper.findPageByPriceRange(minPrice, maxPrice, c, limit));
     }
 
     /**
-     * 清理用户订单缓存
+     * 执行游标分页查询：多查一条判断是否还有下一页，并以当前页最后一条订单生成下一页游标
      */
-    private void clearUserOrdersCache(String userPhone) {
-        if (userPhone != null) {
-            redisTemplate.delete(USER_ORDERS_CACHE_KEY + userPhone);
-        }
+    private CursorPage<UserOrder> queryPage(String cursor, Integer size,
+                                            BiFunction<OrderCursor, Integer, List<UserOrder>> query) {
+        OrderCursor orderCursor = OrderCursor.decode(cursor);
+        int pageSize = normalizePageSize(size);
+        List<UserOrder> orders = query.apply(orderCursor, pageSize + 1);
+
+        boolean hasMore = orders.size() > pageSize;
+        List<UserOrder> records = hasMore ? orders.subList(0, pageSize) : orders;
+        String nextCursor = hasMore ? OrderCursor.encode(records.get(records.size() - 1)) : null;
+        return new CursorPage<>(records, nextCursor, hasMore);
     }
 
     /**
-     * 清理商家订单缓存
+     * 规范化每页条数
      */
-    private void clearBusinessOrdersCache(Integer businessId) {
-        if (businessId != null) {
-            redisTemplate.delete(BUSINESS_ORDERS_CACHE_KEY + businessId);
+    private int normalizePageSize(Integer size) {
+        if (size == null || size <= 0) {
+            return CommonConstants.DEFAULT_PAGE_SIZE;
         }
+        return Math.min(size, CommonConstants.MAX_PAGE_SIZE);
     }
 
     // Sentinel 降级方法
@@ -637,6 +710,11 @@ public class OrderServiceImpl implements OrderService {
         return false;
     }
 
+    public OrderBatchStateResultDTO batchUpdateOrderStateFallback(OrderBatchStateRequestDTO request, Throwable throwable) {
+        log.error("批量更新订单状态降级处理: {}", request, throwable);
+        return null;
+    }
+
     public Integer countOrdersByUserPhoneFallback(String userPhone, Throwable throwable) {
         log.error("统计用户订单数量降级处理: {}", userPhone, throwable);
         return 0;
@@ -652,17 +730,32 @@ public class OrderServiceImpl implements OrderService {
         return 0;
     }
 
-    public List<UserOrder> getOrdersByUserPhoneAndTimeRangeFallback(String userPhone, String startTime, String endTime, Throwable throwable) {
+    public List<UserOrder> getOrdersByUserPhoneAndTimeRangeFallback(String userPhone, LocalDateTime startTime, LocalDateTime endTime, Throwable throwable) {
         log.error("获取用户时间范围订单降级处理: {}-{}-{}", userPhone, startTime, endTime, throwable);
         return List.of();
     }
 
-    public List<UserOrder> getOrdersByBusinessIdAndTimeRangeFallback(Integer businessId, String startTime, String endTime, Throwable throwable) {
+    public List<UserOrder> getOrdersByBusinessIdAndTimeRangeFallback(Integer businessId, LocalDateTime startTime, LocalDateTime endTime, Throwable throwable) {
         log.error("获取商家时间范围订单降级处理: {}-{}-{}", businessId, startTime, endTime, throwable);
         return List.of();
     }
 
-    public List<UserOrder> getOrdersByPriceRangeFallback(Double minPrice, Double maxPrice, Throwable throwable) {
+    public List<MerchantSalesDTO> getHourlySalesFallback(Integer businessId, LocalDateTime startTime, LocalDateTime endTime, Throwable throwable) {
+        log.error("获取商家小时销售汇总降级处理: {}-{}-{}", businessId, startTime, endTime, throwable);
+        return List.of();
+    }
+
+    public List<MerchantSalesDTO> getDailySalesFallback(Integer businessId, LocalDate startDate, LocalDate endDate, Throwable throwable) {
+        log.error("获取商家每日销售汇总降级处理: {}-{}-{}", businessId, startDate, endDate, throwable);
+        return List.of();
+    }
+
+    public SalesSummaryDTO getSalesSummaryFallback(Throwable throwable) {
+        log.error("获取销售概况降级处理", throwable);
+        return null;
+    }
+
+    public List<UserOrder> getOrdersByPriceRangeFallback(Money minPrice, Money maxPrice, Throwable throwable) {
         log.error("获取价格范围订单降级处理: {}-{}", minPrice, maxPrice, throwable);
         return List.of();
     }
@@ -676,4 +769,35 @@ public class OrderServiceImpl implements OrderService {
         log.error("删除订单降级处理: {}", id, throwable);
         return false;
     }
-} 
\ No newline at end of file
+
+    public CursorPage<UserOrder> getOrderPageByUserPhoneFallback(String userPhone, Integer state, LocalDateTime startTime,
+                                                                 LocalDateTime endTime, String cursor, Integer size,
+                                                                 Throwable throwable) {
+        log.error("分页获取用户订单降级处理: {}", userPhone, throwable);
+        return CursorPage.empty();
+    }
+
+    public CursorPage<OrderDetailDTO> getOrderDetailPageByUserPhoneFallback(String userPhone, String cursor, Integer size,
+                                                                            Throwable throwable) {
+        log.error("分页获取用户订单详情降级处理: {}", userPhone, throwable);
+        return CursorPage.empty();
+    }
+
+    public CursorPage<UserOrder> getOrderPageByBusinessIdFallback(Integer businessId, Integer state, LocalDateTime startTime,
+                                                                  LocalDateTime endTime, String cursor, Integer size,
+                                                                  Throwable throwable) {
+        log.error("分页获取商家订单降级处理: {}", businessId, throwable);
+        return CursorPage.empty();
+    }
+
+    public CursorPage<UserOrder> getOrderPageByStateFallback(Integer state, String cursor, Integer size, Throwable throwable) {
+        log.error("分页获取特定状态订单降级处理: {}", state, throwable);
+        return CursorPage.empty();
+    }
+
+    public CursorPage<UserOrder> getOrderPageByPriceRangeFallback(Money minPrice, Money maxPrice, String cursor, Integer size,
+                                                                  Throwable throwable) {
+        log.error("分页按价格范围获取订单降级处理: {}-{}", minPrice, maxPrice, throwable);
+        return CursorPage.empty();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.state;
+
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 订单状态及允许的状态迁移
+ * <p>
+ * 状态码与订单服务历来写入的值保持一致，允许的迁移：
+ * <ul>
+ *     <li>未支付(0) → 已支付(1)、已取消(-1)</li>
+ *     <li>已支付(1) → 已确认(2)、已完成(3)、已取消(-1)</li>
+ *     <li>已确认(2) → 已完成(3)</li>
+ * </ul>
+ * 已完成和已取消为终态。
+ */
+@Getter
+public enum OrderState {
+
+    UNPAID(0, "未支付", List.of(), false, false),
+    PAID(1, "已支付", List.of(0), true, false),
+    CONFIRMED(2, "已确认", List.of(1), false, false),
+    COMPLETED(3, "已完成", List.of(2, 1), false, true),
+    CANCELLED(-1, "已取消", List.of(0, 1), false, false);
+
+    /**
+     * 状态码，即user_order.state的值
+     */
+    private final int code;
+
+    private final String description;
+
+    /**
+     * 允许迁移到本状态的源状态，按常见程度排序
+     */
+    private final List<Integer> allowedFrom;
+
+    /**
+     * 迁移到本状态时是否记录支付时间
+     */
+    private final boolean markPaid;
+
+    /**
+     * 迁移到本状态时是否记录完成时间
+     */
+    private final boolean markCompleted;
+
+    OrderState(int code, String description, List<Integer> allowedFrom, boolean markPaid, boolean markCompleted) {
+        this.code = code;
+        this.description = description;
+        this.allowedFrom = allowedFrom;
+        this.markPaid = markPaid;
+        this.markCompleted = markCompleted;
+    }
+
+    /**
+     * 按状态码查找状态，未知状态码返回null
+     */
+    public static OrderState fromCode(Integer code) {
+        if (code == null) {
+            return null;
+        }
+        for (OrderState state : values()) {
+            if (state.code == code) {
+                return state;
+            }
+        }
+        return null;
+    }
+}
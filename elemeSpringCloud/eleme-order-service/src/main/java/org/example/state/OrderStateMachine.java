@@ -0,0 +1,181 @@
+package org.example.state;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderBatchStateResultDTO;
+import org.example.dto.OrderChangeEvent;
+import org.example.entity.UserOrder;
+import org.example.mapper.UserOrderMapper;
+import org.example.outbox.OrderOutboxWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 订单状态机
+ * <p>
+ * 每次迁移是一条条件更新 UPDATE ... WHERE id IN (...) AND state IN (源状态)，由数据库行锁保证原子性：
+ * 并发的支付、取消、确认请求中只有一个能从同一源状态迁出，其余更新0行，无需分布式锁。
+ * 目标状态只有一个源状态时直接更新，无需先查询订单；有多个源状态时先锁定订单读取确切的源状态，
+ * 再用同一条条件更新迁移，源状态一并写入发件箱事件。
+ * 需在事务中调用。
+ */
+@Slf4j
+@Component
+public class OrderStateMachine {
+
+    @Autowired
+    private UserOrderMapper userOrderMapper;
+
+    @Autowired
+    private OrderOutboxWriter orderOutboxWriter;
+
+    /**
+     * 将订单迁移到目标状态
+     *
+     * @param orderId 订单ID
+     * @param target  目标状态
+     * @return 是否发生了迁移；订单不存在或当前状态不允许迁移时返回false
+     */
+    public boolean transition(Integer orderId, OrderState target) {
+        if (orderId == null || target == null) {
+            return false;
+        }
+        List<Integer> allowedFrom = target.getAllowedFrom();
+        if (allowedFrom.isEmpty()) {
+            return false;
+        }
+        if (allowedFrom.size() == 1) {
+            Integer fromState = allowedFrom.get(0);
+            if (userOrderMapper.compareAndSetStates(List.of(orderId), allowedFrom, target.getCode(),
+                    target.isMarkPaid(), target.isMarkCompleted()) == 0) {
+                return false;
+            }
+            orderOutboxWriter.appendForOrder(orderId, OrderChangeEvent.TYPE_STATE_CHANGED, fromState, target.getCode());
+            log.debug("订单状态迁移: {}, {} -> {}", orderId, fromState, target.getCode());
+            return true;
+        }
+
+        List<UserOrder> locked = userOrderMapper.lockStatesByIds(List.of(orderId));
+        if (locked.isEmpty() || !allowedFrom.contains(locked.get(0).getState())) {
+            return false;
+        }
+        UserOrder order = locked.get(0);
+        int updated = userOrderMapper.compareAndSetStates(List.of(orderId), allowedFrom, target.getCode(),
+                target.isMarkPaid(), target.isMarkCompleted());
+        // 订单已加锁，更新0行说明数据被绕过锁修改
+        if (updated != 1) {
+            throw new IllegalStateException("更新订单状态行数不一致: 订单 " + orderId + ", 实际 " + updated);
+        }
+        orderOutboxWriter.appendStateChanges(locked, target.getCode());
+        log.debug("订单状态迁移: {}, {} -> {}", orderId, order.getState(), target.getCode());
+        return true;
+    }
+
+    /**
+     * 将一批订单迁移到同一目标状态
+     * <p>
+     * 先按ID升序锁定这批订单并读取当前状态，再用一条 UPDATE ... WHERE id IN (...) AND state IN (...)
+     * 更新全部可迁移的订单，最后用一条INSERT写入全部发件箱事件，缓存由发件箱投递时合并清理。
+     *
+     * @param orderIds   订单ID列表，重复ID只处理一次
+     * @param target     目标状态
+     * @param businessId 商家ID，不为null时不属于该商家的订单视为不存在
+     * @return 按请求顺序排列的每个订单的处理结果
+     */
+    public OrderBatchStateResultDTO transitionAll(List<Integer> orderIds, OrderState target, Integer businessId) {
+        List<Integer> distinctIds = orderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Integer, UserOrder> locked = distinctIds.isEmpty() ? Map.of()
+                : userOrderMapper.lockStatesByIds(distinctIds.stream().sorted().collect(Collectors.toList())).stream()
+                        .filter(order -> businessId == null || businessId.equals(order.getBusinessId()))
+                        .collect(Collectors.toMap(UserOrder::getId, Function.identity()));
+
+        List<UserOrder> movable = new ArrayList<>();
+        List<OrderBatchStateResultDTO.Outcome> outcomes = new ArrayList<>(distinctIds.size());
+        for (Integer orderId : distinctIds) {
+            UserOrder order = locked.get(orderId);
+            if (order == null) {
+                outcomes.add(new OrderBatchStateResultDTO.Outcome(orderId, false, null,
+                        OrderBatchStateResultDTO.Outcome.REASON_NOT_FOUND));
+            } else if (!target.getAllowedFrom().contains(order.getState())) {
+                outcomes.add(new OrderBatchStateResultDTO.Outcome(orderId, false, order.getState(),
+                        OrderBatchStateResultDTO.Outcome.REASON_STATE_NOT_ALLOWED));
+            } else {
+                movable.add(order);
+                outcomes.add(new OrderBatchStateResultDTO.Outcome(orderId, true, order.getState(), null));
+            }
+        }
+
+        if (!movable.isEmpty()) {
+            List<Integer> movableIds = movable.stream().map(UserOrder::getId).collect(Collectors.toList());
+            int updated = userOrderMapper.compareAndSetStates(movableIds, target.getAllowedFrom(), target.getCode(),
+                    target.isMarkPaid(), target.isMarkCompleted());
+            // 订单已加锁，更新行数与可迁移数不一致说明数据被绕过锁修改，整批回滚
+            if (updated != movable.size()) {
+                throw new IllegalStateException("批量更新订单状态行数不一致: 期望 " + movable.size() + ", 实际 " + updated);
+            }
+            orderOutboxWriter.appendStateChanges(movable, target.getCode());
+        }
+
+        log.debug("批量订单状态迁移: 目标 {}, 成功 {}, 失败 {}", target.getCode(), movable.size(),
+                outcomes.size() - movable.size());
+        return new OrderBatchStateResultDTO(target.getCode(), movable.size(), outcomes.size() - movable.size(), outcomes);
+    }
+
+    /**
+     * 取消一批超时未支付的订单
+     * <p>
+     * 锁定这批订单后只保留仍为未支付且创建时间不晚于createdBefore的订单，
+     * 用一条条件更新取消，已支付、已取消或已删除的订单不受影响。
+     *
+     * @param orderIds      候选订单ID
+     * @param createdBefore 创建时间上限
+     * @return 实际取消的订单ID，以及仍为未支付但尚未超时、需继续等待的订单ID
+     */
+    public ExpiryResult expireUnpaid(List<Integer> orderIds, LocalDateTime createdBefore) {
+        if (orderIds.isEmpty()) {
+            return new ExpiryResult(List.of(), List.of());
+        }
+        List<UserOrder> expired = new ArrayList<>();
+        List<Integer> pendingIds = new ArrayList<>();
+        for (UserOrder order : userOrderMapper.lockStatesByIds(orderIds.stream().sorted().collect(Collectors.toList()))) {
+            if (order.getState() == null || order.getState() != OrderState.UNPAID.getCode()) {
+                continue;
+            }
+            if (order.getCreatedAt() != null && !order.getCreatedAt().isAfter(createdBefore)) {
+                expired.add(order);
+            } else {
+                pendingIds.add(order.getId());
+            }
+        }
+        if (expired.isEmpty()) {
+            return new ExpiryResult(List.of(), pendingIds);
+        }
+        List<Integer> expiredIds = expired.stream().map(UserOrder::getId).collect(Collectors.toList());
+        int updated = userOrderMapper.compareAndSetStates(expiredIds, List.of(OrderState.UNPAID.getCode()),
+                OrderState.CANCELLED.getCode(), false, false);
+        if (updated != expired.size()) {
+            throw new IllegalStateException("取消超时订单行数不一致: 期望 " + expired.size() + ", 实际 " + updated);
+        }
+        orderOutboxWriter.appendStateChanges(expired, OrderState.CANCELLED.getCode());
+        return new ExpiryResult(expiredIds, pendingIds);
+    }
+
+    /**
+     * 超时取消结果
+     *
+     * @param cancelledIds 实际取消的订单ID
+     * @param pendingIds   仍为未支付但尚未超时的订单ID
+     */
+    public record ExpiryResult(List<Integer> cancelledIds, List<Integer> pendingIds) {
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 订单相关缓存键
+ */
+public final class OrderCacheKeys {
+
+    public static final String ORDER = "order:";
+    public static final String ORDER_DETAIL = "order:detail:";
+    public static final String USER_ORDERS = "user:orders:";
+    public static final String BUSINESS_ORDERS = "business:orders:";
+
+    private OrderCacheKeys() {
+    }
+
+    /**
+     * 订单变更时需要清理的全部缓存键：订单、订单详情、用户订单列表、商家订单列表
+     */
+    public static List<String> affectedBy(Integer orderId, String userPhone, Integer businessId) {
+        List<String> keys = new ArrayList<>(4);
+        if (orderId != null) {
+            keys.add(ORDER + orderId);
+            keys.add(ORDER_DETAIL + orderId);
+        }
+        if (userPhone != null) {
+            keys.add(USER_ORDERS + userPhone);
+        }
+        if (businessId != null) {
+            keys.add(BUSINESS_ORDERS + businessId);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,64 @@
+package org.example.utils;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.example.entity.UserOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 订单列表游标
+ * <p>
+ * 订单列表按 (created_at DESC, id DESC) 排序，游标记录上一页最后一条订单的创建时间和ID，
+ * 下一页查询条件为 created_at &lt; 游标时间，或 created_at = 游标时间且 id &lt; 游标ID。
+ * 对外编码为URL安全的Base64字符串，客户端不应解析其内容。
+ */
+@Data
+@AllArgsConstructor
+public class OrderCursor {
+
+    private static final String SEPARATOR = "_";
+
+    /**
+     * 上一页最后一条订单的创建时间
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * 上一页最后一条订单的ID
+     */
+    private Integer id;
+
+    /**
+     * 根据订单生成游标
+     */
+    public static String encode(UserOrder order) {
+        String raw = order.getCreatedAt() + SEPARATOR + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，为空时返回null表示从第一页开始
+     *
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.lastIndexOf(SEPARATOR);
+            if (index <= 0) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, index)),
+                    Integer.valueOf(raw.substring(index + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标", e);
+        }
+    }
+}
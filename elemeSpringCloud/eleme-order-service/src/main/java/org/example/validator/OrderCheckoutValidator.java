@@ -0,0 +1,196 @@
+package org.example.validator;
+
+import feign.Request;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.dto.OrderRequestDTO;
+import org.example.dto.R;
+import org.example.entity.Business;
+import org.example.entity.User;
+import org.example.feign.BusinessClient;
+import org.example.feign.UserClient;
+import org.example.pricing.MenuSnapshot;
+import org.example.pricing.MenuSnapshotCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 下单校验器
+ * 用户、商家、商品三项校验互不依赖，在线程池中并行执行，下单耗时取最慢的一项而不是三项之和。
+ * 商品校验读取本地菜单快照，快照有效时不调用食物服务。
+ * 三项共享同一个截止时间；任一项失败立即返回，不再等待其余校验。
+ * 每次远程调用的连接和读取超时取截止前的剩余时间，已放弃的校验最迟在截止时间结束，不会长期占用线程池。
+ * 线程池已满时直接拒绝下单，不在请求线程上串行执行。
+ */
+@Slf4j
+@Component
+public class OrderCheckoutValidator {
+
+    @Autowired
+    private UserClient userClient;
+
+    @Autowired
+    private BusinessClient businessClient;
+
+    @Autowired
+    private MenuSnapshotCache menuSnapshotCache;
+
+    @Autowired
+    @Qualifier("orderValidationExecutor")
+    private Executor orderValidationExecutor;
+
+    /**
+     * 校验截止时间（毫秒）
+     */
+    @Value("${eleme.order.validation.timeout-millis:3000}")
+    private long timeoutMillis;
+
+    /**
+     * 并行校验下单请求
+     * @param orderRequestDTO 订单请求DTO
+     * @return 校验结果，通过时包含用户、商家和菜单快照
+     */
+    public Result validate(OrderRequestDTO orderRequestDTO) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        CompletableFuture<String> firstFailure = new CompletableFuture<>();
+
+        CompletableFuture<User> userFuture;
+        CompletableFuture<Business> businessFuture;
+        CompletableFuture<MenuSnapshot> menuFuture;
+        try {
+            userFuture = check(() -> loadUser(orderRequestDTO.getUserPhone(), remaining(deadline)),
+                    "用户不存在: " + orderRequestDTO.getUserPhone(), firstFailure);
+            businessFuture = check(() -> loadBusiness(orderRequestDTO.getBusinessID(), remaining(deadline)),
+                    "商家不存在: " + orderRequestDTO.getBusinessID(), firstFailure);
+            menuFuture = check(
+                    () -> loadMenu(orderRequestDTO.getBusinessID(), orderRequestDTO.getOrderList(), remaining(deadline)),
+                    "商品不存在或不可用: " + orderRequestDTO.getOrderList(), firstFailure);
+        } catch (RejectedExecutionException e) {
+            // 已提交的校验会在截止时间前结束，结果不再使用
+            log.warn("下单校验线程池已满，拒绝下单: {}", orderRequestDTO.getUserPhone());
+            return new Result(false, "系统繁忙，请稍后重试", null, null, null);
+        }
+        CompletableFuture<Void> all = CompletableFuture.allOf(userFuture, businessFuture, menuFuture);
+
+        try {
+            // 全部通过或任一失败时返回
+            CompletableFuture.anyOf(all, firstFailure).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            firstFailure.complete("订单校验超时: " + timeoutMillis + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            firstFailure.complete("订单校验被中断");
+        } catch (ExecutionException e) {
+            firstFailure.complete("订单校验异常: " + e.getCause().getMessage());
+        }
+
+        String failure = firstFailure.getNow(null);
+        if (failure != null) {
+            // 仍在进行的校验不再等待，其远程调用受剩余时间限制，最迟在截止时间结束
+            return new Result(false, failure, null, null, null);
+        }
+        return new Result(true, null, userFuture.join(), businessFuture.join(), menuFuture.join());
+    }
+
+    /**
+     * 提交单项校验，结果为空或抛出异常时记录首个失败原因
+     */
+    private <T> CompletableFuture<T> check(Supplier<T> loader, String failureReason, CompletableFuture<String> firstFailure) {
+        return CompletableFuture.supplyAsync(loader, orderValidationExecutor)
+                .whenComplete((value, throwable) -> {
+                    if (throwable != null) {
+                        log.error("订单校验调用失败: {}", failureReason, throwable);
+                        firstFailure.complete(failureReason);
+                    } else if (value == null) {
+                        firstFailure.complete(failureReason);
+                    }
+                });
+    }
+
+    /**
+     * 截止前的剩余时间作为本次远程调用的连接和读取超时
+     *
+     * @throws IllegalStateException 已过截止时间，例如任务在队列中等待过久
+     */
+    private static Request.Options remaining(long deadline) {
+        long remainingMillis = deadline - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            throw new IllegalStateException("订单校验已超过截止时间");
+        }
+        return new Request.Options(remainingMillis, TimeUnit.MILLISECONDS, remainingMillis, TimeUnit.MILLISECONDS, true);
+    }
+
+    private User loadUser(String userPhone, Request.Options options) {
+        R<User> userResult = userClient.getUserByPhone(userPhone, options);
+        return userResult.isSuccess() ? userResult.getData() : null;
+    }
+
+    /**
+     * 使用批量接口查询单个商家，不加载商家菜单
+     */
+    private Business loadBusiness(Integer businessId, Request.Options options) {
+        R<List<Business>> businessResult = businessClient.getBusinessesByIds(List.of(businessId), false, options);
+        if (!businessResult.isSuccess() || businessResult.getData() == null || businessResult.getData().isEmpty()) {
+            return null;
+        }
+        return businessResult.getData().get(0);
+    }
+
+    /**
+     * 读取商家菜单快照，下单商品必须全部属于该商家且在售
+     */
+    private MenuSnapshot loadMenu(Integer businessId, List<Integer> foodIds, Request.Options options) {
+        if (foodIds.isEmpty()) {
+            return null;
+        }
+        MenuSnapshot menu = menuSnapshotCache.get(businessId, options);
+        if (menu == null) {
+            return null;
+        }
+        for (Integer foodId : foodIds) {
+            if (menu.getFood(foodId) == null) {
+                return null;
+            }
+        }
+        return menu;
+    }
+
+    /**
+     * 下单校验结果
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class Result {
+
+        /**
+         * 是否通过
+         */
+        private final boolean passed;
+
+        /**
+         * 未通过原因
+         */
+        private final String failureReason;
+
+        private final User user;
+
+        private final Business business;
+
+        /**
+         * 商家菜单快照，包含全部下单商品
+         */
+        private final MenuSnapshot menu;
+    }
+}
@@ -0,0 +1,170 @@
+package org.example.mapper;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+import org.testcontainers.utility.MountableFile;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订单表索引回归测试
+ * <p>
+ * 用初始化脚本启动MySQL容器，写入测试数据后对订单列表的各类查询执行EXPLAIN，
+ * 校验使用的索引以及排序是否由索引完成；并校验迁移脚本能把旧的单列索引升级为复合索引。
+ * 无Docker环境时跳过。
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class UserOrderIndexPlanTest {
+
+    private static final Path INIT_SCRIPTS = Path.of("..", "infrastructure", "mysql", "init").toAbsolutePath().normalize();
+
+    @Container
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>(DockerImageName.parse("mysql:8.0"))
+            .withDatabaseName("eleme_db")
+            .withUsername("eleme")
+            .withPassword("eleme123")
+            .withCopyFileToContainer(MountableFile.forHostPath(INIT_SCRIPTS), "/docker-entrypoint-initdb.d/");
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("SET SESSION cte_max_recursion_depth = 20000");
+            // 50个商家、500个用户、5种状态，创建时间按分钟递减
+            statement.execute("INSERT INTO user_order (business_id, user_phone, order_list, price, state, created_at) " +
+                    "WITH RECURSIVE seq(n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM seq WHERE n < 20000) " +
+                    "SELECT n % 50 + 1, CONCAT('138', LPAD(n % 500, 8, '0')), '[]', n % 200 + 0.5, n % 5 - 1, " +
+                    "TIMESTAMP('2024-06-01') - INTERVAL n MINUTE FROM seq");
+            statement.execute("ANALYZE TABLE user_order");
+        }
+    }
+
+    @Test
+    void businessStatePageReadsIndexInOrder() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE business_id = 7 AND state = 1" +
+                " AND (created_at < '2024-05-20 00:00:00' OR (created_at = '2024-05-20 00:00:00' AND id < 100))" +
+                " ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        assertEquals("idx_business_state_created", plan.key());
+        assertFalse(plan.usesFilesort(), plan.extra());
+    }
+
+    @Test
+    void userStatePageReadsIndexInOrder() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE user_phone = '13800000042' AND state = 2" +
+                " ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        assertEquals("idx_user_phone_state_created", plan.key());
+        assertFalse(plan.usesFilesort(), plan.extra());
+    }
+
+    @Test
+    void businessPageReadsIndexInOrder() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE business_id = 7" +
+                " ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        assertEquals("idx_business_created", plan.key());
+        assertFalse(plan.usesFilesort(), plan.extra());
+    }
+
+    @Test
+    void userTimeRangeScansCompositeIndex() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE user_phone = '13800000042'" +
+                " AND created_at BETWEEN '2024-05-25 00:00:00' AND '2024-05-30 00:00:00'" +
+                " ORDER BY created_at DESC, id DESC");
+
+        assertEquals("idx_user_phone_created", plan.key());
+        assertEquals("range", plan.type());
+        assertFalse(plan.usesFilesort(), plan.extra());
+    }
+
+    @Test
+    void statePageReadsIndexInOrder() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE state = 0" +
+                " ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        assertEquals("idx_state_created", plan.key());
+        assertFalse(plan.usesFilesort(), plan.extra());
+    }
+
+    @Test
+    void priceRangePageUsesPriceIndex() throws SQLException {
+        Plan plan = explain("SELECT * FROM user_order WHERE price >= 10.00 AND price <= 11.00" +
+                " ORDER BY created_at DESC, id DESC LIMIT 21");
+
+        assertEquals("idx_price_id", plan.key());
+        assertEquals("range", plan.type());
+    }
+
+    @Test
+    void countByBusinessIsIndexOnly() throws SQLException {
+        Plan plan = explain("SELECT COUNT(*) FROM user_order WHERE business_id = 7");
+
+        assertTrue(plan.extra().contains("Using index"), plan.extra());
+    }
+
+    @Test
+    void migrationUpgradesLegacyIndexesAndIsRepeatable() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            // 还原为迁移前的单列索引
+            statement.execute("ALTER TABLE user_order" +
+                    " DROP KEY idx_business_created, DROP KEY idx_user_phone_created, DROP KEY idx_state_created," +
+                    " DROP KEY idx_business_state_created, DROP KEY idx_user_phone_state_created, DROP KEY idx_price_id," +
+                    " ADD KEY idx_business_id (business_id), ADD KEY idx_user_phone (user_phone), ADD KEY idx_state (state)");
+
+            runMigration(connection);
+            runMigration(connection);
+
+            Set<String> indexes = new HashSet<>();
+            try (ResultSet rs = statement.executeQuery("SELECT DISTINCT INDEX_NAME FROM information_schema.STATISTICS" +
+                    " WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order'")) {
+                while (rs.next()) {
+                    indexes.add(rs.getString(1));
+                }
+            }
+            assertEquals(Set.of("PRIMARY", "idx_business_created", "idx_user_phone_created", "idx_state_created",
+                    "idx_business_state_created", "idx_user_phone_state_created", "idx_price_id"), indexes);
+        }
+    }
+
+    private static void runMigration(Connection connection) {
+        ScriptUtils.executeSqlScript(connection, new FileSystemResource(INIT_SCRIPTS.resolve("07-user-order-indexes.sql")));
+    }
+
+    private static Plan explain(String sql) throws SQLException {
+        try (Connection connection = connect();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            assertTrue(rs.next());
+            String extra = rs.getString("Extra");
+            return new Plan(rs.getString("type"), rs.getString("key"), extra == null ? "" : extra);
+        }
+    }
+
+    private static Connection connect() throws SQLException {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    private record Plan(String type, String key, String extra) {
+
+        boolean usesFilesort() {
+            return extra.contains("Using filesort");
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.pricing;
+
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.money.Money;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PricingEngineTest {
+
+    private final PricingEngine engine = new PricingEngine();
+
+    @Test
+    void fullReductionAppliesOnceSubtotalReachesThreshold() {
+        // 满30减5：小计满30元减5元
+        MenuSnapshot menu = menu(food(1, "12.00", "满30减5"));
+
+        assertEquals(Money.valueOf("24.00"), engine.quote(null, menu, List.of(1, 1)).getItemsTotal());
+
+        PriceQuote quote = engine.quote(null, menu, List.of(1, 1, 1));
+        assertEquals(Money.valueOf("5.00"), quote.getLines().get(0).getDiscountAmount());
+        assertEquals(Money.valueOf("31.00"), quote.getItemsTotal());
+    }
+
+    @Test
+    void fullReductionAtExactThreshold() {
+        MenuSnapshot menu = menu(food(1, "15.00", "满30减5"));
+
+        assertEquals(Money.valueOf("25.00"), engine.quote(null, menu, List.of(1, 1)).getItemsTotal());
+    }
+
+    @Test
+    void bestOfSeveralRulesWins() {
+        // 小计40元：满40减8优惠8元，9折优惠4元，满20减3优惠3元
+        MenuSnapshot menu = menu(food(1, "20.00", "满20减3-9折-满40减8-新品"));
+
+        PriceQuote quote = engine.quote(null, menu, List.of(1, 1));
+
+        assertEquals(Money.valueOf("8.00"), quote.getLines().get(0).getDiscountAmount());
+        assertEquals(Money.valueOf("32.00"), quote.getItemsTotal());
+    }
+
+    @Test
+    void rateDiscountAcceptsOneAndTwoDigitForms() {
+        assertEquals(Money.valueOf("8.00"), engine.quote(null, menu(food(1, "10.00", "8折")), List.of(1)).getTotal());
+        assertEquals(Money.valueOf("8.50"), engine.quote(null, menu(food(1, "10.00", "8.5折")), List.of(1)).getTotal());
+        assertEquals(Money.valueOf("8.50"), engine.quote(null, menu(food(1, "10.00", "85折")), List.of(1)).getTotal());
+    }
+
+    @Test
+    void rateDiscountRoundsHalfUpToCents() {
+        // 0.99 × 3 = 2.97，85折优惠 2.97 × 0.15 = 0.4455，四舍五入为0.45
+        PriceQuote quote = engine.quote(null, menu(food(1, "0.99", "85折")), List.of(1, 1, 1));
+
+        assertEquals(Money.valueOf("0.45"), quote.getLines().get(0).getDiscountAmount());
+        assertEquals(Money.valueOf("2.52"), quote.getItemsTotal());
+
+        // 0.05 × 0.5 = 0.025，优惠四舍五入为0.03
+        PriceQuote half = engine.quote(null, menu(food(1, "0.05", "5折")), List.of(1));
+        assertEquals(Money.valueOf("0.03"), half.getLines().get(0).getDiscountAmount());
+        assertEquals(Money.valueOf("0.02"), half.getTotal());
+    }
+
+    @Test
+    void discountNeverExceedsSubtotal() {
+        PriceQuote quote = engine.quote(null, menu(food(1, "3.00", "满1减10")), List.of(1));
+
+        assertEquals(Money.valueOf("3.00"), quote.getLines().get(0).getDiscountAmount());
+        assertEquals(Money.ZERO, quote.getTotal());
+    }
+
+    @Test
+    void deliveryFeeUsesLabelledAmount() {
+        MenuSnapshot menu = menu(food(1, "10.00", null));
+
+        assertEquals(Money.valueOf("3.00"), engine.quote(business("起送¥20 配送¥3"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.valueOf("2.00"), engine.quote(business("¥20起送/配送费¥2"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.valueOf("5.00"), engine.quote(business("配送费¥5"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.valueOf("4.50"), engine.quote(business("配送约¥4.5"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.valueOf("13.00"), engine.quote(business("起送¥20 配送¥3"), menu, List.of(1)).getTotal());
+    }
+
+    @Test
+    void deliveryFeeWithoutLabelIgnoresMinimumOrder() {
+        MenuSnapshot menu = menu(food(1, "10.00", null));
+
+        assertEquals(Money.valueOf("3.50"), engine.quote(business("约3.5元"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.ZERO, engine.quote(business("¥20起送"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.ZERO, engine.quote(business("起送¥20 免配送费"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.ZERO, engine.quote(business("免配送费"), menu, List.of(1)).getDeliveryFee());
+        assertEquals(Money.ZERO, engine.quote(business(null), menu, List.of(1)).getDeliveryFee());
+    }
+
+    @Test
+    void rejectsFoodMissingFromMenu() {
+        MenuSnapshot menu = menu(food(1, "10.00", null));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.quote(null, menu, List.of(1, 2)));
+    }
+
+    private static Food food(int id, String price, String discount) {
+        Food food = new Food();
+        food.setId(id);
+        food.setRedPrice(Money.valueOf(price));
+        food.setDiscount(discount);
+        return food;
+    }
+
+    private static Business business(String delivery) {
+        Business business = new Business();
+        business.setDelivery(delivery);
+        return business;
+    }
+
+    private static MenuSnapshot menu(Food... foods) {
+        Map<Integer, Food> byId = new HashMap<>();
+        for (Food food : foods) {
+            byId.put(food.getId(), food);
+        }
+        return new MenuSnapshot(1, 0, byId, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.utils;
+
+import org.example.entity.UserOrder;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderCursorTest {
+
+    @Test
+    void roundTripsCreatedAtAndId() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 12, 30, 45, 123_000_000);
+        String cursor = OrderCursor.encode(new UserOrder().setCreatedAt(createdAt).setId(42));
+
+        OrderCursor decoded = OrderCursor.decode(cursor);
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(42, decoded.getId());
+    }
+
+    @Test
+    void roundTripsWholeMinute() {
+        // LocalDateTime.toString 在秒为0时省略秒，解析时仍需还原
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 15, 12, 30);
+        OrderCursor decoded = OrderCursor.decode(OrderCursor.encode(new UserOrder().setCreatedAt(createdAt).setId(7)));
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals(7, decoded.getId());
+    }
+
+    @Test
+    void encodesAsUrlSafeWithoutPadding() {
+        String cursor = OrderCursor.encode(new UserOrder()
+                .setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0, 1)).setId(1));
+
+        assertFalse(cursor.contains("="));
+        assertFalse(cursor.contains("+"));
+        assertFalse(cursor.contains("/"));
+    }
+
+    @Test
+    void blankCursorStartsFromFirstPage() {
+        assertNull(OrderCursor.decode(null));
+        assertNull(OrderCursor.decode(""));
+        assertNull(OrderCursor.decode("  "));
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encodeRaw("2024-03-15T12:30")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encodeRaw("yesterday_42")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encodeRaw("2024-03-15T12:30_abc")));
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.validator;
+
+import feign.Request;
+import org.example.dto.OrderRequestDTO;
+import org.example.dto.R;
+import org.example.entity.Business;
+import org.example.entity.Food;
+import org.example.entity.User;
+import org.example.feign.BusinessClient;
+import org.example.feign.UserClient;
+import org.example.pricing.MenuSnapshot;
+import org.example.pricing.MenuSnapshotCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderCheckoutValidatorTest {
+
+    private static final long TIMEOUT_MILLIS = 300;
+
+    private final UserClient userClient = mock(UserClient.class);
+
+    private final BusinessClient businessClient = mock(BusinessClient.class);
+
+    private final MenuSnapshotCache menuSnapshotCache = mock(MenuSnapshotCache.class);
+
+    private ExecutorService executor;
+
+    private OrderCheckoutValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        validator = new OrderCheckoutValidator();
+        ReflectionTestUtils.setField(validator, "userClient", userClient);
+        ReflectionTestUtils.setField(validator, "businessClient", businessClient);
+        ReflectionTestUtils.setField(validator, "menuSnapshotCache", menuSnapshotCache);
+        ReflectionTestUtils.setField(validator, "orderValidationExecutor", executor);
+        ReflectionTestUtils.setField(validator, "timeoutMillis", TIMEOUT_MILLIS);
+
+        Food food = new Food();
+        food.setId(11);
+        when(userClient.getUserByPhone(anyString(), any(Request.Options.class))).thenReturn(R.success(new User()));
+        when(businessClient.getBusinessesByIds(anyList(), eq(false), any(Request.Options.class)))
+                .thenReturn(R.success(List.of(new Business())));
+        when(menuSnapshotCache.get(eq(1), any(Request.Options.class)))
+                .thenReturn(new MenuSnapshot(1, 0, Map.of(11, food), System.currentTimeMillis()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void passesWhenAllChecksSucceed() {
+        OrderCheckoutValidator.Result result = validator.validate(request());
+
+        assertTrue(result.isPassed());
+        assertNotNull(result.getUser());
+        assertNotNull(result.getBusiness());
+        assertNotNull(result.getMenu());
+    }
+
+    @Test
+    void failsFastOnFirstFailureWithoutWaitingForSlowChecks() {
+        when(userClient.getUserByPhone(anyString(), any(Request.Options.class))).thenReturn(R.error("not found"));
+        when(businessClient.getBusinessesByIds(anyList(), eq(false), any(Request.Options.class))).thenAnswer(invocation -> {
+            Thread.sleep(TIMEOUT_MILLIS * 2);
+            return R.success(List.of(new Business()));
+        });
+
+        long start = System.currentTimeMillis();
+        OrderCheckoutValidator.Result result = validator.validate(request());
+
+        assertFalse(result.isPassed());
+        assertTrue(result.getFailureReason().startsWith("用户不存在"), result.getFailureReason());
+        assertTrue(System.currentTimeMillis() - start < TIMEOUT_MILLIS, "should not wait for the slow check");
+    }
+
+    @Test
+    void failsWhenMenuMissesOrderedFood() {
+        OrderRequestDTO request = request();
+        request.setOrderList(List.of(11, 12));
+
+        OrderCheckoutValidator.Result result = validator.validate(request);
+
+        assertFalse(result.isPassed());
+        assertTrue(result.getFailureReason().startsWith("商品不存在或不可用"), result.getFailureReason());
+    }
+
+    @Test
+    void remoteFailureIsReportedAsCheckFailure() {
+        when(businessClient.getBusinessesByIds(anyList(), eq(false), any(Request.Options.class)))
+                .thenThrow(new IllegalStateException("connection refused"));
+
+        OrderCheckoutValidator.Result result = validator.validate(request());
+
+        assertFalse(result.isPassed());
+        assertTrue(result.getFailureReason().startsWith("商家不存在"), result.getFailureReason());
+    }
+
+    @Test
+    void timesOutAtDeadlineAndBoundsRemoteCallsByRemainingBudget() {
+        when(businessClient.getBusinessesByIds(anyList(), eq(false), any(Request.Options.class))).thenAnswer(invocation -> {
+            Thread.sleep(TIMEOUT_MILLIS * 3);
+            return R.success(List.of(new Business()));
+        });
+
+        long start = System.currentTimeMillis();
+        OrderCheckoutValidator.Result result = validator.validate(request());
+        long elapsed = System.currentTimeMillis() - start;
+
+        assertFalse(result.isPassed());
+        assertTrue(result.getFailureReason().startsWith("订单校验超时"), result.getFailureReason());
+        assertTrue(elapsed >= TIMEOUT_MILLIS && elapsed < TIMEOUT_MILLIS * 2, "elapsed " + elapsed);
+
+        ArgumentCaptor<Request.Options> options = ArgumentCaptor.forClass(Request.Options.class);
+        verify(businessClient).getBusinessesByIds(anyList(), eq(false), options.capture());
+        assertTrue(options.getValue().readTimeoutMillis() <= TIMEOUT_MILLIS);
+        assertTrue(options.getValue().connectTimeoutMillis() <= TIMEOUT_MILLIS);
+    }
+
+    @Test
+    void rejectsImmediatelyWhenExecutorIsSaturated() {
+        ReflectionTestUtils.setField(validator, "orderValidationExecutor", (Executor) task -> {
+            throw new RejectedExecutionException("queue full");
+        });
+
+        OrderCheckoutValidator.Result result = validator.validate(request());
+
+        assertFalse(result.isPassed());
+        assertTrue(result.getFailureReason().contains("系统繁忙"), result.getFailureReason());
+    }
+
+    private static OrderRequestDTO request() {
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserPhone("13800000000");
+        request.setBusinessID(1);
+        request.setOrderList(List.of(11));
+        return request;
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.config;
+
+import org.example.cache.ExistenceFilter;
+import org.example.mapper.UserMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * 存在性过滤器配置
+ * 用户查询前先经过布隆过滤器，一定不存在的用户直接返回，不访问Redis和数据库
+ */
+@Configuration
+public class ExistenceFilterConfig {
+
+    @Bean
+    public ExistenceFilter userExistenceFilter(
+            UserMapper userMapper,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer redisMessageListenerContainer,
+            @Value("${eleme.existence-filter.user.expected-insertions:100000}") long expectedInsertions,
+            @Value("${eleme.existence-filter.user.rebuild-interval-minutes:60}") long rebuildIntervalMinutes) {
+        return new ExistenceFilter("user", expectedInsertions, 0.01, false,
+                userMapper::findAllPhoneNumbers, null, redisTemplate, redisMessageListenerContainer, rebuildIntervalMinutes);
+    }
+}
@@ -6,6 +6,8 @@ import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 import org.example.entity.User;
 
+import java.util.List;
+
 /**
  * 用户Mapper接口
  */
@@ -58,4 +60,12 @@ public interface UserMapper extends BaseMapper<User> {
      */
     @Select("SELECT COUNT(1) > 0 FROM user WHERE email = #{email}")
     boolean existsByEmail(@Param("email") String email);
-} 
\ No newline at end of file
+
+    /**
+     * 查询全部用户手机号，用于构建存在性过滤器
+     *
+     * @return 手机号列表
+     */
+    @Select("SELECT phone_number FROM user")
+    List<String> findAllPhoneNumbers();
+}
@@ -4,6 +4,9 @@ import cn.hutool.core.util.StrUtil;
 import cn.hutool.crypto.digest.DigestUtil;
 import com.alibaba.csp.sentinel.annotation.SentinelResource;
 import lombok.extern.slf4j.Slf4j;
+import org.example.cache.CacheService;
+import org.example.cache.ExistenceFilter;
+import org.example.cache.ReadThroughCache;
 import org.example.constants.CommonConstants;
 import org.example.dto.R;
 import org.example.dto.UserLoginDTO;
@@ -22,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 用户服务实现类
@@ -39,6 +43,17 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private StringRedisTemplate redisTemplate;
 
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private ReadThroughCache readThroughCache;
+
+    @Autowired
+    private ExistenceFilter userExistenceFilter;
+
+    private static final String USER_CACHE_KEY = "user:info:";
+
     @Override
     @SentinelResource(value = "user-login", fallback = "loginFallback")
     public R<Object> login(UserLoginDTO loginDTO) {
@@ -137,6 +152,9 @@ public class UserServiceImpl implements UserService {
 
             int result = userMapper.insert(user);
             if (result > 0) {
+                userExistenceFilter.add(user.getPhoneNumber());
+                // 清理可能存在的空结果缓存
+                cacheService.delete(USER_CACHE_KEY + user.getPhoneNumber());
                 log.info("用户注册成功: {}", user.getPhoneNumber());
                 return R.success("注册成功");
             } else {
@@ -157,13 +175,24 @@ public class UserServiceImpl implements UserService {
                 return R.error(CommonConstants.ERROR_CODE, "手机号不能为空");
             }
 
-            User user = userMapper.findByPhoneNumber(phoneNumber);
-            if (user == null) {
+            // 布隆过滤器判定一定不存在的手机号直接返回
+            if (!userExistenceFilter.mightExist(phoneNumber)) {
                 return R.error(CommonConstants.NOT_FOUND_CODE, "用户不存在");
             }
 
-            // 隐藏敏感信息
-            user.setPassword(null);
+            // 读穿透缓存，不存在的用户短时间缓存空结果
+            User user = readThroughCache.get(USER_CACHE_KEY + phoneNumber, CommonConstants.DEFAULT_CACHE_EXPIRE,
+                    TimeUnit.SECONDS, CommonConstants.NEGATIVE_CACHE_EXPIRE, () -> {
+                User found = userMapper.findByPhoneNumber(phoneNumber);
+                if (found != null) {
+                    // 隐藏敏感信息
+                    found.setPassword(null);
+                }
+                return found;
+            });
+            if (user == null) {
+                return R.error(CommonConstants.NOT_FOUND_CODE, "用户不存在");
+            }
 
             return R.success(user);
 
@@ -211,6 +240,7 @@ public class UserServiceImpl implements UserService {
 
             int result = userMapper.updateById(user);
             if (result > 0) {
+                cacheService.delete(USER_CACHE_KEY + phoneNumber);
                 log.info("用户信息更新成功: {}", phoneNumber);
                 return R.success("更新成功");
             } else {
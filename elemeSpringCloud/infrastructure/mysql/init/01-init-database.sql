@@ -92,7 +92,18 @@ CREATE TABLE IF NOT EXISTS `business` (
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `status` tinyint(1) DEFAULT 1 COMMENT '商家状态(0-禁用,1-正常)',
-  PRIMARY KEY (`id`)
+  `rating_num` decimal(3,1) DEFAULT NULL COMMENT '评分数值，由rating回填',
+  `sales_num` int(11) DEFAULT NULL COMMENT '销量数值，由sales回填',
+  `distance_num` decimal(8,2) DEFAULT NULL COMMENT '距离数值，由distance回填',
+  `latitude` decimal(10,7) DEFAULT NULL COMMENT '纬度',
+  `longitude` decimal(10,7) DEFAULT NULL COMMENT '经度',
+  PRIMARY KEY (`id`),
+  -- 推荐、热门、评分、距离榜单按 (status, 数值列) 索引顺序读取，无需CAST和filesort
+  KEY `idx_status_rating_sales` (`status`, `rating_num`, `sales_num`),
+  KEY `idx_status_sales` (`status`, `sales_num`),
+  KEY `idx_status_distance` (`status`, `distance_num`),
+  -- 地理索引未就绪时附近商家按坐标范围回退查询数据库
+  KEY `idx_status_location` (`status`, `latitude`, `longitude`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='商家表';
 
 -- 创建食物表
@@ -111,9 +122,13 @@ CREATE TABLE IF NOT EXISTS `food` (
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `status` tinyint(1) DEFAULT 1 COMMENT '食物状态(0-禁用,1-正常)',
   `category` varchar(50) DEFAULT NULL COMMENT '食物分类',
+  `amount_num` int(11) DEFAULT NULL COMMENT '销量数值，由amount回填',
+  `gray_price_num` decimal(10,2) DEFAULT NULL COMMENT '原价数值，由gray_price回填',
   PRIMARY KEY (`id`),
   KEY `idx_business` (`business`),
-  KEY `idx_selling` (`selling`)
+  KEY `idx_selling` (`selling`),
+  KEY `idx_selling_amount` (`selling`, `amount_num`),
+  KEY `idx_business_selling_amount` (`business`, `selling`, `amount_num`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='食物表';
 
 -- 创建用户订单表
@@ -123,7 +138,7 @@ CREATE TABLE IF NOT EXISTS `user_order` (
   `user_phone` varchar(20) NOT NULL COMMENT '用户手机号',
   `order_list` text NOT NULL COMMENT '订单商品列表',
   `price` decimal(10,2) NOT NULL COMMENT '订单总价',
-  `state` tinyint(1) DEFAULT 0 COMMENT '订单状态(0-未支付,1-已支付,2-已完成,3-已取消)',
+  `state` tinyint(1) DEFAULT 0 COMMENT '订单状态(0-未支付,1-已支付,2-已确认,3-已完成,-1-已取消)',
   `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
   `updated_at` datetime DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   `paid_at` datetime DEFAULT NULL COMMENT '支付时间',
@@ -134,7 +149,14 @@ CREATE TABLE IF NOT EXISTS `user_order` (
   `remark` text COMMENT '备注',
   `delivery_fee` decimal(10,2) DEFAULT 0.00 COMMENT '配送费',
   PRIMARY KEY (`id`),
-  KEY `idx_business_id` (`business_id`),
-  KEY `idx_user_phone` (`user_phone`),
-  KEY `idx_state` (`state`)
+  -- 订单列表按 (created_at DESC, id DESC) 游标分页，复合索引同时覆盖过滤和排序
+  -- 等值条件列在前、排序列在后：按商家/用户查询（含时间范围）走前两个索引，
+  -- 叠加状态过滤走带state的索引，均无需filesort；统计数量只读索引不回表
+  KEY `idx_business_created` (`business_id`, `created_at`, `id`),
+  KEY `idx_user_phone_created` (`user_phone`, `created_at`, `id`),
+  KEY `idx_business_state_created` (`business_id`, `state`, `created_at`, `id`),
+  KEY `idx_user_phone_state_created` (`user_phone`, `state`, `created_at`, `id`),
+  KEY `idx_state_created` (`state`, `created_at`, `id`),
+  -- 按价格范围游标分页只扫描范围内的索引条目，不全表扫描
+  KEY `idx_price_id` (`price`, `id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='用户订单表'; 
\ No newline at end of file
@@ -0,0 +1,31 @@
+-- 订单明细表及历史数据迁移
+-- 新部署时随初始化脚本执行；已有数据库手动执行一次即可，脚本可重复执行
+USE eleme_db;
+
+-- 创建订单明细表
+CREATE TABLE IF NOT EXISTS `order_item` (
+  `id` int(11) NOT NULL AUTO_INCREMENT COMMENT '明细ID',
+  `order_id` int(11) NOT NULL COMMENT '订单ID',
+  `food_id` int(11) NOT NULL COMMENT '商品ID',
+  `quantity` int(11) NOT NULL DEFAULT 1 COMMENT '购买数量',
+  `unit_price` decimal(10,2) DEFAULT NULL COMMENT '下单时的商品单价',
+  `created_at` datetime DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uk_order_food` (`order_id`, `food_id`),
+  -- 按商品统计销量、查询包含某商品的订单
+  KEY `idx_food_order` (`food_id`, `order_id`, `quantity`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='订单明细表';
+
+-- 将 user_order.order_list（"-"分隔的商品ID，重复表示多份）拆分为明细行
+-- 只迁移还没有明细的订单；单价取迁移时的商品现价，历史价格已无法还原
+INSERT INTO `order_item` (`order_id`, `food_id`, `quantity`, `unit_price`, `created_at`)
+SELECT o.`id`, t.`food_id`, COUNT(*), MAX(f.`red_price`), MAX(o.`created_at`)
+FROM `user_order` o
+JOIN JSON_TABLE(
+       CONCAT('[', REPLACE(o.`order_list`, '-', ','), ']'),
+       '$[*]' COLUMNS (`food_id` int PATH '$')
+     ) t
+LEFT JOIN `food` f ON f.`id` = t.`food_id`
+WHERE o.`order_list` REGEXP '^[0-9]+(-[0-9]+)*$'
+  AND NOT EXISTS (SELECT 1 FROM `order_item` i WHERE i.`order_id` = o.`id`)
+GROUP BY o.`id`, t.`food_id`;
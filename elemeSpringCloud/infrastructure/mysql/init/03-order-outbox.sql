@@ -0,0 +1,24 @@
+-- 订单事件发件箱表
+-- 订单写操作在同一事务中写入一行，由订单服务后台任务批量投递（清理缓存、广播订单变更事件）
+-- 新部署时随初始化脚本执行；已有数据库手动执行一次即可，脚本可重复执行
+USE eleme_db;
+
+CREATE TABLE IF NOT EXISTS `order_outbox` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT COMMENT '事件ID',
+  `order_id` int(11) NOT NULL COMMENT '订单ID',
+  `user_phone` varchar(20) DEFAULT NULL COMMENT '用户手机号',
+  `business_id` int(11) DEFAULT NULL COMMENT '商家ID',
+  `event_type` varchar(32) NOT NULL COMMENT '事件类型',
+  `from_state` int(11) DEFAULT NULL COMMENT '变更前状态',
+  `to_state` int(11) DEFAULT NULL COMMENT '变更后状态',
+  `status` tinyint(4) NOT NULL DEFAULT 0 COMMENT '投递状态：0-待投递，1-已投递',
+  `attempts` int(11) NOT NULL DEFAULT 0 COMMENT '投递失败次数',
+  `next_attempt_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '下次投递时间',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `dispatched_at` datetime DEFAULT NULL COMMENT '投递时间',
+  PRIMARY KEY (`id`),
+  -- 投递任务按 status = 0 AND next_attempt_at <= NOW() 取待投递事件
+  KEY `idx_status_next_attempt` (`status`, `next_attempt_at`, `id`),
+  -- 清理任务按投递时间删除已投递事件
+  KEY `idx_status_dispatched` (`status`, `dispatched_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='订单事件发件箱表';
@@ -0,0 +1,36 @@
+-- 商家、商品的数值影子列
+-- rating、sales、distance、amount、gray_price 以文本存储（如「月售345单」「1.2km」），排序和过滤需要CAST，无法使用索引；
+-- 影子列保存从文本中解析出的第一个数值，接口仍返回原文本字段。
+-- 影子列由商家服务、商品服务的后台任务按主键区间分批回填（见 RangeBackfill），之后定期校准；
+-- 商品服务新增、修改商品时同步更新当前行。
+-- 新部署时随初始化脚本执行（建表语句已包含，以下语句跳过）；已有数据库手动执行一次即可，脚本可重复执行
+USE eleme_db;
+
+-- 在线DDL：新增可为NULL的列和二级索引，不阻塞读写
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'business' AND COLUMN_NAME = 'rating_num') = 0,
+  'ALTER TABLE `business`
+     ADD COLUMN `rating_num` decimal(3,1) DEFAULT NULL COMMENT ''评分数值，由rating回填'',
+     ADD COLUMN `sales_num` int(11) DEFAULT NULL COMMENT ''销量数值，由sales回填'',
+     ADD COLUMN `distance_num` decimal(8,2) DEFAULT NULL COMMENT ''距离数值，由distance回填'',
+     ADD KEY `idx_status_rating_sales` (`status`, `rating_num`, `sales_num`),
+     ADD KEY `idx_status_sales` (`status`, `sales_num`),
+     ADD KEY `idx_status_distance` (`status`, `distance_num`),
+     ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'food' AND COLUMN_NAME = 'amount_num') = 0,
+  'ALTER TABLE `food`
+     ADD COLUMN `amount_num` int(11) DEFAULT NULL COMMENT ''销量数值，由amount回填'',
+     ADD COLUMN `gray_price_num` decimal(10,2) DEFAULT NULL COMMENT ''原价数值，由gray_price回填'',
+     ADD KEY `idx_selling_amount` (`selling`, `amount_num`),
+     ADD KEY `idx_business_selling_amount` (`business`, `selling`, `amount_num`),
+     ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
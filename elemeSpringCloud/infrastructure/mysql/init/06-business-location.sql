@@ -0,0 +1,25 @@
+-- 商家坐标
+-- 附近商家查询由商家服务在内存中按geohash建立地理索引（见 GeoIndex），数据库只保存坐标；
+-- 没有坐标的商家不出现在附近商家结果中。地理索引未就绪时按坐标范围回退查询数据库，
+-- 由 (status, latitude, longitude) 索引限定纬度范围，经度条件在索引内过滤，不回表判断。
+-- 新部署时随初始化脚本执行（建表语句已包含，以下语句跳过）；已有数据库手动执行一次即可，脚本可重复执行
+USE eleme_db;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.COLUMNS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'business' AND COLUMN_NAME = 'latitude') = 0,
+  'ALTER TABLE `business`
+     ADD COLUMN `latitude` decimal(10,7) DEFAULT NULL COMMENT ''纬度'',
+     ADD COLUMN `longitude` decimal(10,7) DEFAULT NULL COMMENT ''经度'',
+     ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'business' AND INDEX_NAME = 'idx_status_location') = 0,
+  'ALTER TABLE `business` ADD KEY `idx_status_location` (`status`, `latitude`, `longitude`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,81 @@
+-- 订单表复合索引
+-- 订单列表按 (created_at DESC, id DESC) 游标分页，按商家、用户、状态过滤的查询由 (过滤列, created_at, id) 复合索引
+-- 同时覆盖过滤和排序，商家、用户叠加状态过滤由 (过滤列, state, created_at, id) 复合索引覆盖；
+-- 按价格范围分页由 (price, id) 索引限定扫描范围。复合索引的最左前缀可以替代原有的单列索引。
+-- 新部署时随初始化脚本执行（建表语句已包含，以下语句跳过）；已有数据库手动执行一次即可，脚本可重复执行
+USE eleme_db;
+
+-- 在线DDL：新增二级索引，不阻塞读写
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_business_created') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_business_created` (`business_id`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_user_phone_created') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_user_phone_created` (`user_phone`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_state_created') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_state_created` (`state`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_price_id') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_price_id` (`price`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 按商家、用户叠加状态过滤时，等值条件列在前、排序列在后，读索引即有序，无需filesort
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_business_state_created') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_business_state_created` (`business_id`, `state`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_user_phone_state_created') = 0,
+  'ALTER TABLE `user_order` ADD KEY `idx_user_phone_state_created` (`user_phone`, `state`, `created_at`, `id`), ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+-- 新索引建好后再删除被其最左前缀替代的单列索引
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_business_id') > 0,
+  'ALTER TABLE `user_order` DROP KEY `idx_business_id`, ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_user_phone') > 0,
+  'ALTER TABLE `user_order` DROP KEY `idx_user_phone`, ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF((SELECT COUNT(*) FROM information_schema.STATISTICS
+               WHERE TABLE_SCHEMA = 'eleme_db' AND TABLE_NAME = 'user_order' AND INDEX_NAME = 'idx_state') > 0,
+  'ALTER TABLE `user_order` DROP KEY `idx_state`, ALGORITHM=INPLACE, LOCK=NONE',
+  'DO 0');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,74 @@
+#!/usr/bin/env bash
+#
+# 一次性清理旧序列化格式的缓存值
+#
+# RedisTemplate的值序列化启用了类型信息（对象带"@class"，集合带类型包装），
+# 升级前写入的对象/集合值无法再被反序列化。本脚本在升级发布前后执行一次：
+# 扫描各服务使用的库（0-6），删除值为JSON对象或数组且不带类型信息的字符串键。
+# 数字、字符串等标量值的格式没有变化，排行榜、计数器等ZSET/HASH结构不受影响。
+# 脚本可重复执行，已是新格式的值会被跳过。
+#
+# 用法：REDIS_HOST=127.0.0.1 REDIS_PORT=6379 REDIS_PASSWORD=redis_password ./flush-legacy-cache.sh [--dry-run]
+
+set -euo pipefail
+
+REDIS_HOST="${REDIS_HOST:-127.0.0.1}"
+REDIS_PORT="${REDIS_PORT:-6379}"
+REDIS_PASSWORD="${REDIS_PASSWORD:-}"
+REDIS_DATABASES="${REDIS_DATABASES:-0 1 2 3 4 5 6}"
+DRY_RUN=0
+
+if [[ "${1:-}" == "--dry-run" ]]; then
+    DRY_RUN=1
+fi
+
+cli() {
+    local db="$1"
+    shift
+    if [[ -n "$REDIS_PASSWORD" ]]; then
+        REDISCLI_AUTH="$REDIS_PASSWORD" redis-cli -h "$REDIS_HOST" -p "$REDIS_PORT" -n "$db" "$@"
+    else
+        redis-cli -h "$REDIS_HOST" -p "$REDIS_PORT" -n "$db" "$@"
+    fi
+}
+
+is_legacy_value() {
+    local value="$1"
+    case "$value" in
+        \{*)
+            [[ "$value" != *'"@class"'* ]]
+            ;;
+        \[*)
+            [[ "$value" != '["java.'* && "$value" != '["org.example.'* ]]
+            ;;
+        *)
+            return 1
+            ;;
+    esac
+}
+
+total=0
+for db in $REDIS_DATABASES; do
+    removed=0
+    while IFS= read -r key; do
+        [[ -z "$key" ]] && continue
+        if [[ "$(cli "$db" TYPE "$key")" != "string" ]]; then
+            continue
+        fi
+        value="$(cli "$db" --raw GET "$key")"
+        if is_legacy_value "$value"; then
+            if [[ "$DRY_RUN" -eq 0 ]]; then
+                cli "$db" UNLINK "$key" > /dev/null
+            fi
+            removed=$((removed + 1))
+        fi
+    done < <(cli "$db" --scan --count 1000)
+    echo "db=${db} removed=${removed}"
+    total=$((total + removed))
+done
+
+if [[ "$DRY_RUN" -eq 1 ]]; then
+    echo "dry run, ${total} legacy cache entries would be removed"
+else
+    echo "${total} legacy cache entries removed"
+fi